@@ -0,0 +1,4 @@
+-- Huella del contenido fuente para distinguir cambios de contenido de cambios solo de metadatos
+ALTER TABLE slide_api.slides ADD COLUMN IF NOT EXISTS source_fingerprint VARCHAR(32);
+
+COMMENT ON COLUMN slide_api.slides.source_fingerprint IS 'md5 de las columnas fuente del HTML/URL en la réplica (slide_type, use_html_embed, html_content, html_embed_code, preconverthtml, url, bunny_url, external_url)';
@@ -0,0 +1,8 @@
+-- Marca de agua de la sincronización incremental (mayor write_date de la réplica ya sincronizado)
+CREATE TABLE IF NOT EXISTS slide_api.sync_watermarks (
+    name       VARCHAR(50) PRIMARY KEY,
+    watermark  TIMESTAMP,
+    updated_at TIMESTAMP
+);
+
+COMMENT ON TABLE slide_api.sync_watermarks IS 'High-water mark de write_date por fuente para la sincronización incremental';
@@ -0,0 +1,14 @@
+-- Reintentos con backoff exponencial y estado DEAD_LETTER para slides que fallan de forma persistente
+ALTER TABLE public.slide_processing_status ADD COLUMN IF NOT EXISTS next_attempt_at TIMESTAMP;
+
+ALTER TABLE public.slide_processing_status DROP CONSTRAINT IF EXISTS slide_processing_status_status_check;
+ALTER TABLE public.slide_processing_status ADD CONSTRAINT slide_processing_status_status_check
+    CHECK (status IN ('PENDING', 'PROCESSING', 'COMPLETED', 'FAILED', 'DEAD_LETTER'));
+
+-- Cola de trabajo: PENDING y FAILED vencidos
+CREATE INDEX IF NOT EXISTS idx_processing_due ON public.slide_processing_status(status, next_attempt_at)
+    WHERE status IN ('PENDING', 'FAILED');
+
+COMMENT ON COLUMN public.slide_processing_status.status IS 'Estado actual del procesamiento: PENDING, PROCESSING, COMPLETED, FAILED, DEAD_LETTER';
+COMMENT ON COLUMN public.slide_processing_status.retry_count IS 'Fallos consecutivos; se reinicia al completar';
+COMMENT ON COLUMN public.slide_processing_status.next_attempt_at IS 'Próximo reintento de un slide FAILED (backoff exponencial); NULL = inmediato';
@@ -0,0 +1,9 @@
+-- Prioridad de la cola de sincronización: popularidad del slide y del canal, recencia y reintentos
+ALTER TABLE public.slide_processing_status ADD COLUMN IF NOT EXISTS priority_score DOUBLE PRECISION;
+ALTER TABLE public.slide_processing_status ADD COLUMN IF NOT EXISTS view_weight BIGINT;
+
+CREATE INDEX IF NOT EXISTS idx_processing_priority ON public.slide_processing_status(priority_score DESC)
+    WHERE status IN ('PENDING', 'FAILED');
+
+COMMENT ON COLUMN public.slide_processing_status.priority_score IS 'Prioridad base calculada desde la réplica (vistas del slide y del canal, recencia de write_date)';
+COMMENT ON COLUMN public.slide_processing_status.view_weight IS 'total_views del slide en la réplica; peso para el porcentaje de vistas frescas';
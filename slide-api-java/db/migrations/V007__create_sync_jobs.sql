@@ -0,0 +1,27 @@
+-- Trabajos de sincronización asíncronos: estado, cancelación y resultado resumido de cada ejecución
+CREATE TABLE IF NOT EXISTS public.sync_jobs (
+    job_id             VARCHAR(64) PRIMARY KEY,  -- también es el sync_run_id de slide_sync_log
+    job_type           VARCHAR(20) NOT NULL,     -- MANUAL o SCHEDULED
+    status             VARCHAR(20) NOT NULL
+        CHECK (status IN ('QUEUED', 'RUNNING', 'COMPLETED', 'FAILED', 'CANCELLED', 'SKIPPED')),
+    cancel_requested   BOOLEAN NOT NULL DEFAULT false,
+    submitted_at       TIMESTAMP NOT NULL,
+    started_at         TIMESTAMP,
+    completed_at       TIMESTAMP,
+    node               VARCHAR(255),
+    slides_processed   INTEGER,
+    slides_created     INTEGER,
+    slides_updated     INTEGER,
+    slides_failed      INTEGER,
+    channels_processed INTEGER,
+    duration_ms        BIGINT,
+    commit_mode        VARCHAR(20),
+    error_message      VARCHAR(2000)
+);
+
+CREATE INDEX IF NOT EXISTS idx_sync_jobs_submitted ON public.sync_jobs(submitted_at DESC);
+CREATE INDEX IF NOT EXISTS idx_sync_jobs_active ON public.sync_jobs(status) WHERE status IN ('QUEUED', 'RUNNING');
+
+COMMENT ON TABLE public.sync_jobs IS 'Ejecuciones de la sincronización completa lanzadas en segundo plano (una activa a la vez vía advisory lock)';
+COMMENT ON COLUMN public.sync_jobs.job_id IS 'ID del trabajo; coincide con sync_run_id en slide_sync_log (detalle por slide)';
+COMMENT ON COLUMN public.sync_jobs.cancel_requested IS 'Cancelación solicitada: el trabajo deja de encolar slides y termina los que están en curso';
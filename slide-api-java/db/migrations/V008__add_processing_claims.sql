@@ -0,0 +1,13 @@
+-- Reparto del trabajo entre nodos: cada worker reclama lotes con FOR UPDATE SKIP LOCKED y un lease
+ALTER TABLE public.slide_processing_status ADD COLUMN IF NOT EXISTS claimed_by VARCHAR(255);
+ALTER TABLE public.slide_processing_status ADD COLUMN IF NOT EXISTS lease_expires_at TIMESTAMP;
+
+-- Leases vencidos (reclamables por otro worker)
+CREATE INDEX IF NOT EXISTS idx_processing_lease ON public.slide_processing_status(lease_expires_at)
+    WHERE status = 'PROCESSING';
+-- Liberación y renovación por worker
+CREATE INDEX IF NOT EXISTS idx_processing_claimed_by ON public.slide_processing_status(claimed_by)
+    WHERE status = 'PROCESSING';
+
+COMMENT ON COLUMN public.slide_processing_status.claimed_by IS 'Worker (nodo + ejecución) que reclamó el slide; solo significativo con status PROCESSING';
+COMMENT ON COLUMN public.slide_processing_status.lease_expires_at IS 'Fin del lease del reclamo; vencido, otro worker puede reclamar el slide';
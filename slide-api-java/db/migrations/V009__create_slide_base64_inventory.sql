@@ -0,0 +1,19 @@
+-- Inventario de imágenes Base64 por slide de la réplica, mantenido incrementalmente por write_date.
+-- Sustituye los escaneos LIKE sobre html_content para elegir candidatos de migración y para las estadísticas
+CREATE TABLE IF NOT EXISTS public.slide_base64_inventory (
+    slide_id            INTEGER PRIMARY KEY,
+    active              BOOLEAN NOT NULL,
+    base64_images       INTEGER NOT NULL DEFAULT 0,
+    base64_bytes        BIGINT NOT NULL DEFAULT 0,
+    largest_image_bytes BIGINT NOT NULL DEFAULT 0,
+    odoo_write_date     TIMESTAMP,
+    scanned_at          TIMESTAMP NOT NULL
+);
+
+-- Candidatos a migración (activos con Base64), de mayor a menor
+CREATE INDEX IF NOT EXISTS idx_base64_inventory_candidates ON public.slide_base64_inventory(base64_bytes DESC)
+    WHERE active AND base64_images > 0;
+
+COMMENT ON TABLE public.slide_base64_inventory IS 'Imágenes Base64 embebidas en html_content de cada slide de la réplica';
+COMMENT ON COLUMN public.slide_base64_inventory.base64_bytes IS 'Tamaño decodificado aproximado (3/4 del texto Base64) de todas las imágenes';
+COMMENT ON COLUMN public.slide_base64_inventory.odoo_write_date IS 'write_date del slide en la réplica cuando se inventarió';
@@ -0,0 +1,100 @@
+-- Log de sincronización particionado por mes (retención: se eliminan particiones completas, ver
+-- SyncLogPartitionService) y resumen por ejecución mantenido al escribir el log.
+
+-- 1. Resumen por ejecución (una fila por sync_run_id)
+CREATE TABLE IF NOT EXISTS public.sync_runs (
+    sync_run_id   VARCHAR(36) PRIMARY KEY,
+    started_at    TIMESTAMP NOT NULL,
+    last_event_at TIMESTAMP NOT NULL,
+    total_events  BIGINT NOT NULL DEFAULT 0,
+    created       BIGINT NOT NULL DEFAULT 0,
+    updated       BIGINT NOT NULL DEFAULT 0,
+    failed        BIGINT NOT NULL DEFAULT 0
+);
+
+CREATE INDEX IF NOT EXISTS idx_sync_runs_started ON public.sync_runs(started_at DESC);
+
+COMMENT ON TABLE public.sync_runs IS 'Resumen de cada ejecución de sincronización; se actualiza en la misma sentencia que inserta sus entradas de slide_sync_log y sobrevive a la retención del log';
+
+-- 2. Tabla particionada; la clave primaria debe incluir la columna de partición
+ALTER TABLE public.slide_sync_log RENAME TO slide_sync_log_legacy;
+
+-- Los índices conservan su nombre al renombrar la tabla: se liberan para los de la nueva
+-- (la copia final tampoco los necesita) y la clave primaria pasa a llamarse como la tabla vieja
+DROP INDEX IF EXISTS public.idx_sync_log_run_id;
+DROP INDEX IF EXISTS public.idx_sync_log_slide_id;
+DROP INDEX IF EXISTS public.idx_sync_log_synced_at;
+DROP INDEX IF EXISTS public.idx_sync_log_action;
+DO $$
+BEGIN
+    IF EXISTS (SELECT 1 FROM pg_constraint WHERE conname = 'slide_sync_log_pkey'
+               AND conrelid = 'public.slide_sync_log_legacy'::regclass) THEN
+        ALTER TABLE public.slide_sync_log_legacy RENAME CONSTRAINT slide_sync_log_pkey TO slide_sync_log_legacy_pkey;
+    END IF;
+END $$;
+
+CREATE TABLE public.slide_sync_log (
+    id                   BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    sync_run_id          VARCHAR(36) NOT NULL,
+    synced_at            TIMESTAMP NOT NULL,
+    slide_id             INTEGER NOT NULL,
+    slide_name           VARCHAR(255),
+    action               VARCHAR(20) NOT NULL,
+    slide_type           VARCHAR(50),
+    channel_id           INTEGER,
+    channel_name         VARCHAR(255),
+    odoo_write_date      TIMESTAMP,
+    original_size_bytes  BIGINT,
+    processed_size_bytes BIGINT,
+    images_extracted     INTEGER,
+    message              VARCHAR(500),
+    PRIMARY KEY (id, synced_at)
+) PARTITION BY RANGE (synced_at);
+
+-- Red de seguridad para fechas sin partición mensual creada
+CREATE TABLE public.slide_sync_log_default PARTITION OF public.slide_sync_log DEFAULT;
+
+-- Una partición por mes con datos, más el mes actual y los dos siguientes
+DO $$
+DECLARE
+    month DATE;
+BEGIN
+    FOR month IN
+        SELECT DISTINCT date_trunc('month', synced_at)::date FROM public.slide_sync_log_legacy
+        UNION
+        SELECT (date_trunc('month', now()) + make_interval(months => n))::date FROM generate_series(0, 2) n
+    LOOP
+        EXECUTE format(
+            'CREATE TABLE IF NOT EXISTS public.%I PARTITION OF public.slide_sync_log FOR VALUES FROM (%L) TO (%L)',
+            'slide_sync_log_p' || to_char(month, 'YYYYMM'), month, (month + INTERVAL '1 month')::date);
+    END LOOP;
+END $$;
+
+CREATE INDEX idx_sync_log_run_id ON public.slide_sync_log(sync_run_id);
+CREATE INDEX idx_sync_log_slide_id ON public.slide_sync_log(slide_id);
+CREATE INDEX idx_sync_log_synced_at ON public.slide_sync_log(synced_at);
+CREATE INDEX idx_sync_log_action ON public.slide_sync_log(action);
+
+-- 3. Copia del histórico y del resumen
+INSERT INTO public.slide_sync_log
+    (id, sync_run_id, synced_at, slide_id, slide_name, action, slide_type, channel_id, channel_name,
+     odoo_write_date, original_size_bytes, processed_size_bytes, images_extracted, message)
+SELECT id, sync_run_id, synced_at, slide_id, slide_name, action, slide_type, channel_id, channel_name,
+       odoo_write_date, original_size_bytes, processed_size_bytes, images_extracted, message
+FROM public.slide_sync_log_legacy;
+
+SELECT setval(pg_get_serial_sequence('public.slide_sync_log', 'id'),
+              COALESCE((SELECT MAX(id) FROM public.slide_sync_log), 0) + 1, false);
+
+INSERT INTO public.sync_runs (sync_run_id, started_at, last_event_at, total_events, created, updated, failed)
+SELECT sync_run_id, MIN(synced_at), MAX(synced_at), COUNT(*),
+       COUNT(*) FILTER (WHERE action = 'CREATED'),
+       COUNT(*) FILTER (WHERE action = 'UPDATED'),
+       COUNT(*) FILTER (WHERE action = 'FAILED')
+FROM public.slide_sync_log
+GROUP BY sync_run_id
+ON CONFLICT (sync_run_id) DO NOTHING;
+
+DROP TABLE public.slide_sync_log_legacy;
+
+COMMENT ON TABLE public.slide_sync_log IS 'Log de sincronización por slide, particionado por mes de synced_at';
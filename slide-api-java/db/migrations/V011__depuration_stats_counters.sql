@@ -0,0 +1,233 @@
+-- Contadores de GET /admin/stats mantenidos por triggers en la misma transacción que escribe
+-- slide_api.slides (sincronización, carga masiva, reconciliación, purga) y el inventario Base64
+-- (datos de la réplica). Cada sentencia deja su delta en depuration_stats_delta (solo inserciones,
+-- sin fila caliente que serialice a los workers); DepurationStatsService los acumula en la fila única.
+
+-- 1. Tamaño de html_content por slide en el inventario (para el tamaño de los inactivos)
+ALTER TABLE public.slide_base64_inventory ADD COLUMN IF NOT EXISTS html_bytes BIGINT NOT NULL DEFAULT 0;
+COMMENT ON COLUMN public.slide_base64_inventory.html_bytes IS 'pg_column_size(html_content) en la réplica';
+
+-- Fuerza una pasada completa del inventario para rellenar html_bytes
+DELETE FROM slide_api.sync_watermarks WHERE name = 'slide_slide.base64_inventory';
+
+-- 2. Contadores y deltas pendientes de acumular
+CREATE TABLE IF NOT EXISTS public.depuration_stats (
+    id                     SMALLINT PRIMARY KEY CHECK (id = 1),
+    replica_slides         BIGINT NOT NULL DEFAULT 0,
+    replica_active_slides  BIGINT NOT NULL DEFAULT 0,
+    replica_inactive_bytes BIGINT NOT NULL DEFAULT 0,
+    base64_slides          BIGINT NOT NULL DEFAULT 0,
+    base64_pending_slides  BIGINT NOT NULL DEFAULT 0,
+    base64_pending_bytes   BIGINT NOT NULL DEFAULT 0,
+    completed_slides       BIGINT NOT NULL DEFAULT 0,
+    original_bytes         BIGINT NOT NULL DEFAULT 0,
+    processed_bytes        BIGINT NOT NULL DEFAULT 0,
+    images_extracted       BIGINT NOT NULL DEFAULT 0,
+    updated_at             TIMESTAMP NOT NULL DEFAULT now(),
+    recomputed_at          TIMESTAMP
+);
+
+CREATE TABLE IF NOT EXISTS public.depuration_stats_delta (
+    id                     BIGINT GENERATED ALWAYS AS IDENTITY PRIMARY KEY,
+    replica_slides         BIGINT NOT NULL DEFAULT 0,
+    replica_active_slides  BIGINT NOT NULL DEFAULT 0,
+    replica_inactive_bytes BIGINT NOT NULL DEFAULT 0,
+    base64_slides          BIGINT NOT NULL DEFAULT 0,
+    base64_pending_slides  BIGINT NOT NULL DEFAULT 0,
+    base64_pending_bytes   BIGINT NOT NULL DEFAULT 0,
+    completed_slides       BIGINT NOT NULL DEFAULT 0,
+    original_bytes         BIGINT NOT NULL DEFAULT 0,
+    processed_bytes        BIGINT NOT NULL DEFAULT 0,
+    images_extracted       BIGINT NOT NULL DEFAULT 0
+);
+
+COMMENT ON TABLE public.depuration_stats IS 'Contadores de estadísticas de depuración (fila única id = 1)';
+COMMENT ON TABLE public.depuration_stats_delta IS 'Deltas por sentencia de los contadores, pendientes de acumular en depuration_stats';
+
+-- 3. Recálculo completo en una sola sentencia (una sola instantánea): sustituye la fila, descarta
+--    los deltas visibles y devuelve si los contadores coincidían con el recálculo
+CREATE OR REPLACE FUNCTION public.recompute_depuration_stats() RETURNS boolean LANGUAGE sql AS $$
+    WITH fresh AS (
+        SELECT r.replica_slides, r.replica_active_slides, r.replica_inactive_bytes, r.base64_slides,
+               b.base64_pending_slides, b.base64_pending_bytes,
+               p.completed_slides, p.original_bytes, p.processed_bytes, p.images_extracted
+        FROM (SELECT COUNT(*) AS replica_slides,
+                     COUNT(*) FILTER (WHERE active) AS replica_active_slides,
+                     COALESCE(SUM(html_bytes) FILTER (WHERE NOT active), 0) AS replica_inactive_bytes,
+                     COUNT(*) FILTER (WHERE active AND base64_images > 0) AS base64_slides
+              FROM public.slide_base64_inventory) r,
+             (SELECT COUNT(*) AS base64_pending_slides, COALESCE(SUM(i.base64_bytes), 0) AS base64_pending_bytes
+              FROM public.slide_base64_inventory i
+              WHERE i.active AND i.base64_images > 0
+                AND NOT EXISTS (SELECT 1 FROM slide_api.slides s
+                                WHERE s.id = i.slide_id AND s.odoo_write_date >= i.odoo_write_date)) b,
+             (SELECT COUNT(*) AS completed_slides,
+                     COALESCE(SUM(original_size_bytes), 0) AS original_bytes,
+                     COALESCE(SUM(processed_size_bytes), 0) AS processed_bytes,
+                     COALESCE(SUM(images_extracted), 0) AS images_extracted
+              FROM slide_api.slides WHERE migration_status = 'COMPLETED') p
+    ),
+    pending AS (
+        SELECT COALESCE(SUM(replica_slides), 0) AS replica_slides,
+               COALESCE(SUM(replica_active_slides), 0) AS replica_active_slides,
+               COALESCE(SUM(replica_inactive_bytes), 0) AS replica_inactive_bytes,
+               COALESCE(SUM(base64_slides), 0) AS base64_slides,
+               COALESCE(SUM(base64_pending_slides), 0) AS base64_pending_slides,
+               COALESCE(SUM(base64_pending_bytes), 0) AS base64_pending_bytes,
+               COALESCE(SUM(completed_slides), 0) AS completed_slides,
+               COALESCE(SUM(original_bytes), 0) AS original_bytes,
+               COALESCE(SUM(processed_bytes), 0) AS processed_bytes,
+               COALESCE(SUM(images_extracted), 0) AS images_extracted
+        FROM public.depuration_stats_delta
+    ),
+    counted AS (
+        SELECT s.replica_slides + d.replica_slides AS replica_slides,
+               s.replica_active_slides + d.replica_active_slides AS replica_active_slides,
+               s.replica_inactive_bytes + d.replica_inactive_bytes AS replica_inactive_bytes,
+               s.base64_slides + d.base64_slides AS base64_slides,
+               s.base64_pending_slides + d.base64_pending_slides AS base64_pending_slides,
+               s.base64_pending_bytes + d.base64_pending_bytes AS base64_pending_bytes,
+               s.completed_slides + d.completed_slides AS completed_slides,
+               s.original_bytes + d.original_bytes AS original_bytes,
+               s.processed_bytes + d.processed_bytes AS processed_bytes,
+               s.images_extracted + d.images_extracted AS images_extracted
+        FROM public.depuration_stats s, pending d
+        WHERE s.id = 1
+    ),
+    folded AS (
+        DELETE FROM public.depuration_stats_delta
+    ),
+    saved AS (
+        INSERT INTO public.depuration_stats
+            (id, replica_slides, replica_active_slides, replica_inactive_bytes, base64_slides,
+             base64_pending_slides, base64_pending_bytes, completed_slides, original_bytes,
+             processed_bytes, images_extracted, updated_at, recomputed_at)
+        SELECT 1, f.*, now(), now() FROM fresh f
+        ON CONFLICT (id) DO UPDATE SET
+            replica_slides = EXCLUDED.replica_slides,
+            replica_active_slides = EXCLUDED.replica_active_slides,
+            replica_inactive_bytes = EXCLUDED.replica_inactive_bytes,
+            base64_slides = EXCLUDED.base64_slides,
+            base64_pending_slides = EXCLUDED.base64_pending_slides,
+            base64_pending_bytes = EXCLUDED.base64_pending_bytes,
+            completed_slides = EXCLUDED.completed_slides,
+            original_bytes = EXCLUDED.original_bytes,
+            processed_bytes = EXCLUDED.processed_bytes,
+            images_extracted = EXCLUDED.images_extracted,
+            updated_at = EXCLUDED.updated_at,
+            recomputed_at = EXCLUDED.recomputed_at
+    )
+    SELECT COALESCE((
+        SELECT ROW(c.replica_slides, c.replica_active_slides, c.replica_inactive_bytes, c.base64_slides,
+                   c.base64_pending_slides, c.base64_pending_bytes, c.completed_slides, c.original_bytes,
+                   c.processed_bytes, c.images_extracted)
+             = ROW(f.replica_slides, f.replica_active_slides, f.replica_inactive_bytes, f.base64_slides,
+                   f.base64_pending_slides, f.base64_pending_bytes, f.completed_slides, f.original_bytes,
+                   f.processed_bytes, f.images_extracted)
+        FROM counted c, fresh f), false)
+$$;
+
+-- 4. Deltas del inventario (réplica): filas nuevas suman, filas viejas restan.
+--    Las tablas de transición también son visibles desde EXECUTE
+CREATE OR REPLACE FUNCTION public.depuration_stats_inventory_delta() RETURNS trigger LANGUAGE plpgsql AS $$
+DECLARE
+    changed text := CASE TG_OP
+        WHEN 'INSERT' THEN 'SELECT 1 AS sign, * FROM new_rows'
+        WHEN 'DELETE' THEN 'SELECT -1 AS sign, * FROM old_rows'
+        ELSE 'SELECT 1 AS sign, * FROM new_rows UNION ALL SELECT -1 AS sign, * FROM old_rows'
+    END;
+BEGIN
+    EXECUTE format($sql$
+        INSERT INTO public.depuration_stats_delta
+            (replica_slides, replica_active_slides, replica_inactive_bytes, base64_slides,
+             base64_pending_slides, base64_pending_bytes)
+        SELECT * FROM (
+            SELECT COALESCE(SUM(r.sign), 0) AS replica_slides,
+                   COALESCE(SUM(r.sign) FILTER (WHERE r.active), 0) AS replica_active_slides,
+                   COALESCE(SUM(r.sign * r.html_bytes) FILTER (WHERE NOT r.active), 0) AS replica_inactive_bytes,
+                   COALESCE(SUM(r.sign) FILTER (WHERE r.active AND r.base64_images > 0), 0) AS base64_slides,
+                   COALESCE(SUM(r.sign) FILTER (WHERE r.active AND r.base64_images > 0
+                       AND NOT COALESCE(p.odoo_write_date >= r.odoo_write_date, false)), 0) AS base64_pending_slides,
+                   COALESCE(SUM(r.sign * r.base64_bytes) FILTER (WHERE r.active AND r.base64_images > 0
+                       AND NOT COALESCE(p.odoo_write_date >= r.odoo_write_date, false)), 0) AS base64_pending_bytes
+            FROM (%s) r
+            LEFT JOIN slide_api.slides p ON p.id = r.slide_id
+        ) d
+        WHERE ROW(d.*) <> ROW(0::bigint, 0::bigint, 0::bigint, 0::bigint, 0::bigint, 0::bigint)
+        $sql$, changed);
+    RETURN NULL;
+END $$;
+
+-- 5. Deltas de los slides procesados: sumas de los COMPLETED y, cruzando con el inventario,
+--    los slides con Base64 que dejan de estar (o vuelven a estar) pendientes de migrar
+CREATE OR REPLACE FUNCTION public.depuration_stats_slides_delta() RETURNS trigger LANGUAGE plpgsql AS $$
+DECLARE
+    changed text := CASE TG_OP
+        WHEN 'INSERT' THEN 'SELECT 1 AS sign, * FROM new_rows'
+        WHEN 'DELETE' THEN 'SELECT -1 AS sign, * FROM old_rows'
+        ELSE 'SELECT 1 AS sign, * FROM new_rows UNION ALL SELECT -1 AS sign, * FROM old_rows'
+    END;
+BEGIN
+    EXECUTE format($sql$
+        INSERT INTO public.depuration_stats_delta
+            (base64_pending_slides, base64_pending_bytes, completed_slides, original_bytes,
+             processed_bytes, images_extracted)
+        SELECT * FROM (
+            SELECT -COALESCE(SUM(r.sign) FILTER (WHERE i.active AND i.base64_images > 0
+                       AND r.odoo_write_date >= i.odoo_write_date), 0) AS base64_pending_slides,
+                   -COALESCE(SUM(r.sign * i.base64_bytes) FILTER (WHERE i.active AND i.base64_images > 0
+                       AND r.odoo_write_date >= i.odoo_write_date), 0) AS base64_pending_bytes,
+                   COALESCE(SUM(r.sign) FILTER (WHERE r.migration_status = 'COMPLETED'), 0) AS completed_slides,
+                   COALESCE(SUM(r.sign * r.original_size_bytes) FILTER (WHERE r.migration_status = 'COMPLETED'), 0) AS original_bytes,
+                   COALESCE(SUM(r.sign * r.processed_size_bytes) FILTER (WHERE r.migration_status = 'COMPLETED'), 0) AS processed_bytes,
+                   COALESCE(SUM(r.sign * r.images_extracted) FILTER (WHERE r.migration_status = 'COMPLETED'), 0) AS images_extracted
+            FROM (%s) r
+            LEFT JOIN public.slide_base64_inventory i ON i.slide_id = r.id
+        ) d
+        WHERE ROW(d.*) <> ROW(0::bigint, 0::bigint, 0::bigint, 0::bigint, 0::bigint, 0::bigint)
+        $sql$, changed);
+    RETURN NULL;
+END $$;
+
+-- TRUNCATE (carga masiva) no pasa por las tablas de transición: recálculo completo
+CREATE OR REPLACE FUNCTION public.depuration_stats_truncate() RETURNS trigger LANGUAGE plpgsql AS $$
+BEGIN
+    PERFORM public.recompute_depuration_stats();
+    RETURN NULL;
+END $$;
+
+-- Las tablas de transición exigen un trigger por evento
+DROP TRIGGER IF EXISTS trg_depuration_stats_inventory_ins ON public.slide_base64_inventory;
+DROP TRIGGER IF EXISTS trg_depuration_stats_inventory_upd ON public.slide_base64_inventory;
+DROP TRIGGER IF EXISTS trg_depuration_stats_inventory_del ON public.slide_base64_inventory;
+DROP TRIGGER IF EXISTS trg_depuration_stats_inventory_trunc ON public.slide_base64_inventory;
+CREATE TRIGGER trg_depuration_stats_inventory_ins AFTER INSERT ON public.slide_base64_inventory
+    REFERENCING NEW TABLE AS new_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION public.depuration_stats_inventory_delta();
+CREATE TRIGGER trg_depuration_stats_inventory_upd AFTER UPDATE ON public.slide_base64_inventory
+    REFERENCING OLD TABLE AS old_rows NEW TABLE AS new_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION public.depuration_stats_inventory_delta();
+CREATE TRIGGER trg_depuration_stats_inventory_del AFTER DELETE ON public.slide_base64_inventory
+    REFERENCING OLD TABLE AS old_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION public.depuration_stats_inventory_delta();
+CREATE TRIGGER trg_depuration_stats_inventory_trunc AFTER TRUNCATE ON public.slide_base64_inventory
+    FOR EACH STATEMENT EXECUTE FUNCTION public.depuration_stats_truncate();
+
+DROP TRIGGER IF EXISTS trg_depuration_stats_slides_ins ON slide_api.slides;
+DROP TRIGGER IF EXISTS trg_depuration_stats_slides_upd ON slide_api.slides;
+DROP TRIGGER IF EXISTS trg_depuration_stats_slides_del ON slide_api.slides;
+DROP TRIGGER IF EXISTS trg_depuration_stats_slides_trunc ON slide_api.slides;
+CREATE TRIGGER trg_depuration_stats_slides_ins AFTER INSERT ON slide_api.slides
+    REFERENCING NEW TABLE AS new_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION public.depuration_stats_slides_delta();
+CREATE TRIGGER trg_depuration_stats_slides_upd AFTER UPDATE ON slide_api.slides
+    REFERENCING OLD TABLE AS old_rows NEW TABLE AS new_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION public.depuration_stats_slides_delta();
+CREATE TRIGGER trg_depuration_stats_slides_del AFTER DELETE ON slide_api.slides
+    REFERENCING OLD TABLE AS old_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION public.depuration_stats_slides_delta();
+CREATE TRIGGER trg_depuration_stats_slides_trunc AFTER TRUNCATE ON slide_api.slides
+    FOR EACH STATEMENT EXECUTE FUNCTION public.depuration_stats_truncate();
+
+-- 6. Valores iniciales
+SELECT public.recompute_depuration_stats();
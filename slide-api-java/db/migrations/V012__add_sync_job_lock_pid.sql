@@ -0,0 +1,5 @@
+-- Backend de PostgreSQL que tiene el advisory lock de un trabajo RUNNING: los demás nodos comprueban
+-- en pg_locks que sigue vivo sin tomar el lock
+ALTER TABLE public.sync_jobs ADD COLUMN IF NOT EXISTS lock_pid INTEGER;
+
+COMMENT ON COLUMN public.sync_jobs.lock_pid IS 'pg_backend_pid() de la conexión que tiene el advisory lock de la sincronización mientras el trabajo está RUNNING';
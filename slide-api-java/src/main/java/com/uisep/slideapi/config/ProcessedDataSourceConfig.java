@@ -8,6 +8,7 @@ import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Primary;
 import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.orm.jpa.JpaTransactionManager;
 import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
 import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
@@ -80,4 +81,13 @@ public class ProcessedDataSourceConfig {
             @Qualifier("processedEntityManagerFactory") LocalContainerEntityManagerFactoryBean entityManagerFactory) {
         return new JpaTransactionManager(entityManagerFactory.getObject());
     }
+    
+    /**
+     * JdbcTemplate para SQL nativo sobre la BD procesada (actualizaciones masivas). Participa en las
+     * transacciones de processedTransactionManager.
+     */
+    @Bean(name = "processedJdbcTemplate")
+    public JdbcTemplate processedJdbcTemplate(@Qualifier("processedDataSource") DataSource dataSource) {
+        return new JdbcTemplate(dataSource);
+    }
 }
@@ -1,20 +1,25 @@
 package com.uisep.slideapi.config;
 
+import com.zaxxer.hikari.HikariConfig;
 import com.zaxxer.hikari.HikariDataSource;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Primary;
 import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.orm.jpa.JpaTransactionManager;
 import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
 import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
 import org.springframework.transaction.PlatformTransactionManager;
 
 import javax.sql.DataSource;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -35,19 +40,46 @@ public class ReplicaDataSourceConfig {
         return new DataSourceProperties();
     }
     
-    @Bean(name = "replicaDataSource")
+    /**
+     * Ajustes Hikari comunes a los pools de todas las réplicas.
+     */
+    @Bean
     @ConfigurationProperties("spring.datasource.replica.hikari")
-    public DataSource replicaDataSource() {
-        HikariDataSource dataSource = replicaDataSourceProperties()
-            .initializeDataSourceBuilder()
-            .type(HikariDataSource.class)
-            .build();
+    public HikariConfig replicaHikariConfig() {
+        return new HikariConfig();
+    }
+    
+    /**
+     * DataSource de la réplica: un pool por URL (url más las de urls) detrás de un enrutador
+     * por retraso de replicación y saturación, con conmutación si una réplica cae.
+     */
+    @Bean(name = "replicaDataSource", destroyMethod = "close")
+    public DataSource replicaDataSource(
+            @Value("${spring.datasource.replica.urls:}") List<String> extraUrls,
+            @Value("${spring.datasource.replica.routing.max-lag-seconds:60}") double maxLagSeconds,
+            @Value("${spring.datasource.replica.routing.probe-interval-ms:5000}") long probeIntervalMs) {
+        DataSourceProperties properties = replicaDataSourceProperties();
+        List<String> urls = new ArrayList<>();
+        urls.add(properties.getUrl());
+        extraUrls.stream().map(String::trim).filter(url -> !url.isEmpty() && !urls.contains(url)).forEach(urls::add);
         
-        // Forzar modo solo lectura
-        dataSource.setReadOnly(true);
-        dataSource.setPoolName("ReplicaPool-ReadOnly");
+        List<HikariDataSource> pools = new ArrayList<>();
+        for (int i = 0; i < urls.size(); i++) {
+            HikariConfig config = new HikariConfig();
+            replicaHikariConfig().copyStateTo(config);
+            config.setJdbcUrl(urls.get(i));
+            config.setUsername(properties.getUsername());
+            config.setPassword(properties.getPassword());
+            config.setDriverClassName(properties.getDriverClassName());
+            // Forzar modo solo lectura
+            config.setReadOnly(true);
+            config.setPoolName(urls.size() == 1 ? "ReplicaPool-ReadOnly" : "ReplicaPool-ReadOnly-" + (i + 1));
+            // Arrancar aunque alguna réplica esté caída: el enrutador la evita hasta que responda
+            if (urls.size() > 1) config.setInitializationFailTimeout(-1);
+            pools.add(new HikariDataSource(config));
+        }
         
-        return dataSource;
+        return new ReplicaRoutingDataSource(pools, maxLagSeconds, probeIntervalMs);
     }
     
     @Bean(name = "replicaEntityManagerFactory")
@@ -78,4 +110,12 @@ public class ReplicaDataSourceConfig {
             @Qualifier("replicaEntityManagerFactory") LocalContainerEntityManagerFactoryBean entityManagerFactory) {
         return new JpaTransactionManager(entityManagerFactory.getObject());
     }
+    
+    /**
+     * JdbcTemplate para SQL nativo de solo lectura sobre la réplica (consultas ligeras y masivas).
+     */
+    @Bean(name = "replicaJdbcTemplate")
+    public JdbcTemplate replicaJdbcTemplate(@Qualifier("replicaDataSource") DataSource dataSource) {
+        return new JdbcTemplate(dataSource);
+    }
 }
@@ -0,0 +1,158 @@
+package com.uisep.slideapi.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * DataSource de solo lectura repartido entre varias réplicas de Odoo.
+ * Cada conexión se pide a la réplica con mejor puntuación: retraso de replicación medido
+ * (las que superan {@code maxLagSeconds} quedan al final) más la saturación de su pool, con
+ * rotación entre empates para que los workers paralelos se repartan. Si una réplica no entrega
+ * conexión se marca caída y se prueba la siguiente; un sondeo periódico mide el retraso y
+ * reincorpora las que vuelven.
+ * Con una sola URL se comporta como el pool único de siempre.
+ */
+@Slf4j
+public class ReplicaRoutingDataSource extends AbstractDataSource implements AutoCloseable {
+
+    // Mismo criterio que SlideSlideReplicaRepository.getReplicationLagSeconds
+    private static final String LAG_SQL = """
+        SELECT CASE
+            WHEN NOT pg_is_in_recovery() THEN 0
+            WHEN pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0
+            ELSE COALESCE(EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()), 0)
+        END
+        """;
+    // Peso de una réplica con el pool lleno, en segundos de retraso equivalentes
+    private static final double SATURATION_WEIGHT_SECONDS = 10.0;
+
+    private final List<ReplicaEndpoint> endpoints;
+    private final double maxLagSeconds;
+    private final AtomicInteger rotation = new AtomicInteger();
+    private final ScheduledExecutorService prober = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "replica-prober");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public ReplicaRoutingDataSource(List<HikariDataSource> dataSources, double maxLagSeconds, long probeIntervalMs) {
+        this.endpoints = dataSources.stream().map(ReplicaEndpoint::new).toList();
+        this.maxLagSeconds = maxLagSeconds;
+        if (endpoints.size() > 1) {
+            prober.scheduleWithFixedDelay(this::probeAll, 0, probeIntervalMs, TimeUnit.MILLISECONDS);
+        }
+        log.info("Réplicas de lectura: {}", endpoints.stream().map(e -> e.name).toList());
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        SQLException failure = null;
+        for (ReplicaEndpoint endpoint : candidates()) {
+            try {
+                return endpoint.dataSource.getConnection();
+            } catch (SQLException e) {
+                markDown(endpoint, e);
+                failure = e;
+            }
+        }
+        throw failure != null ? failure : new SQLException("Sin réplicas de lectura configuradas");
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        // Las credenciales son las de cada pool
+        return getConnection();
+    }
+
+    @Override
+    public void close() {
+        prober.shutdownNow();
+        endpoints.forEach(endpoint -> endpoint.dataSource.close());
+    }
+
+    /**
+     * Réplicas en orden de preferencia: disponibles por puntuación y, como último recurso,
+     * las marcadas caídas (pueden haber vuelto antes del próximo sondeo).
+     */
+    private List<ReplicaEndpoint> candidates() {
+        if (endpoints.size() == 1) return endpoints;
+        int offset = Math.floorMod(rotation.getAndIncrement(), endpoints.size());
+        List<ReplicaEndpoint> ordered = new ArrayList<>(endpoints.size());
+        for (int i = 0; i < endpoints.size(); i++) {
+            ordered.add(endpoints.get((offset + i) % endpoints.size()));
+        }
+        // Orden estable: la rotación desempata réplicas con la misma puntuación
+        ordered.sort(Comparator.comparing((ReplicaEndpoint e) -> !e.up).thenComparingDouble(this::score));
+        return ordered;
+    }
+
+    private double score(ReplicaEndpoint endpoint) {
+        double lag = endpoint.lagSeconds;
+        double penalty = lag > maxLagSeconds ? 1_000_000 : 0;
+        return penalty + lag + endpoint.saturation() * SATURATION_WEIGHT_SECONDS;
+    }
+
+    private void probeAll() {
+        for (ReplicaEndpoint endpoint : endpoints) {
+            try (Connection con = endpoint.dataSource.getConnection();
+                 Statement st = con.createStatement()) {
+                st.setQueryTimeout(5);
+                try (ResultSet rs = st.executeQuery(LAG_SQL)) {
+                    endpoint.lagSeconds = rs.next() ? rs.getDouble(1) : 0;
+                }
+                if (!endpoint.up) {
+                    log.info("Réplica {} disponible de nuevo (retraso {} s)", endpoint.name,
+                        String.format("%.1f", endpoint.lagSeconds));
+                }
+                endpoint.up = true;
+            } catch (Exception e) {
+                markDown(endpoint, e);
+            }
+        }
+    }
+
+    private void markDown(ReplicaEndpoint endpoint, Exception cause) {
+        if (endpoint.up) {
+            log.warn("Réplica {} no disponible, se enruta a las demás: {}", endpoint.name, cause.getMessage());
+        }
+        endpoint.up = false;
+    }
+
+    /**
+     * Una réplica con su pool y su último estado medido.
+     */
+    private static final class ReplicaEndpoint {
+        private final HikariDataSource dataSource;
+        private final String name;
+        private volatile boolean up = true;
+        private volatile double lagSeconds;
+
+        ReplicaEndpoint(HikariDataSource dataSource) {
+            this.dataSource = dataSource;
+            this.name = dataSource.getPoolName();
+        }
+
+        /**
+         * Fracción del pool en uso (0 con el pool aún sin arrancar).
+         */
+        double saturation() {
+            HikariPoolMXBean pool = dataSource.getHikariPoolMXBean();
+            int max = dataSource.getMaximumPoolSize();
+            return pool != null && max > 0 ? (double) pool.getActiveConnections() / max : 0;
+        }
+    }
+}
@@ -3,10 +3,20 @@ package com.uisep.slideapi.controller;
 import com.uisep.slideapi.dto.SlideDTO.*;
 import com.uisep.slideapi.entity.processed.SlideSyncLog;
 import com.uisep.slideapi.entity.processed.ExcludedSlide;
+import com.uisep.slideapi.entity.processed.SyncJob;
 import com.uisep.slideapi.repository.processed.ExcludedSlideRepository;
 import com.uisep.slideapi.repository.processed.ProcessedSlideRepository;
 import com.uisep.slideapi.repository.processed.SlideSyncLogRepository;
+import com.uisep.slideapi.repository.processed.SyncRunRepository;
+import com.uisep.slideapi.service.BulkLoadService;
+import com.uisep.slideapi.service.IncrementalSyncService;
+import com.uisep.slideapi.service.ReplicaScanService;
+import com.uisep.slideapi.service.SlideBase64InventoryService;
+import com.uisep.slideapi.service.SlideMetadataSyncService;
+import com.uisep.slideapi.service.SlideReconciliationService;
 import com.uisep.slideapi.service.SlideSyncService;
+import com.uisep.slideapi.service.SyncJobService;
+import com.uisep.slideapi.service.SyncProgressTracker;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.*;
@@ -16,11 +26,15 @@ import lombok.RequiredArgsConstructor;
 import java.time.LocalDateTime;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 
 @RestController
 @RequestMapping("/api/v1/admin")
@@ -29,10 +43,18 @@ import java.util.Map;
 public class AdminController {
 
     private final SlideSyncService syncService;
+    private final SlideMetadataSyncService metadataSyncService;
+    private final IncrementalSyncService incrementalSyncService;
+    private final SlideReconciliationService reconciliationService;
+    private final BulkLoadService bulkLoadService;
+    private final SyncJobService syncJobService;
+    private final SyncProgressTracker progressTracker;
+    private final ReplicaScanService replicaScanService;
+    private final SlideBase64InventoryService base64Inventory;
     private final SlideSyncLogRepository syncLogRepo;
+    private final SyncRunRepository syncRunRepo;
     private final ProcessedSlideRepository processedSlideRepo;
     private final ExcludedSlideRepository excludedSlideRepo;
-    private final com.uisep.slideapi.repository.replica.SlideSlideReplicaRepository replicaSlideRepo;
 
     @GetMapping("/health")
     @Operation(
@@ -49,8 +71,8 @@ public class AdminController {
     @Operation(
         summary = "Sincronizar slides desde la réplica Odoo",
         description = """
-            Lee la réplica PostgreSQL de Odoo y sincroniza los slides a la BD procesada \
-            (Supabase). Incluye:
+            Lanza en segundo plano la sincronización de la réplica PostgreSQL de Odoo a la \
+            BD procesada (Supabase) y devuelve el trabajo creado. Incluye:
             
             1. Detecta slides nuevos, actualizados y eliminados
             2. Procesa el HTML: extrae imágenes Base64 y las almacena por separado
@@ -63,16 +85,74 @@ public class AdminController {
             - `slide.active = true AND slide.is_published = true`
             - Canal con `active = true AND is_published = true`
             
-            Consultar el progreso en tiempo real con `GET /admin/sync/progress`.
+            Solo puede haber una ejecución activa (advisory lock de PostgreSQL compartido con la \
+            sincronización programada y la incremental): si ya hay una, responde 409.
+            
+            Consultar el trabajo con `GET /admin/sync/jobs/{jobId}`, el progreso con \
+            `GET /admin/sync/progress` y el detalle por slide con `GET /admin/sync/log?syncRunId={jobId}`.
+            """)
+    @ApiResponses({
+        @ApiResponse(responseCode = "202", description = "Trabajo de sincronización aceptado",
+            content = @Content(schema = @Schema(implementation = SyncJobInfo.class))),
+        @ApiResponse(responseCode = "409", description = "Ya hay una sincronización activa",
+            content = @Content)
+    })
+    public ResponseEntity<?> syncAllSlides() {
+        return syncJobService.submit(SyncJob.JobType.MANUAL)
+            .<ResponseEntity<?>>map(job -> ResponseEntity.accepted().body(job))
+            .orElseGet(() -> ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of(
+                "message", "Ya hay una sincronización activa",
+                "recentJobs", syncJobService.listJobs(5))));
+    }
+
+    @GetMapping("/sync/jobs")
+    @Operation(
+        summary = "Listar trabajos de sincronización",
+        description = """
+            Trabajos de sincronización completa (manuales y programados), el más reciente primero. \
+            Estados: `QUEUED`, `RUNNING`, `COMPLETED`, `FAILED`, `CANCELLED`, `SKIPPED` \
+            (otra ejecución tenía el lock).
+            """)
+    @ApiResponse(responseCode = "200", description = "Lista de trabajos")
+    public ResponseEntity<List<SyncJobInfo>> listSyncJobs(
+            @Parameter(description = "Número de trabajos a devolver (máx 100)", example = "20")
+            @RequestParam(defaultValue = "20") int limit) {
+        return ResponseEntity.ok(syncJobService.listJobs(limit));
+    }
+
+    @GetMapping("/sync/jobs/{jobId}")
+    @Operation(
+        summary = "Consultar un trabajo de sincronización",
+        description = "Estado y resultado resumido del trabajo. El detalle por slide está en " +
+                      "`GET /admin/sync/log?syncRunId={jobId}`.")
+    @ApiResponses({
+        @ApiResponse(responseCode = "200", description = "Trabajo",
+            content = @Content(schema = @Schema(implementation = SyncJobInfo.class))),
+        @ApiResponse(responseCode = "404", description = "Trabajo no encontrado", content = @Content)
+    })
+    public ResponseEntity<SyncJobInfo> getSyncJob(@PathVariable String jobId) {
+        return syncJobService.getJob(jobId)
+            .map(ResponseEntity::ok)
+            .orElse(ResponseEntity.notFound().build());
+    }
+
+    @PostMapping("/sync/jobs/{jobId}/cancel")
+    @Operation(
+        summary = "Cancelar un trabajo de sincronización",
+        description = """
+            Solicita la cancelación de un trabajo `QUEUED` o `RUNNING`. La ejecución deja de \
+            tomar slides de la cola y termina los que están en curso (sin dejar bloques a medias); \
+            los no procesados siguen `PENDING`. El trabajo termina en `CANCELLED`.
             """)
-    @ApiResponse(responseCode = "200", description = "Resultado de la sincronización",
-        content = @Content(schema = @Schema(implementation = SyncResult.class)))
-    public ResponseEntity<SyncResult> syncAllSlides(
-            @Parameter(description = "Si es true, solo sincroniza slides activos. " +
-                                     "Siempre debe ser true en producción.",
-                       example = "true")
-            @RequestParam(defaultValue = "true") boolean activeOnly) {
-        return ResponseEntity.ok(syncService.syncAllSlides(activeOnly));
+    @ApiResponses({
+        @ApiResponse(responseCode = "200", description = "Estado del trabajo tras la solicitud",
+            content = @Content(schema = @Schema(implementation = SyncJobInfo.class))),
+        @ApiResponse(responseCode = "404", description = "Trabajo no encontrado", content = @Content)
+    })
+    public ResponseEntity<SyncJobInfo> cancelSyncJob(@PathVariable String jobId) {
+        return syncJobService.cancel(jobId)
+            .map(ResponseEntity::ok)
+            .orElse(ResponseEntity.notFound().build());
     }
 
     @PostMapping("/sync/slide/{slideId}")
@@ -95,6 +175,80 @@ public class AdminController {
         return ResponseEntity.ok(syncService.syncSlideById(slideId));
     }
 
+    @PostMapping("/sync/channel/{channelId}")
+    @Operation(
+        summary = "Sincronizar los slides de un canal",
+        description = """
+            Sincroniza solo los slides relevantes del canal indicado (activos y publicados, \
+            en canal activo y publicado) y recalcula únicamente los agregados de ese canal \
+            (`slideCount`, `totalSizeBytes`, vistas). Útil tras corregir un curso en Odoo \
+            sin esperar a la sincronización completa.
+            
+            Los slides se procesan en paralelo con el pipeline (`migration.sync.pipeline.*`), \
+            sea cual sea el `commit-mode` configurado. Las bajas se siguen resolviendo en la \
+            reconciliación de la sincronización completa.
+            """)
+    @ApiResponses({
+        @ApiResponse(responseCode = "200", description = "Resultado de la sincronización del canal",
+            content = @Content(schema = @Schema(implementation = SyncResult.class))),
+        @ApiResponse(responseCode = "404", description = "Canal no encontrado en la réplica",
+            content = @Content)
+    })
+    public ResponseEntity<SyncResult> syncChannel(
+            @Parameter(description = "ID del canal en Odoo", example = "42")
+            @PathVariable Integer channelId) {
+        return syncService.syncChannel(channelId)
+            .map(ResponseEntity::ok)
+            .orElse(ResponseEntity.notFound().build());
+    }
+
+    @PostMapping("/sync/metadata")
+    @Operation(
+        summary = "Sincronizar solo metadatos (publicación, activo, vistas)",
+        description = """
+            Sincronización ligera: lee `active`, `is_published`, `total_views`, `channel_id` \
+            y `write_date` de `slide_slide` y `slide_channel` en una sola consulta y aplica \
+            las diferencias con actualizaciones masivas. No carga `html_content` ni re-procesa \
+            imágenes.
+            
+            Los slides cuyo `write_date` en Odoo es más reciente que el procesado se marcan \
+            `PENDING` para la siguiente sincronización completa.
+            
+            Se ejecuta automáticamente cada pocos minutos (`migration.metadata-sync.cron`).
+            """)
+    @ApiResponse(responseCode = "200", description = "Resultado de la sincronización de metadatos",
+        content = @Content(schema = @Schema(implementation = MetadataSyncResult.class)))
+    public ResponseEntity<MetadataSyncResult> syncMetadata() {
+        return ResponseEntity.ok(metadataSyncService.syncMetadata());
+    }
+
+    @PostMapping("/sync/incremental")
+    @Operation(
+        summary = "Sincronización incremental por marca de agua",
+        description = """
+            Compara `max(write_date)` de la réplica con la marca de agua persistida y, \
+            solo si hubo cambios, sincroniza los slides modificados desde entonces. \
+            Después avanza la marca de agua.
+            
+            Se ejecuta automáticamente cada minuto (`migration.sync.incremental.poll-interval-ms`). \
+            Como el sondeo, toma el lock de sincronización: con otra sincronización en curso \
+            (en este u otro nodo) responde 409.
+            """)
+    @ApiResponses({
+        @ApiResponse(responseCode = "200", description = "Resultado de la sincronización o aviso de sin cambios",
+            content = @Content(schema = @Schema(implementation = SyncResult.class))),
+        @ApiResponse(responseCode = "409", description = "Ya hay una sincronización activa",
+            content = @Content)
+    })
+    public ResponseEntity<?> syncIncremental() {
+        return syncJobService.runExclusive(() -> Optional.ofNullable(incrementalSyncService.syncIfChanged()))
+            .<ResponseEntity<?>>map(result -> result
+                .<ResponseEntity<?>>map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.ok(Map.of("message", "Sin cambios sobre la marca de agua"))))
+            .orElseGet(() -> ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of(
+                "message", "Ya hay una sincronización activa")));
+    }
+
     @GetMapping("/sync/progress")
     @Operation(
         summary = "Ver progreso de la sincronización",
@@ -105,8 +259,12 @@ public class AdminController {
             - `completed` — ya procesados y disponibles en la app
             - `pending` — en cola, aún no procesados
             - `processing` — procesándose ahora mismo
-            - `failed` — fallaron el procesamiento (ver logs para detalles)
+            - `failed` — fallaron el procesamiento; se reintentan con backoff exponencial
+            - `deadLetter` — agotaron los reintentos; ver `GET /admin/sync/dead-letter`
             - `completionPercentage` — (completed / total) × 100
+            - `totalViewWeight` — suma de `total_views` de los slides objetivo
+            - `freshViewsPercentage` — % de esas vistas cuyo slide ya está COMPLETED
+              (la cola se procesa por popularidad, así que crece más rápido que `completionPercentage`)
             """)
     @ApiResponse(responseCode = "200", description = "Estadísticas de progreso",
         content = @Content(schema = @Schema(implementation = SyncProgressStats.class)))
@@ -114,6 +272,28 @@ public class AdminController {
         return ResponseEntity.ok(syncService.getSyncProgress());
     }
 
+    @GetMapping(value = "/sync/progress/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(
+        summary = "Progreso en vivo de la sincronización (SSE)",
+        description = """
+            Flujo Server-Sent Events con eventos `progress` cada segundo \
+            (`migration.sync.progress.stream-interval-ms`). Se alimenta de contadores en memoria \
+            que actualiza el motor de sincronización, sin consultar la BD.
+            
+            - `processed`, `created`, `updated`, `failed` — acumulados de las ejecuciones en curso
+            - `slidesPerSecond`, `bytesPerSecond` — ritmo desde el evento anterior
+            - `etaSeconds` — slides restantes / ritmo actual
+            
+            El progreso es del nodo que atiende la petición; con varias réplicas de la API, \
+            cada una informa de sus propias ejecuciones.
+            """)
+    @ApiResponse(responseCode = "200", description = "Flujo de eventos `progress`",
+        content = @Content(mediaType = MediaType.TEXT_EVENT_STREAM_VALUE,
+            schema = @Schema(implementation = LiveSyncProgress.class)))
+    public SseEmitter streamSyncProgress() {
+        return progressTracker.subscribe();
+    }
+
     @PostMapping("/sync/reset-stuck")
     @Operation(
         summary = "Resetear slides atascados en PROCESSING",
@@ -121,6 +301,10 @@ public class AdminController {
             Cambia de `PROCESSING` a `PENDING` los slides que quedaron atascados \
             (por ejemplo, si el servicio se reinició durante una sincronización).
             
+            Solo afecta a los slides con el lease vencido (`migration.sync.claim.lease-seconds`): \
+            los que un worker de cualquier nodo sigue renovando no se tocan. Los leases vencidos \
+            también se reclaman solos en la siguiente sincronización.
+            
             Ejecutar si `GET /admin/sync/progress` muestra slides en `processing` \
             sin que haya una sincronización activa.
             """)
@@ -131,6 +315,36 @@ public class AdminController {
         return ResponseEntity.ok(Map.of("message", "Slides reseteados", "count", reset));
     }
 
+    @GetMapping("/sync/dead-letter")
+    @Operation(
+        summary = "Listar slides en DEAD_LETTER",
+        description = """
+            Slides que fallaron `migration.sync.retry.max-attempts` veces seguidas. \
+            La sincronización ya no los toma; se re-encolan con \
+            `POST /admin/sync/dead-letter/requeue`.
+            """)
+    @ApiResponse(responseCode = "200", description = "Slides en DEAD_LETTER",
+        content = @Content(array = @ArraySchema(schema = @Schema(implementation = DeadLetterEntry.class))))
+    public ResponseEntity<List<DeadLetterEntry>> getDeadLetters() {
+        return ResponseEntity.ok(syncService.getDeadLetters());
+    }
+
+    @PostMapping("/sync/dead-letter/requeue")
+    @Operation(
+        summary = "Re-encolar slides en DEAD_LETTER",
+        description = """
+            Devuelve a `PENDING` los slides indicados (o todos si no se indica ninguno) \
+            con el contador de reintentos a cero. Usar tras corregir la causa del fallo.
+            """)
+    @ApiResponse(responseCode = "200", description = "Número de slides re-encolados",
+        content = @Content(schema = @Schema(example = "{\"message\": \"Slides re-encolados\", \"count\": 2}")))
+    public ResponseEntity<?> requeueDeadLetters(
+            @Parameter(description = "IDs de slides a re-encolar (vacío = todos)", example = "1234,5678")
+            @RequestParam(required = false) List<Integer> slideIds) {
+        int requeued = syncService.requeueDeadLetters(slideIds);
+        return ResponseEntity.ok(Map.of("message", "Slides re-encolados", "count", requeued));
+    }
+
     @PostMapping("/migrate-base64")
     @Operation(
         summary = "Migrar imágenes Base64 embebidas",
@@ -141,6 +355,10 @@ public class AdminController {
             
             Usar el parámetro `limit` para controlar cuántos slides procesar por llamada \
             y evitar timeouts en slides con muchas imágenes grandes.
+            
+            Los candidatos salen del inventario Base64 (`slide_base64_inventory`): slides activos \
+            con imágenes Base64 cuya versión procesada es anterior a la inventariada, de mayor a \
+            menor tamaño de imágenes.
             """)
     @ApiResponse(responseCode = "200", description = "Resultados de migración por slide",
         content = @Content(array = @ArraySchema(schema = @Schema(implementation = MigrationResult.class))))
@@ -151,6 +369,28 @@ public class AdminController {
         return ResponseEntity.ok(syncService.migrateBase64Slides(limit));
     }
 
+    @PostMapping("/base64-inventory/refresh")
+    @Operation(
+        summary = "Refrescar el inventario Base64",
+        description = """
+            Actualiza `slide_base64_inventory` con los slides cuyo `write_date` superó la marca \
+            de agua del inventario. Con `full=true` recorre toda la réplica y retira los slides \
+            que ya no existen.
+            
+            Se ejecuta también de forma periódica (`migration.base64.inventory.refresh-interval-ms`).
+            """)
+    @ApiResponse(responseCode = "200", description = "Resultado del refresco",
+        content = @Content(schema = @Schema(implementation = Base64InventoryResult.class)))
+    @ApiResponse(responseCode = "409", description = "Ya hay un refresco en curso")
+    public ResponseEntity<?> refreshBase64Inventory(
+            @Parameter(description = "Recorrer toda la réplica en lugar de solo lo modificado")
+            @RequestParam(defaultValue = "false") boolean full) {
+        return base64Inventory.refresh(full)
+            .<ResponseEntity<?>>map(ResponseEntity::ok)
+            .orElseGet(() -> ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of(
+                "message", "Ya hay un refresco del inventario en curso")));
+    }
+
     @GetMapping("/stats")
     @Operation(
         summary = "Estadísticas del servicio",
@@ -162,17 +402,108 @@ public class AdminController {
             - Estadísticas de imágenes extraídas
             - Acciones de mantenimiento pendientes
             
-            **Nota:** `slidesWithBase64` siempre devuelve `-1` porque la detección \
-            de Base64 requiere escanear el campo `html_content` de toda la réplica \
-            (operación muy costosa). Usar `POST /migrate-base64?limit=1` para detectar \
-            si quedan slides sin migrar.
+            Se leen de una fila de contadores que mantienen triggers de la BD procesada en la \
+            misma transacción que la sincronización, la purga y el inventario Base64 escriben \
+            (`countersUpdatedAt`): no consulta la réplica ni agrega tablas en cada llamada.
+            
+            Con `recompute=true` se recalculan antes desde las tablas, se corrigen y \
+            `countersVerified` indica si coincidían.
+            
+            **Nota:** los datos de la réplica salen del inventario Base64. Hasta que se construya \
+            por primera vez se toman del último escaneo de la réplica en caché \
+            (`GET /stats/replica`), o `-1` si tampoco lo hay.
             """)
     @ApiResponse(responseCode = "200", description = "Estadísticas del servicio",
         content = @Content(schema = @Schema(implementation = DepurationStats.class)))
-    public ResponseEntity<DepurationStats> getDepurationStats() {
-        return ResponseEntity.ok(syncService.getDepurationStats());
+    public ResponseEntity<DepurationStats> getDepurationStats(
+            @Parameter(description = "Recalcular los contadores desde las tablas y verificarlos")
+            @RequestParam(defaultValue = "false") boolean recompute) {
+        return ResponseEntity.ok(syncService.getDepurationStats(recompute));
     }
 
+    @GetMapping("/stats/replica")
+    @Operation(
+        summary = "Estadísticas de tamaño de la réplica",
+        description = """
+            Slides con imágenes Base64 y su tamaño, tamaño de los slides por canal activo y los \
+            slides más pesados de la réplica.
+            
+            Se calculan escaneando `slide_slide` en paralelo por rangos de id \
+            (`migration.analytics.scan.*`) y se guardan en caché con su fecha (`computedAt`) \
+            durante `migration.analytics.cache-ttl-minutes`. Con la caché vigente responde al \
+            instante; si no, espera al escaneo (uno solo a la vez).
+            """)
+    @ApiResponse(responseCode = "200", description = "Estadísticas de la réplica",
+        content = @Content(schema = @Schema(implementation = ReplicaScanStats.class)))
+    public ResponseEntity<ReplicaScanStats> getReplicaScanStats(
+            @Parameter(description = "Ignorar la caché y escanear de nuevo")
+            @RequestParam(defaultValue = "false") boolean refresh) {
+        return ResponseEntity.ok(replicaScanService.getStats(refresh));
+    }
+
+
+    @PostMapping("/sync/reconcile")
+    @Operation(
+        summary = "Reconciliar réplica y BD procesada",
+        description = """
+            Recorre en una sola pasada los IDs relevantes de la réplica y el tracking + slides \
+            procesados (ambos ordenados por id) y aplica con sentencias masivas:
+            
+            - **Altas:** slides relevantes sin tracking → `PENDING`
+            - **Cambios:** `write_date` de la réplica más reciente que el procesado → `PENDING`
+            - **Bajas:** slides procesados que se archivaron, despublicaron o cuyo canal dejó \
+            de ser apto → se eliminan imágenes, slide y tracking
+            
+            Se ejecuta automáticamente al inicio de cada sincronización completa. \
+            Con `deletes=false` las bajas solo se cuentan (`staleDetected`).
+            """)
+    @ApiResponse(responseCode = "200", description = "Resultado de la reconciliación",
+        content = @Content(schema = @Schema(implementation = ReconciliationResult.class)))
+    public ResponseEntity<ReconciliationResult> reconcile(
+            @Parameter(description = "Aplicar las bajas (false = solo contarlas)")
+            @RequestParam(defaultValue = "true") boolean deletes) {
+        return ResponseEntity.ok(reconciliationService.reconcile(true, deletes));
+    }
+
+    @PostMapping("/sync/bulk-load")
+    @Operation(
+        summary = "Carga masiva inicial (reconstrucción completa)",
+        description = """
+            Reconstruye desde cero slides, imágenes y tracking de la BD procesada. \
+            Pensado para entornos nuevos o recuperación ante desastres:
+            
+            1. Lee los slides relevantes de la réplica con `COPY (SELECT ...) TO STDOUT`
+            2. Extrae las imágenes Base64 en hilos paralelos (`migration.bulk-load.workers`)
+            3. Escribe con `COPY ... FROM STDIN` en tablas de staging UNLOGGED
+            4. Sustituye el contenido actual en una sola transacción y registra una \
+            entrada CREATED por slide en el log de sincronización
+            
+            **Destructivo:** reemplaza todo el contenido procesado; requiere `confirm=true`. \
+            Si la carga falla antes del intercambio, el contenido actual no se modifica. \
+            Toma el lock de sincronización: con otra sincronización en curso (en este u otro \
+            nodo) responde 409.
+            """)
+    @ApiResponses({
+        @ApiResponse(responseCode = "200", description = "Resultado de la carga masiva",
+            content = @Content(schema = @Schema(implementation = BulkLoadResult.class))),
+        @ApiResponse(responseCode = "400", description = "Falta confirm=true",
+            content = @Content(schema = @Schema(
+                example = "{\"error\": \"La carga masiva reemplaza todo el contenido procesado: enviar confirm=true\"}"))),
+        @ApiResponse(responseCode = "409", description = "Ya hay una sincronización activa",
+            content = @Content)
+    })
+    public ResponseEntity<?> bulkLoad(
+            @Parameter(description = "Confirmación explícita de la reconstrucción completa")
+            @RequestParam(defaultValue = "false") boolean confirm) {
+        if (!confirm) {
+            return ResponseEntity.badRequest().body(Map.of(
+                "error", "La carga masiva reemplaza todo el contenido procesado: enviar confirm=true"));
+        }
+        return bulkLoadService.rebuild()
+            .<ResponseEntity<?>>map(ResponseEntity::ok)
+            .orElseGet(() -> ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of(
+                "message", "Ya hay una sincronización activa")));
+    }
 
     @PostMapping("/sync/reset-outdated")
     @Operation(
@@ -183,7 +514,8 @@ public class AdminController {
             es mas reciente se resetean a PENDING para ser re-sincronizados en el \
             proximo ciclo de POST /admin/sync.
 
-            Tambien se llama automaticamente al inicio de cada sincronizacion completa.
+            Tambien da de alta en el tracking los slides relevantes que aun no lo tienen. \
+            Equivale a `POST /admin/sync/reconcile?deletes=false`.
             """)
     @ApiResponse(responseCode = "200", description = "Slides reseteados a PENDING",
         content = @Content(schema = @Schema(
@@ -207,19 +539,19 @@ public class AdminController {
             - Se despublicó (`is_published = false`) en Odoo
             - Su canal fue archivado o despublicado
             
-            La operación elimina de forma segura: primero las imágenes (`slide_images`), \
-            luego el slide procesado (`slides`), luego el tracking (`processing_status`).
+            Los IDs relevantes de la réplica se envían en un único array y la BD procesada \
+            calcula los excluidos. Se eliminan por bloques, cada uno en su transacción y con \
+            tres DELETE masivos: primero las imágenes (`slide_images`), luego el slide procesado \
+            (`slides`), luego el tracking (`processing_status`). `reclaimedBytes` es el tamaño \
+            almacenado de las imágenes y el `html_content` eliminados; las imágenes no se leen. \
+            Equivale a las bajas de `POST /admin/sync/reconcile`.
             
             Ejecutar periódicamente o después de cambios masivos en Odoo.
             """)
-    @ApiResponse(responseCode = "200", description = "Número de slides eliminados",
-        content = @Content(schema = @Schema(
-            example = "{\"message\": \"Slides excluidos eliminados de la BD procesada\", \"deleted\": 0}")))
-    public ResponseEntity<?> purgeExcludedSlides() {
-        int deleted = syncService.purgeExcludedSlides();
-        return ResponseEntity.ok(Map.of(
-            "message", "Slides excluidos eliminados de la BD procesada",
-            "deleted", deleted));
+    @ApiResponse(responseCode = "200", description = "Resultado de la purga",
+        content = @Content(schema = @Schema(implementation = PurgeResult.class)))
+    public ResponseEntity<PurgeResult> purgeExcludedSlides() {
+        return ResponseEntity.ok(syncService.purgeExcludedSlides());
     }
 
     // ─── Sync Log ──────────────────────────────────────────────────────────────
@@ -305,6 +637,9 @@ public class AdminController {
             Cada entrada representa un `syncRunId` único con métricas agregadas:
             slides creados, actualizados y fallidos.
 
+            Se lee del resumen `sync_runs`, que se actualiza al escribir el log: no recorre
+            `slide_sync_log` y conserva las ejecuciones cuyas particiones ya se eliminaron por retención.
+
             Para ver los slides de una ejecución específica usar `GET /admin/sync/log?syncRunId={id}`.
             """)
     @ApiResponse(responseCode = "200", description = "Lista de ejecuciones de sync")
@@ -313,17 +648,16 @@ public class AdminController {
             @RequestParam(defaultValue = "20") int limit) {
 
         limit = Math.min(limit, 100);
-        List<Object[]> rows = syncLogRepo.findSyncRunSummaries(limit);
-
-        List<SyncRunSummary> summaries = rows.stream().map(r -> SyncRunSummary.builder()
-            .syncRunId((String) r[0])
-            .startedAt(r[1] instanceof java.sql.Timestamp ts ? ts.toLocalDateTime() : (LocalDateTime) r[1])
-            .lastEventAt(r[2] instanceof java.sql.Timestamp ts ? ts.toLocalDateTime() : (LocalDateTime) r[2])
-            .totalEvents(((Number) r[3]).longValue())
-            .created(((Number) r[4]).longValue())
-            .updated(((Number) r[5]).longValue())
-            .failed(((Number) r[6]).longValue())
-            .build())
+        List<SyncRunSummary> summaries = syncRunRepo.findByOrderByStartedAtDesc(PageRequest.of(0, limit))
+            .stream().map(r -> SyncRunSummary.builder()
+                .syncRunId(r.getSyncRunId())
+                .startedAt(r.getStartedAt())
+                .lastEventAt(r.getLastEventAt())
+                .totalEvents(r.getTotalEvents())
+                .created(r.getCreated())
+                .updated(r.getUpdated())
+                .failed(r.getFailed())
+                .build())
             .toList();
 
         return ResponseEntity.ok(summaries);
@@ -385,24 +719,11 @@ public class AdminController {
 
     @PostMapping("/slides/excluded/sync")
     @Operation(summary = "Sincronizar slides excluidos",
-               description = "Migra desde la replica Odoo todos los slides excluidos del sync (inactivos, no publicados, canal no apto) a la tabla excluded_slides de la API. Operacion upsert.")
-    @ApiResponse(responseCode = "200", description = "Total de slides excluidos migrados")
-    public ResponseEntity<Map<String, Object>> syncExcludedSlides() {
-        List<Object[]> rows = replicaSlideRepo.findExcludedSlides();
-        List<ExcludedSlide> batch = rows.stream().map(r -> ExcludedSlide.builder()
-            .id(((Number) r[0]).intValue())
-            .channelId(r[1] != null ? ((Number) r[1]).intValue() : null)
-            .createDate(r[2] instanceof java.sql.Timestamp ts ? ts.toLocalDateTime()
-                        : r[2] instanceof java.time.LocalDateTime ld ? ld : null)
-            .reason((String) r[3])
-            .syncedAt(java.time.LocalDateTime.now())
-            .build()).toList();
-        excludedSlideRepo.saveAll(batch);
-        Map<String, Object> result = new java.util.LinkedHashMap<>();
-        result.put("synced", batch.size());
-        result.put("byReason", batch.stream().collect(
-            java.util.stream.Collectors.groupingBy(ExcludedSlide::getReason, java.util.stream.Collectors.counting())));
-        return ResponseEntity.ok(result);
+               description = "Migra desde la replica Odoo todos los slides excluidos del sync (inactivos, no publicados, canal no apto) a la tabla excluded_slides de la API. Upsert masivo por lotes: solo reescribe los que cambiaron y elimina los que ya no estan excluidos.")
+    @ApiResponse(responseCode = "200", description = "Total de slides excluidos migrados",
+        content = @Content(schema = @Schema(implementation = ExcludedSlidesSyncResult.class)))
+    public ResponseEntity<ExcludedSlidesSyncResult> syncExcludedSlides() {
+        return ResponseEntity.ok(reconciliationService.syncExcludedSlides());
     }
 
     @GetMapping("/slides/excluded")
@@ -4,6 +4,7 @@ import lombok.*;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 
 /**
  * DTOs para respuestas de la API.
@@ -113,6 +114,9 @@ public class SlideDTO {
         private Double savingsPercentage;
         private Long totalImagesExtracted;
         private PendingActions pendingActions;
+        private LocalDateTime countersUpdatedAt;  // Última acumulación de deltas en los contadores
+        private LocalDateTime recomputedAt;       // Último recálculo completo
+        private Boolean countersVerified;         // Solo con recompute: si los contadores coincidían
     }
     
     /**
@@ -147,6 +151,7 @@ public class SlideDTO {
         private Long newSize;
         private Long savedBytes;
         private String message;
+        private Long durationMs;
         private LocalDateTime processedAt;
     }
     
@@ -168,9 +173,146 @@ public class SlideDTO {
         private Integer channelsProcessed;
         private Long totalOriginalSize;
         private Long totalProcessedSize;
+        private String commitMode;
+        private Long transactionsCommitted;
+        private Map<String, Long> slideLatencyMs;  // p50, p90, p99, p999, max
         private List<MigrationResult> migrationResults;
     }
     
+    /**
+     * DTO para resultado de la sincronización ligera de metadatos.
+     */
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class MetadataSyncResult {
+        private LocalDateTime syncedAt;
+        private Long durationMs;
+        private Integer slidesScanned;
+        private Integer slidesUpdated;
+        private Integer channelsScanned;
+        private Integer channelsUpdated;
+        private Integer contentChangesDetected;
+    }
+
+    /**
+     * DTO para resultado de la carga masiva inicial (COPY + staging).
+     */
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class BulkLoadResult {
+        private String syncRunId;
+        private LocalDateTime startedAt;
+        private LocalDateTime completedAt;
+        private Long durationMs;
+        private Integer workers;
+        private Integer slidesLoaded;
+        private Integer slidesFailed;
+        private Integer imagesLoaded;
+        private Integer channelsProcessed;
+        private Long totalOriginalSize;
+        private Long totalProcessedSize;
+    }
+
+    /**
+     * DTO para resultado de la reconciliación réplica ↔ BD procesada.
+     */
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class ReconciliationResult {
+        private LocalDateTime reconciledAt;
+        private Long durationMs;
+        private Integer replicaRows;
+        private Integer processedRows;
+        private Integer added;
+        private Integer updated;
+        private Integer deleted;
+        private Integer staleDetected;
+    }
+
+    /**
+     * DTO para el resultado de la purga de slides excluidos.
+     */
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class PurgeResult {
+        private Integer relevantSlides;   // Slides relevantes en la réplica
+        private Integer deleted;          // Slides eliminados (slide, imágenes y tracking)
+        private Long imagesDeleted;
+        private Long reclaimedBytes;      // Tamaño almacenado de imágenes y html_content eliminados
+        private Long durationMs;
+    }
+
+    /**
+     * DTO para un slide en DEAD_LETTER (agotó sus reintentos).
+     */
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class DeadLetterEntry {
+        private Integer slideId;
+        private Integer retryCount;
+        private LocalDateTime failedAt;
+        private String errorMessage;
+    }
+
+    /**
+     * DTO para el progreso en vivo (SSE) de las sincronizaciones de un nodo, calculado en memoria.
+     */
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class LiveSyncProgress {
+        private Boolean running;
+        private Integer activeRuns;
+        private LocalDateTime startedAt;
+        private Long totalSlides;
+        private Long processed;
+        private Long created;
+        private Long updated;
+        private Long failed;
+        private Double slidesPerSecond;   // Ritmo desde la instantánea anterior
+        private Long bytesPerSecond;      // Bytes de HTML original leídos de la réplica
+        private Long etaSeconds;          // null si no hay ejecución o aún no hay ritmo
+        private LocalDateTime updatedAt;
+    }
+
+    /**
+     * DTO para un trabajo de sincronización en segundo plano.
+     * El detalle por slide está en el log: GET /admin/sync/log?syncRunId={jobId}.
+     */
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class SyncJobInfo {
+        private String jobId;
+        private String jobType;
+        private String status;
+        private Boolean cancelRequested;
+        private LocalDateTime submittedAt;
+        private LocalDateTime startedAt;
+        private LocalDateTime completedAt;
+        private String node;
+        private Integer slidesProcessed;
+        private Integer slidesCreated;
+        private Integer slidesUpdated;
+        private Integer slidesFailed;
+        private Integer channelsProcessed;
+        private Long durationMs;
+        private String commitMode;
+        private String errorMessage;
+    }
+
     /**
      * DTO para estadísticas de progreso de sincronización.
      */
@@ -184,7 +326,10 @@ public class SlideDTO {
         private Long processing;
         private Long completed;
         private Long failed;
+        private Long deadLetter;
         private Double completionPercentage;
+        private Long totalViewWeight;
+        private Double freshViewsPercentage;  // % de vistas de la réplica cuyo slide ya está al día
     }
 
     /**
@@ -227,4 +372,84 @@ public class SlideDTO {
         private Long updated;
         private Long failed;
     }
+
+    /**
+     * DTO para la sincronización de slide_api.excluded_slides desde la réplica.
+     */
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class ExcludedSlidesSyncResult {
+        private Long synced;              // Excluidos en la réplica
+        private Long written;             // Insertados o con cambios
+        private Long deleted;             // Ya no excluidos (o inexistentes)
+        private Map<String, Long> byReason;
+        private Long durationMs;
+    }
+
+    /**
+     * DTO para el resultado de un refresco del inventario Base64.
+     */
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Base64InventoryResult {
+        private String mode;              // FULL, INCREMENTAL
+        private Long scannedSlides;
+        private Long slidesWithBase64;
+        private Long removed;             // Slides que ya no están en la réplica (solo FULL)
+        private LocalDateTime watermark;
+        private Long durationMs;
+    }
+
+    /**
+     * DTO para las estadísticas de tamaño de la réplica, calculadas con un escaneo por rangos de id.
+     */
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class ReplicaScanStats {
+        private LocalDateTime computedAt;
+        private Long durationMs;
+        private Integer partitions;
+        private Long scannedSlides;
+        private Long totalHtmlSize;
+        private Long slidesWithBase64;    // Activos con imágenes Base64 embebidas
+        private Long base64Size;          // pg_column_size de su html_content
+        private List<ChannelSizeStats> channels;      // Canales activos, por tamaño descendente
+        private List<SlideSizeStats> heaviestSlides;
+    }
+
+    /**
+     * DTO para el tamaño de los slides de un canal.
+     */
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class ChannelSizeStats {
+        private Integer channelId;
+        private String channelName;
+        private Boolean isPublished;
+        private Long slideCount;
+        private Long totalSize;
+    }
+
+    /**
+     * DTO para el tamaño de un slide.
+     */
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class SlideSizeStats {
+        private Integer slideId;
+        private String slideName;
+        private Integer channelId;
+        private Boolean active;
+        private Long sizeBytes;
+    }
 }
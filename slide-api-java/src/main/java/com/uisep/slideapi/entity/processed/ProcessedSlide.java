@@ -80,6 +80,10 @@ public class ProcessedSlide {
     @Column(name = "odoo_write_date")
     private LocalDateTime odooWriteDate;
     
+    // Huella md5 del contenido fuente en la réplica (detecta cambios solo de metadatos)
+    @Column(name = "source_fingerprint", length = 32)
+    private String sourceFingerprint;
+    
     // Fechas de procesamiento
     @Column(name = "first_processed_at")
     private LocalDateTime firstProcessedAt;
@@ -0,0 +1,50 @@
+package com.uisep.slideapi.entity.processed;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Inventario de imágenes Base64 embebidas en html_content de cada slide de la réplica.
+ * Lo mantiene SlideBase64InventoryService con upserts masivos; el índice parcial de
+ * candidatos está en db/migrations/V009.
+ */
+@Entity
+@Table(name = "slide_base64_inventory")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SlideBase64Inventory {
+
+    @Id
+    @Column(name = "slide_id")
+    private Integer slideId;  // ID del slide en la réplica
+
+    @Column(nullable = false)
+    private Boolean active;
+
+    @Column(name = "base64_images", nullable = false)
+    private Integer base64Images;
+
+    // Tamaño decodificado aproximado de todas las imágenes
+    @Column(name = "base64_bytes", nullable = false)
+    private Long base64Bytes;
+
+    @Column(name = "largest_image_bytes", nullable = false)
+    private Long largestImageBytes;
+
+    @Column(name = "odoo_write_date")
+    private LocalDateTime odooWriteDate;
+
+    // pg_column_size(html_content) en la réplica (columna añadida en V011)
+    @Column(name = "html_bytes", nullable = false, columnDefinition = "bigint default 0")
+    private Long htmlBytes;
+
+    @Column(name = "scanned_at", nullable = false)
+    private LocalDateTime scannedAt;
+}
@@ -43,6 +43,15 @@ public class SlideProcessingStatus {
     @Builder.Default
     private Integer retryCount = 0;
     
+    @Column(name = "next_attempt_at")
+    private LocalDateTime nextAttemptAt;  // Próximo reintento (FAILED con backoff)
+    
+    @Column(name = "priority_score")
+    private Double priorityScore;  // Prioridad base (vistas, canal, recencia)
+    
+    @Column(name = "view_weight")
+    private Long viewWeight;  // total_views del slide en la réplica
+    
     @Column(name = "original_size_bytes")
     private Long originalSizeBytes;
     
@@ -56,6 +65,7 @@ public class SlideProcessingStatus {
         PENDING,      // No ha sido procesado
         PROCESSING,   // En proceso
         COMPLETED,    // Completado exitosamente
-        FAILED        // Falló después de reintentos
+        FAILED,       // Falló; se reintenta a partir de nextAttemptAt
+        DEAD_LETTER   // Agotó los reintentos; solo se re-encola desde el endpoint de administración
     }
 }
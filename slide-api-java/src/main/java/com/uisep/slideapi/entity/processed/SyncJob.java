@@ -0,0 +1,90 @@
+package com.uisep.slideapi.entity.processed;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Trabajo de sincronización completa ejecutado en segundo plano.
+ * El job_id es también el syncRunId de las entradas de slide_sync_log de la ejecución.
+ */
+@Entity
+@Table(name = "sync_jobs")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SyncJob {
+
+    @Id
+    @Column(name = "job_id", length = 64)
+    private String jobId;
+
+    @Column(name = "job_type", nullable = false, length = 20)
+    @Enumerated(EnumType.STRING)
+    private JobType jobType;
+
+    @Column(nullable = false, length = 20)
+    @Enumerated(EnumType.STRING)
+    private JobStatus status;
+
+    @Column(name = "cancel_requested", nullable = false)
+    private boolean cancelRequested;
+
+    @Column(name = "submitted_at", nullable = false)
+    private LocalDateTime submittedAt;
+
+    @Column(name = "started_at")
+    private LocalDateTime startedAt;
+
+    @Column(name = "completed_at")
+    private LocalDateTime completedAt;
+
+    @Column(name = "node")
+    private String node;  // Host que ejecutó el trabajo
+
+    @Column(name = "lock_pid")
+    private Integer lockPid;  // Backend con el advisory lock mientras está RUNNING
+
+    @Column(name = "slides_processed")
+    private Integer slidesProcessed;
+
+    @Column(name = "slides_created")
+    private Integer slidesCreated;
+
+    @Column(name = "slides_updated")
+    private Integer slidesUpdated;
+
+    @Column(name = "slides_failed")
+    private Integer slidesFailed;
+
+    @Column(name = "channels_processed")
+    private Integer channelsProcessed;
+
+    @Column(name = "duration_ms")
+    private Long durationMs;
+
+    @Column(name = "commit_mode", length = 20)
+    private String commitMode;
+
+    @Column(name = "error_message", length = 2000)
+    private String errorMessage;
+
+    public enum JobType {
+        MANUAL,     // POST /admin/sync
+        SCHEDULED   // cron migration.sync.cron
+    }
+
+    public enum JobStatus {
+        QUEUED,     // Aceptado, aún sin empezar
+        RUNNING,    // En ejecución (tiene el advisory lock)
+        COMPLETED,  // Terminó
+        FAILED,     // Error inesperado o interrumpido por reinicio
+        CANCELLED,  // Cancelado a petición
+        SKIPPED     // Otra ejecución tenía el lock
+    }
+}
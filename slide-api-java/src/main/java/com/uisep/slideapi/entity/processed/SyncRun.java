@@ -0,0 +1,47 @@
+package com.uisep.slideapi.entity.processed;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Resumen de una ejecución de sincronización (un sync_run_id de slide_sync_log).
+ * Se mantiene en la misma sentencia que inserta las entradas del log (ver SyncLogWriter),
+ * de modo que listar ejecuciones no recorre el log y el resumen sobrevive a su retención.
+ */
+@Entity
+@Table(name = "sync_runs", indexes = {
+    @Index(name = "idx_sync_runs_started", columnList = "started_at")
+})
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SyncRun {
+
+    @Id
+    @Column(name = "sync_run_id", length = 36)
+    private String syncRunId;
+
+    @Column(name = "started_at", nullable = false)
+    private LocalDateTime startedAt;
+
+    @Column(name = "last_event_at", nullable = false)
+    private LocalDateTime lastEventAt;
+
+    @Column(name = "total_events", nullable = false)
+    private Long totalEvents;
+
+    @Column(name = "created", nullable = false)
+    private Long created;
+
+    @Column(name = "updated", nullable = false)
+    private Long updated;
+
+    @Column(name = "failed", nullable = false)
+    private Long failed;
+}
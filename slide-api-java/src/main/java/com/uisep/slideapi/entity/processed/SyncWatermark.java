@@ -0,0 +1,38 @@
+package com.uisep.slideapi.entity.processed;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Marca de agua (high-water mark) persistida de la sincronización incremental.
+ * Guarda el mayor write_date de la réplica ya sincronizado para cada fuente.
+ */
+@Entity
+@Table(name = "sync_watermarks", schema = "slide_api")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SyncWatermark {
+
+    @Id
+    @Column(name = "name", length = 50)
+    private String name;  // Fuente: p.ej. "slide_slide.write_date"
+
+    @Column(name = "watermark")
+    private LocalDateTime watermark;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    @PrePersist
+    @PreUpdate
+    protected void onSave() {
+        updatedAt = LocalDateTime.now();
+    }
+}
@@ -5,9 +5,11 @@ import org.springframework.data.domain.Page;
 import com.uisep.slideapi.repository.processed.ProcessedSlideProjection;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -51,10 +53,6 @@ public interface ProcessedSlideRepository extends JpaRepository<ProcessedSlide,
     @Query("SELECT s FROM ProcessedSlide s WHERE LOWER(s.name) LIKE LOWER(CONCAT('%', :query, '%'))")
     List<ProcessedSlide> searchByName(@Param("query") String query);
 
-    // Solo IDs (para purge sin cargar htmlContent)
-    @Query(value = "SELECT id FROM slide_api.slides", nativeQuery = true)
-    List<Integer> findAllIds();
-
     // Conteo por canal (sin cargar entidades)
     long countByChannelId(Integer channelId);
 
@@ -111,6 +109,44 @@ public interface ProcessedSlideRepository extends JpaRepository<ProcessedSlide,
     @Query("SELECT s.id, s.odooWriteDate FROM ProcessedSlide s WHERE s.id IN :ids")
     List<Object[]> findWriteDatesByIds(@Param("ids") List<Integer> ids);
 
+    // Estado de sincronización sin cargar htmlContent: odooWriteDate, huella, tamaños, imágenes y contentUrl
+    @Query("""
+        SELECT s.odooWriteDate, s.sourceFingerprint, s.originalSizeBytes, s.processedSizeBytes, s.imagesExtracted,
+               s.contentUrl
+        FROM ProcessedSlide s WHERE s.id = :id
+        """)
+    List<Object[]> findSyncStateById(@Param("id") Integer id);
+
+    // Actualización solo de metadatos: no toca htmlContent, contentUrl ni imágenes
+    // (UPDATE masivo no dispara @PreUpdate, por eso lastSyncedAt se pasa explícito)
+    @Transactional
+    @Modifying
+    @Query("""
+        UPDATE ProcessedSlide s SET
+            s.channelId = :channelId, s.channelName = :channelName, s.name = :name,
+            s.description = :description, s.active = :active, s.isPublished = :isPublished,
+            s.totalViews = :totalViews, s.odooWriteDate = :odooWriteDate,
+            s.sourceFingerprint = :fingerprint, s.lastSyncedAt = :syncedAt
+        WHERE s.id = :id
+        """)
+    int updateMetadataOnly(@Param("id") Integer id,
+                           @Param("channelId") Integer channelId,
+                           @Param("channelName") String channelName,
+                           @Param("name") String name,
+                           @Param("description") String description,
+                           @Param("active") Boolean active,
+                           @Param("isPublished") Boolean isPublished,
+                           @Param("totalViews") Integer totalViews,
+                           @Param("odooWriteDate") LocalDateTime odooWriteDate,
+                           @Param("fingerprint") String fingerprint,
+                           @Param("syncedAt") LocalDateTime syncedAt);
+
+    // Registra la huella de slides procesados antes de existir la columna
+    @Transactional
+    @Modifying
+    @Query("UPDATE ProcessedSlide s SET s.sourceFingerprint = :fingerprint WHERE s.id = :id")
+    int updateSourceFingerprint(@Param("id") Integer id, @Param("fingerprint") String fingerprint);
+
     // Slides activos pero no publicados: solo id y channelId
     @Query("SELECT s.id, s.channelId FROM ProcessedSlide s WHERE s.active = true AND s.isPublished = false ORDER BY s.channelId ASC, s.id ASC")
     List<Object[]> findNonUsableIdAndChannelId();
@@ -18,9 +18,6 @@ public interface SlideProcessingStatusRepository extends JpaRepository<SlideProc
     
     long countByStatus(SlideProcessingStatus.ProcessingStatus status);
     
-    @Query("SELECT s.slideId FROM SlideProcessingStatus s WHERE s.status IN ('PENDING', 'FAILED') ORDER BY s.slideId")
-    List<Integer> findPendingSlideIds();
-    
     List<SlideProcessingStatus> findByStatus(SlideProcessingStatus.ProcessingStatus status);
     
     @Query("SELECT s.slideId FROM SlideProcessingStatus s WHERE s.status = 'COMPLETED'")
@@ -32,6 +29,15 @@ public interface SlideProcessingStatusRepository extends JpaRepository<SlideProc
     int updateStatusByIds(@Param("status") SlideProcessingStatus.ProcessingStatus status,
                           @Param("ids") List<Integer> ids);
     
+    List<SlideProcessingStatus> findByStatusOrderByFailedAtDesc(SlideProcessingStatus.ProcessingStatus status);
+    
+    // Vistas ponderadas: total y ya frescas (COMPLETED tras la reconciliación) — consultas separadas
+    @Query("SELECT COALESCE(SUM(s.viewWeight), 0) FROM SlideProcessingStatus s")
+    Long sumViewWeight();
+    
+    @Query("SELECT COALESCE(SUM(s.viewWeight), 0) FROM SlideProcessingStatus s WHERE s.status = :status")
+    Long sumViewWeightByStatus(@Param("status") SlideProcessingStatus.ProcessingStatus status);
+    
     @Query("SELECT s.status, COUNT(s) FROM SlideProcessingStatus s GROUP BY s.status")
     List<Object[]> getProcessingStatistics();
 }
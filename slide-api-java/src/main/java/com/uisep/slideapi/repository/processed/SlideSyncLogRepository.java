@@ -9,7 +9,6 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
-import java.util.List;
 
 @Repository
 public interface SlideSyncLogRepository extends JpaRepository<SlideSyncLog, Long> {
@@ -25,26 +24,6 @@ public interface SlideSyncLogRepository extends JpaRepository<SlideSyncLog, Long
     Page<SlideSyncLog> findBySyncedAtBetweenOrderBySyncedAtDesc(
         LocalDateTime from, LocalDateTime to, Pageable pageable);
 
-    // Resumen de ejecuciones de sync (una fila por syncRunId)
-    @Query(value = """
-        SELECT sync_run_id,
-               MIN(synced_at)                                           AS started_at,
-               MAX(synced_at)                                           AS last_event_at,
-               COUNT(*)                                                 AS total_events,
-               SUM(CASE WHEN action = 'CREATED' THEN 1 ELSE 0 END)    AS created,
-               SUM(CASE WHEN action = 'UPDATED' THEN 1 ELSE 0 END)    AS updated,
-               SUM(CASE WHEN action = 'FAILED'  THEN 1 ELSE 0 END)    AS failed
-        FROM public.slide_sync_log
-        GROUP BY sync_run_id
-        ORDER BY MIN(synced_at) DESC
-        LIMIT :limit
-        """, nativeQuery = true)
-    List<Object[]> findSyncRunSummaries(@Param("limit") int limit);
-
-    // Total de ejecuciones distintas (para paginación del listado de runs)
-    @Query(value = "SELECT COUNT(DISTINCT sync_run_id) FROM public.slide_sync_log", nativeQuery = true)
-    long countDistinctRuns();
-
     // Cambios recientes: CREATED y UPDATED en rango de fechas
     @Query(value = """
         SELECT * FROM public.slide_sync_log
@@ -0,0 +1,34 @@
+package com.uisep.slideapi.repository.processed;
+
+import com.uisep.slideapi.entity.processed.SyncJob;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Repositorio para los trabajos de sincronización en segundo plano.
+ */
+@Repository
+public interface SyncJobRepository extends JpaRepository<SyncJob, String> {
+
+    List<SyncJob> findByOrderBySubmittedAtDesc(Pageable pageable);
+
+    List<SyncJob> findByStatusIn(Collection<SyncJob.JobStatus> statuses);
+
+    // Solo la bandera: no pisa el estado que escribe el hilo del trabajo
+    @Modifying
+    @Query("""
+        UPDATE SyncJob j SET j.cancelRequested = true
+        WHERE j.jobId = :jobId AND j.status IN ('QUEUED', 'RUNNING')
+        """)
+    int requestCancel(@Param("jobId") String jobId);
+
+    @Query("SELECT j.cancelRequested FROM SyncJob j WHERE j.jobId = :jobId")
+    Boolean isCancelRequested(@Param("jobId") String jobId);
+}
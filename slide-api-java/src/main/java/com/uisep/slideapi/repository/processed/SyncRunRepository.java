@@ -0,0 +1,18 @@
+package com.uisep.slideapi.repository.processed;
+
+import com.uisep.slideapi.entity.processed.SyncRun;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * Repositorio del resumen de ejecuciones de sincronización (public.sync_runs).
+ * Solo lectura desde Java: las filas las mantiene el INSERT del log.
+ */
+@Repository
+public interface SyncRunRepository extends JpaRepository<SyncRun, String> {
+
+    List<SyncRun> findByOrderByStartedAtDesc(Pageable pageable);
+}
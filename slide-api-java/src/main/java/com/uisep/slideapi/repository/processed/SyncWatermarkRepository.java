@@ -0,0 +1,12 @@
+package com.uisep.slideapi.repository.processed;
+
+import com.uisep.slideapi.entity.processed.SyncWatermark;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Repositorio para las marcas de agua de la sincronización incremental.
+ */
+@Repository
+public interface SyncWatermarkRepository extends JpaRepository<SyncWatermark, String> {
+}
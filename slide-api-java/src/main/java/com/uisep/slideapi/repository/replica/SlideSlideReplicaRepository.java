@@ -43,6 +43,38 @@ public interface SlideSlideReplicaRepository extends JpaRepository<SlideSlideRep
         """, nativeQuery = true)
     List<Integer> findActiveSlideIds();
 
+    // IDs de slides relevantes modificados después de cierta fecha (sincronización incremental)
+    @Query(value = """
+        SELECT s.id FROM slide_slide s
+        WHERE s.write_date > :since
+          AND s.active = true
+          AND s.is_published = true
+          AND EXISTS (
+              SELECT 1 FROM slide_channel sc
+              WHERE sc.id = s.channel_id
+                AND sc.active = true
+                AND sc.is_published = true
+          )
+        ORDER BY s.id
+        """, nativeQuery = true)
+    List<Integer> findActiveSlideIdsChangedSince(@Param("since") LocalDateTime since);
+
+    // IDs de slides relevantes de un canal (sincronización por canal)
+    @Query(value = """
+        SELECT s.id FROM slide_slide s
+        WHERE s.channel_id = :channelId
+          AND s.active = true
+          AND s.is_published = true
+          AND EXISTS (
+              SELECT 1 FROM slide_channel sc
+              WHERE sc.id = s.channel_id
+                AND sc.active = true
+                AND sc.is_published = true
+          )
+        ORDER BY s.id
+        """, nativeQuery = true)
+    List<Integer> findActiveSlideIdsByChannelId(@Param("channelId") Integer channelId);
+
     // Tamaño total de htmlContent en slides inactivos (sin cargar los registros)
     @Query(value = "SELECT COALESCE(SUM(pg_column_size(html_content)), 0) FROM slide_slide WHERE active = false", nativeQuery = true)
     Long sumHtmlContentSizeInactive();
@@ -135,12 +167,62 @@ public interface SlideSlideReplicaRepository extends JpaRepository<SlideSlideRep
         """, nativeQuery = true)
     Object[] getReplicationStatus();
 
+    // Retraso de replicación en segundos (escalar, para el regulador de la sincronización).
+    // Sin WAL pendiente de aplicar el retraso es 0 aunque last_replay sea antiguo (primario sin escrituras)
+    @Query(value = """
+        SELECT CASE
+            WHEN NOT pg_is_in_recovery() THEN 0
+            WHEN pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0
+            ELSE COALESCE(EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()), 0)
+        END
+        """, nativeQuery = true)
+    Double getReplicationLagSeconds();
+
     // IDs y write_date de la réplica para comparar con BD procesada
     @Query(value = "SELECT s.id, s.write_date FROM slide_slide s WHERE s.id IN :ids", nativeQuery = true)
     List<Object[]> findWriteDatesByIds(@Param("ids") List<Integer> ids);
 
-    // Slides excluidos del sync con su razon y fecha de creacion
+    /**
+     * Huella md5 de las columnas que determinan el HTML y la URL resueltos de un slide.
+     * Se calcula en la réplica para no transferir html_content; ROW(...)::text distingue NULL de ''.
+     */
+    String CONTENT_FINGERPRINT_SQL = """
+        md5(ROW(s.slide_type, s.use_html_embed, s.html_content, s.html_embed_code,
+                s.preconverthtml, s.url, s.bunny_url, s.external_url)::text)""";
+
+    // Huella del contenido fuente de un slide
+    @Query(value = "SELECT " + CONTENT_FINGERPRINT_SQL + " FROM slide_slide s WHERE s.id = :id", nativeQuery = true)
+    String findContentFingerprint(@Param("id") Integer id);
+
+    // Bytes almacenados de las columnas pesadas (html_content, html_embed_code, preconvert*) por slide,
+    // sin transferirlas: base del control de admisión por memoria
     @Query(value = """
+        SELECT s.id,
+               COALESCE(pg_column_size(s.html_content), 0) + COALESCE(pg_column_size(s.html_embed_code), 0)
+             + COALESCE(pg_column_size(s.preconverthtml), 0) + COALESCE(pg_column_size(s.preconvertdes), 0)
+        FROM slide_slide s
+        WHERE s.id IN :ids
+        """, nativeQuery = true)
+    List<Object[]> findContentSizesByIds(@Param("ids") List<Integer> ids);
+
+    // Metadatos ligeros + huella de contenido (sin cargar html_content)
+    @Query(value = """
+        SELECT s.id, s.channel_id, s.slide_type, s.active, s.is_published, s.total_views, s.write_date,
+               COALESCE(s.name->>'es_MX', s.name->>'es_ES', s.name->>'en_US',
+                        (SELECT v.value FROM jsonb_each_text(s.name) v LIMIT 1)) AS name,
+               s.description,
+               """ + CONTENT_FINGERPRINT_SQL + """
+         AS fingerprint
+        FROM slide_slide s
+        WHERE s.id = :id
+        """, nativeQuery = true)
+    List<Object[]> findSyncMetadataById(@Param("id") Integer id);
+
+    /**
+     * Slides excluidos del sync con su razon y fecha de creacion.
+     * Compartida con la sincronización masiva de excluded_slides (SlideReconciliationService).
+     */
+    String EXCLUDED_SLIDES_SQL = """
         SELECT s.id, s.channel_id, s.create_date,
           CASE
             WHEN s.active = false THEN 'INACTIVE'
@@ -157,6 +239,8 @@ public interface SlideSlideReplicaRepository extends JpaRepository<SlideSlideRep
                  AND sc.is_published = true
            )
         ORDER BY s.id
-        """, nativeQuery = true)
+        """;
+
+    @Query(value = EXCLUDED_SLIDES_SQL, nativeQuery = true)
     List<Object[]> findExcludedSlides();
 }
\ No newline at end of file
@@ -10,6 +10,10 @@ import org.springframework.transaction.annotation.Transactional;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import java.util.*;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Consumer;
+import java.util.function.UnaryOperator;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -57,6 +61,55 @@ public class Base64ImageExtractor {
      */
     @Transactional("processedTransactionManager")
     public ExtractionResult extractAndProcess(Integer slideId, String htmlContent, String baseUrl) {
+        return extract(slideId, htmlContent, baseUrl, candidate -> {
+            // Verificar si ya existe
+            Optional<SlideImage> existingImage = slideImageRepository.findByImageHash(candidate.getImageHash());
+            if (existingImage.isPresent()) {
+                // Reutilizar imagen existente
+                log.debug("Slide {}: Imagen duplicada detectada (hash: {})", slideId, candidate.getImageHash());
+                return existingImage.get();
+            }
+            SlideImage saved = slideImageRepository.save(candidate);
+            log.debug("Slide {}: Nueva imagen guardada - {} ({} bytes)",
+                slideId, saved.getOriginalFilename(), saved.getSizeBytes());
+            return saved;
+        });
+    }
+    
+    /**
+     * Extrae las imágenes Base64 sin acceder a la BD (carga masiva en paralelo).
+     * La deduplicación se resuelve contra un mapa hash → URL pública compartido entre hilos;
+     * solo las imágenes nuevas se entregan a {@code newImageSink} (con sus bytes).
+     *
+     * @param slideId ID del slide
+     * @param htmlContent Contenido HTML con posibles imágenes Base64
+     * @param baseUrl URL base para generar URLs públicas de las imágenes
+     * @param urlsByHash URLs ya asignadas por hash (concurrente)
+     * @param newImageSink Destino de las imágenes no vistas antes
+     * @return Resultado con HTML limpio e imágenes referenciadas (las reutilizadas sin bytes)
+     */
+    public ExtractionResult extractDetached(Integer slideId, String htmlContent, String baseUrl,
+                                            ConcurrentMap<String, String> urlsByHash,
+                                            Consumer<SlideImage> newImageSink) {
+        return extract(slideId, htmlContent, baseUrl, candidate -> {
+            String existingUrl = urlsByHash.putIfAbsent(candidate.getImageHash(), candidate.getPublicUrl());
+            if (existingUrl != null) {
+                return SlideImage.builder()
+                    .imageHash(candidate.getImageHash())
+                    .publicUrl(existingUrl)
+                    .build();
+            }
+            newImageSink.accept(candidate);
+            return candidate;
+        });
+    }
+    
+    /**
+     * Núcleo de la extracción: localiza las imágenes, las decodifica y reemplaza cada una
+     * por la URL de la imagen que devuelve {@code imageStore} (nueva o ya existente).
+     */
+    private ExtractionResult extract(Integer slideId, String htmlContent, String baseUrl,
+                                     UnaryOperator<SlideImage> imageStore) {
         if (htmlContent == null || htmlContent.isEmpty()) {
             return new ExtractionResult(htmlContent, Collections.emptyList(), 0, 0, 0);
         }
@@ -67,7 +120,8 @@ public class Base64ImageExtractor {
         int imageIndex = 0;
         int totalFound = 0;
         
-        Matcher matcher = BASE64_PATTERN.matcher(htmlContent);
+        // Entrada interrumpible: el watchdog de plazo por slide puede cortar el escaneo
+        Matcher matcher = BASE64_PATTERN.matcher(new InterruptibleCharSequence(htmlContent));
         
         // Recolectar todas las coincidencias primero
         List<Base64Match> matches = new ArrayList<>();
@@ -84,6 +138,9 @@ public class Base64ImageExtractor {
         
         // Procesar cada imagen
         for (Base64Match match : matches) {
+            if (Thread.currentThread().isInterrupted()) {
+                throw new CancellationException("Extracción interrumpida en slide " + slideId);
+            }
             try {
                 // Decodificar Base64
                 byte[] imageData = Base64.getDecoder().decode(match.base64Data);
@@ -91,35 +148,20 @@ public class Base64ImageExtractor {
                 // Calcular hash para deduplicación
                 String hash = calculateHash(imageData);
                 
-                // Verificar si ya existe
-                Optional<SlideImage> existingImage = slideImageRepository.findByImageHash(hash);
+                String extension = getExtension(match.mimeType);
+                String filename = String.format("slide_%d_img_%d.%s", slideId, imageIndex, extension);
+                String publicUrl = String.format("%s/api/v1/images/%d", baseUrl, slideId) + "/" + filename;
                 
-                SlideImage image;
-                if (existingImage.isPresent()) {
-                    // Reutilizar imagen existente
-                    image = existingImage.get();
-                    log.debug("Slide {}: Imagen duplicada detectada (hash: {})", slideId, hash);
-                } else {
-                    // Crear nueva imagen
-                    String extension = getExtension(match.mimeType);
-                    String filename = String.format("slide_%d_img_%d.%s", slideId, imageIndex, extension);
-                    String publicUrl = String.format("%s/api/v1/images/%d", baseUrl, slideId) + "/" + filename;
-                    
-                    image = SlideImage.builder()
-                        .slideId(slideId)
-                        .imageIndex(imageIndex)
-                        .originalFilename(filename)
-                        .mimeType(match.mimeType)
-                        .imageData(imageData)
-                        .imageHash(hash)
-                        .sizeBytes((long) imageData.length)
-                        .publicUrl(publicUrl)
-                        .build();
-                    
-                    image = slideImageRepository.save(image);
-                    log.debug("Slide {}: Nueva imagen guardada - {} ({} bytes)", 
-                        slideId, filename, imageData.length);
-                }
+                SlideImage image = imageStore.apply(SlideImage.builder()
+                    .slideId(slideId)
+                    .imageIndex(imageIndex)
+                    .originalFilename(filename)
+                    .mimeType(match.mimeType)
+                    .imageData(imageData)
+                    .imageHash(hash)
+                    .sizeBytes((long) imageData.length)
+                    .publicUrl(publicUrl)
+                    .build());
                 
                 extractedImages.add(image);
                 
@@ -147,7 +189,7 @@ public class Base64ImageExtractor {
      */
     public boolean hasBase64Images(String htmlContent) {
         if (htmlContent == null) return false;
-        return BASE64_PATTERN.matcher(htmlContent).find();
+        return BASE64_PATTERN.matcher(new InterruptibleCharSequence(htmlContent)).find();
     }
     
     /**
@@ -176,6 +218,27 @@ public class Base64ImageExtractor {
         return totalSize;
     }
     
+    /**
+     * Resume en una pasada las imágenes Base64 del contenido: número, tamaño decodificado total
+     * y el de la mayor (sin decodificarlas).
+     */
+    public Base64Summary summarize(String htmlContent) {
+        if (htmlContent == null) return new Base64Summary(0, 0, 0);
+        Matcher matcher = BASE64_PATTERN.matcher(htmlContent);
+        int images = 0;
+        long totalSize = 0;
+        long largest = 0;
+        while (matcher.find()) {
+            long size = (matcher.group(2).length() * 3L) / 4L;
+            images++;
+            totalSize += size;
+            largest = Math.max(largest, size);
+        }
+        return new Base64Summary(images, totalSize, largest);
+    }
+    
+    public record Base64Summary(int images, long bytes, long largestBytes) {}
+    
     /**
      * Calcula el hash SHA-256 de los datos de imagen.
      */
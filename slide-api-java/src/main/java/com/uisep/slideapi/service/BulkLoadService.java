@@ -0,0 +1,471 @@
+package com.uisep.slideapi.service;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.uisep.slideapi.dto.SlideDTO.BulkLoadResult;
+import com.uisep.slideapi.entity.processed.SlideImage;
+import com.uisep.slideapi.entity.replica.SlideChannelReplica;
+import com.uisep.slideapi.entity.replica.SlideSlideReplica;
+import com.uisep.slideapi.repository.replica.SlideChannelReplicaRepository;
+import com.uisep.slideapi.repository.replica.SlideSlideReplicaRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+import org.postgresql.copy.CopyOut;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static com.uisep.slideapi.service.PgCopyText.*;
+
+/**
+ * Carga masiva inicial de slide_api (entorno nuevo, recuperación ante desastres).
+ * Lee la réplica con COPY (SELECT ...) TO STDOUT, extrae las imágenes Base64 en hilos
+ * paralelos y escribe slides, imágenes y tracking con COPY FROM STDIN en tablas de
+ * staging UNLOGGED que al final sustituyen el contenido actual en una sola transacción.
+ * No pasa por JPA ni por la sincronización slide a slide.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class BulkLoadService {
+
+    private static final String SLIDES_STAGING = "slide_api.slides_bulk_staging";
+    private static final String IMAGES_STAGING = "slide_api.slide_images_bulk_staging";
+    private static final String TRACKING_STAGING = "public.slide_processing_status_bulk_staging";
+
+    private static final String SLIDE_COLUMNS = """
+        id, channel_id, channel_name, name, slide_type, html_content, content_url, youtube_id,
+        description, active, is_published, total_views, original_size_bytes, processed_size_bytes,
+        images_extracted, has_base64_original, odoo_create_date, odoo_write_date, source_fingerprint,
+        first_processed_at, last_synced_at, migration_status, file_downloaded""";
+
+    private static final String IMAGE_COLUMNS = """
+        slide_id, image_index, original_filename, mime_type, image_data, image_hash, size_bytes,
+        width, height, public_url, created_at""";
+
+    private static final String TRACKING_COLUMNS = """
+        slide_id, status, started_at, completed_at, failed_at, error_message, retry_count,
+        original_size_bytes, processed_size_bytes, images_extracted""";
+
+    // Mismo filtro de relevancia que findActiveSlideIds; jsonb como texto para reutilizar la entidad
+    private static final String REPLICA_COPY_SQL = """
+        COPY (
+            SELECT s.id, s.channel_id, s.name::text, s.slide_type, s.html_content::text,
+                   s.html_embed_code::text, s.use_html_embed, s.preconverthtml, s.url, s.bunny_url,
+                   s.external_url, s.description, s.active, s.is_published, s.total_views,
+                   s.create_date, s.write_date,
+                   """ + SlideSlideReplicaRepository.CONTENT_FINGERPRINT_SQL + """
+
+            FROM slide_slide s
+            WHERE s.active = true
+              AND s.is_published = true
+              AND EXISTS (
+                  SELECT 1 FROM slide_channel sc
+                  WHERE sc.id = s.channel_id
+                    AND sc.active = true
+                    AND sc.is_published = true
+              )
+            ORDER BY s.id
+        ) TO STDOUT""";
+
+    private static final TypeReference<Map<String, String>> TRANSLATIONS = new TypeReference<>() {};
+
+    private final SlideChannelReplicaRepository replicaChannelRepo;
+    private final Base64ImageExtractor imageExtractor;
+    private final SlideSyncService syncService;
+    private final SyncJobService syncJobService;
+    private final ObjectMapper objectMapper;
+
+    @Qualifier("replicaDataSource")
+    private final DataSource replicaDataSource;
+
+    @Qualifier("processedDataSource")
+    private final DataSource processedDataSource;
+
+    @Qualifier("processedJdbcTemplate")
+    private final JdbcTemplate processedJdbc;
+
+    @Qualifier("processedTransactionManager")
+    private final PlatformTransactionManager processedTransactionManager;
+
+    // Hilos de extracción (0 = núcleos disponibles)
+    @Value("${migration.bulk-load.workers:0}")
+    private int workers;
+
+    @Value("${api.base-url:http://localhost:8080}")
+    private String apiBaseUrl;
+
+    /**
+     * Reconstruye slides, imágenes y tracking desde cero a partir de la réplica.
+     * El contenido actual solo se reemplaza si la carga completa termina sin errores.
+     * Se ejecuta con el lock de sincronización del clúster: ningún trabajo ni worker de otro nodo
+     * puede estar reclamando o escribiendo tracking mientras se vacían y rellenan las tablas.
+     *
+     * @return Resultado, o vacío si hay otra sincronización o carga masiva activa
+     */
+    public Optional<BulkLoadResult> rebuild() {
+        return syncJobService.runExclusive(() -> {
+            try {
+                return doRebuild();
+            } catch (SQLException e) {
+                throw new IllegalStateException("Error en carga masiva: " + e.getMessage(), e);
+            }
+        });
+    }
+
+    private BulkLoadResult doRebuild() throws SQLException {
+        LocalDateTime startedAt = LocalDateTime.now();
+        long startMs = System.currentTimeMillis();
+        String syncRunId = "bulk-" + UUID.randomUUID().toString().substring(0, 8);
+        int threads = workers > 0 ? workers : Runtime.getRuntime().availableProcessors();
+
+        Map<Integer, String> channelNames = new HashMap<>();
+        for (SlideChannelReplica channel : replicaChannelRepo.findAll()) {
+            channelNames.put(channel.getId(), channel.getNameEs());
+        }
+
+        createStagingTables();
+        try {
+            return loadAndSwap(syncRunId, startedAt, startMs, threads, channelNames);
+        } catch (RuntimeException | SQLException e) {
+            // El intercambio es atómico: si falló, el contenido actual sigue intacto
+            try {
+                dropStagingTables();
+            } catch (Exception dropError) {
+                log.warn("No se pudieron eliminar las tablas de staging: {}", dropError.getMessage());
+            }
+            throw e;
+        }
+    }
+
+    private BulkLoadResult loadAndSwap(String syncRunId, LocalDateTime startedAt, long startMs, int threads,
+                                       Map<Integer, String> channelNames) throws SQLException {
+        log.info("Carga masiva {}: leyendo réplica con COPY, {} hilos de extracción", syncRunId, threads);
+
+        BulkCounters counters = new BulkCounters();
+        ConcurrentMap<String, String> urlsByHash = new ConcurrentHashMap<>();
+        AtomicReference<RuntimeException> writeError = new AtomicReference<>();
+        // Filas en vuelo acotadas: el lector no adelanta más de 2 filas por hilo
+        Semaphore inFlight = new Semaphore(threads * 2);
+        AtomicInteger threadIndex = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(threads,
+            r -> new Thread(r, "bulk-load-" + threadIndex.incrementAndGet()));
+
+        try (Connection replicaCon = replicaDataSource.getConnection();
+             CopyStream slides = CopyStream.open(processedDataSource,
+                 "COPY " + SLIDES_STAGING + " (" + SLIDE_COLUMNS + ") FROM STDIN");
+             CopyStream images = CopyStream.open(processedDataSource,
+                 "COPY " + IMAGES_STAGING + " (" + IMAGE_COLUMNS + ") FROM STDIN");
+             CopyStream tracking = CopyStream.open(processedDataSource,
+                 "COPY " + TRACKING_STAGING + " (" + TRACKING_COLUMNS + ") FROM STDIN")) {
+
+            CopyOut copyOut = replicaCon.unwrap(PGConnection.class).getCopyAPI().copyOut(REPLICA_COPY_SQL);
+            try {
+                byte[] row;
+                while (writeError.get() == null && (row = copyOut.readFromCopy()) != null) {
+                    inFlight.acquireUninterruptibly();
+                    byte[] data = row;
+                    pool.execute(() -> {
+                        try {
+                            loadRow(data, channelNames, urlsByHash, slides, images, tracking, counters);
+                        } catch (RuntimeException e) {
+                            writeError.compareAndSet(null, e);
+                        } finally {
+                            inFlight.release();
+                        }
+                    });
+                    if (counters.read.incrementAndGet() % 1000 == 0) {
+                        log.info("Carga masiva: {} slides leídos, {} cargados, {} imágenes",
+                            counters.read.get(), counters.loaded.get(), counters.images.get());
+                    }
+                }
+            } finally {
+                if (copyOut.isActive()) copyOut.cancelCopy();
+                pool.shutdown();
+                awaitTermination(pool);
+            }
+
+            if (writeError.get() != null) {
+                throw writeError.get();
+            }
+            slides.end();
+            images.end();
+            tracking.end();
+        } finally {
+            pool.shutdownNow();
+        }
+
+        swapStagingTables(syncRunId);
+        int channelsProcessed = syncService.syncChannels();
+
+        BulkLoadResult result = BulkLoadResult.builder()
+            .syncRunId(syncRunId)
+            .startedAt(startedAt)
+            .completedAt(LocalDateTime.now())
+            .durationMs(System.currentTimeMillis() - startMs)
+            .workers(threads)
+            .slidesLoaded(counters.loaded.get())
+            .slidesFailed(counters.failed.get())
+            .imagesLoaded(counters.images.get())
+            .channelsProcessed(channelsProcessed)
+            .totalOriginalSize(counters.originalBytes.get())
+            .totalProcessedSize(counters.processedBytes.get())
+            .build();
+        log.info("Carga masiva {} completada: {} slides, {} fallidos, {} imágenes en {} ms",
+            syncRunId, result.getSlidesLoaded(), result.getSlidesFailed(),
+            result.getImagesLoaded(), result.getDurationMs());
+        return result;
+    }
+
+    /**
+     * Procesa una fila de la réplica: resuelve contenido y URL igual que la sincronización
+     * slide a slide, extrae imágenes y escribe las filas en los COPY de staging.
+     * Un error de procesamiento deja el slide FAILED en el tracking; un error de COPY aborta la carga.
+     */
+    private void loadRow(byte[] data, Map<Integer, String> channelNames, ConcurrentMap<String, String> urlsByHash,
+                         CopyStream slides, CopyStream images, CopyStream tracking, BulkCounters counters) {
+        List<String> f = parseRow(data);
+        Integer slideId = toInteger(f.get(0));
+        LocalDateTime startedAt = LocalDateTime.now();
+        try {
+            SlideSlideReplica replica = toReplica(f);
+            String slideType = replica.getSlideType();
+
+            String htmlContent = "article".equals(slideType) || "certification".equals(slideType)
+                ? replica.resolveHtmlContent()
+                : null;
+            // Los archivos se descargan de forma diferida en FileController
+            String contentUrl = SlideSyncService.isFileType(slideType)
+                ? SlideSyncService.FILES_BASE_URL + slideId
+                : SlideSyncService.resolveContentUrl(replica);
+
+            long originalSize = htmlContent != null ? htmlContent.length() : 0;
+            String processedHtml = htmlContent;
+            int imagesExtracted = 0;
+            if (imageExtractor.hasBase64Images(htmlContent)) {
+                Base64ImageExtractor.ExtractionResult extraction = imageExtractor.extractDetached(
+                    slideId, htmlContent, apiBaseUrl, urlsByHash, image -> {
+                        images.write(imageRow(image));
+                        counters.images.incrementAndGet();
+                    });
+                processedHtml = extraction.cleanedHtml();
+                imagesExtracted = extraction.extractedImages().size();
+            }
+            long processedSize = processedHtml != null ? processedHtml.length() : 0;
+
+            boolean hasContent = processedHtml != null && !processedHtml.isEmpty();
+            boolean hasUrl = contentUrl != null && !contentUrl.isEmpty();
+            String status = imagesExtracted > 0 ? "COMPLETED"
+                : (hasContent || hasUrl) ? "NO_MIGRATION_NEEDED"
+                : "PENDING";
+
+            LocalDateTime now = LocalDateTime.now();
+            slides.write(formatRow(
+                slideId, replica.getChannelId(), channelNames.get(replica.getChannelId()), replica.getNameEs(),
+                slideType, processedHtml, contentUrl, SlideSyncService.resolveYoutubeId(replica),
+                replica.getDescription(), replica.getActive(), replica.getIsPublished(), replica.getTotalViews(),
+                originalSize, processedSize, imagesExtracted, replica.hasBase64Images(),
+                replica.getCreateDate(), replica.getWriteDate(), f.get(17),
+                now, now, status, false));
+            tracking.write(formatRow(
+                slideId, "COMPLETED", startedAt, now, null, null, 0,
+                originalSize, processedSize, imagesExtracted));
+
+            counters.loaded.incrementAndGet();
+            counters.originalBytes.addAndGet(originalSize);
+            counters.processedBytes.addAndGet(processedSize);
+        } catch (CopyWriteException e) {
+            throw e;
+        } catch (Exception | OutOfMemoryError e) {
+            log.error("Carga masiva: error procesando slide {}: {}", slideId, e.getMessage());
+            String message = e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+            tracking.write(formatRow(
+                slideId, "FAILED", startedAt, null, LocalDateTime.now(),
+                message.substring(0, Math.min(1999, message.length())), 1, null, null, null));
+            counters.failed.incrementAndGet();
+        }
+    }
+
+    private SlideSlideReplica toReplica(List<String> f) throws Exception {
+        return SlideSlideReplica.builder()
+            .id(toInteger(f.get(0)))
+            .channelId(toInteger(f.get(1)))
+            .name(readTranslations(f.get(2)))
+            .slideType(f.get(3))
+            .htmlContent(readTranslations(f.get(4)))
+            .htmlEmbedCode(readTranslations(f.get(5)))
+            .useHtmlEmbed(toBoolean(f.get(6)))
+            .preconverthtml(f.get(7))
+            .url(f.get(8))
+            .bunnyUrl(f.get(9))
+            .externalUrl(f.get(10))
+            .description(f.get(11))
+            .active(toBoolean(f.get(12)))
+            .isPublished(toBoolean(f.get(13)))
+            .totalViews(toInteger(f.get(14)))
+            .createDate(toLocalDateTime(f.get(15)))
+            .writeDate(toLocalDateTime(f.get(16)))
+            .build();
+    }
+
+    private Map<String, String> readTranslations(String json) throws Exception {
+        return json != null ? objectMapper.readValue(json, TRANSLATIONS) : null;
+    }
+
+    private static byte[] imageRow(SlideImage image) {
+        return formatRow(
+            image.getSlideId(), image.getImageIndex(), image.getOriginalFilename(), image.getMimeType(),
+            image.getImageData(), image.getImageHash(), image.getSizeBytes(),
+            image.getWidth(), image.getHeight(), image.getPublicUrl(), LocalDateTime.now());
+    }
+
+    /**
+     * Tablas de staging UNLOGGED con las mismas columnas que las definitivas (sin índices
+     * ni restricciones: la carga con COPY no paga su mantenimiento).
+     */
+    private void createStagingTables() {
+        dropStagingTables();
+        processedJdbc.execute("CREATE UNLOGGED TABLE " + SLIDES_STAGING
+            + " AS SELECT * FROM slide_api.slides WITH NO DATA");
+        processedJdbc.execute("CREATE UNLOGGED TABLE " + IMAGES_STAGING
+            + " AS SELECT " + IMAGE_COLUMNS + " FROM slide_api.slide_images WITH NO DATA");
+        processedJdbc.execute("CREATE UNLOGGED TABLE " + TRACKING_STAGING
+            + " AS SELECT * FROM public.slide_processing_status WITH NO DATA");
+    }
+
+    private void dropStagingTables() {
+        processedJdbc.execute("DROP TABLE IF EXISTS " + SLIDES_STAGING);
+        processedJdbc.execute("DROP TABLE IF EXISTS " + IMAGES_STAGING);
+        processedJdbc.execute("DROP TABLE IF EXISTS " + TRACKING_STAGING);
+    }
+
+    /**
+     * Sustituye el contenido de slides, imágenes y tracking por el de staging en una transacción.
+     * Se vacían y rellenan las tablas definitivas en lugar de renombrar las de staging para
+     * conservar índices, secuencias, permisos y políticas definidos sobre ellas.
+     */
+    private void swapStagingTables(String syncRunId) {
+        TransactionTemplate tx = new TransactionTemplate(processedTransactionManager);
+        tx.executeWithoutResult(status -> {
+            processedJdbc.execute("TRUNCATE slide_api.slide_images, slide_api.slides, public.slide_processing_status");
+            processedJdbc.execute("INSERT INTO slide_api.slides SELECT * FROM " + SLIDES_STAGING);
+            processedJdbc.execute("INSERT INTO slide_api.slide_images (" + IMAGE_COLUMNS + ") SELECT "
+                + IMAGE_COLUMNS + " FROM " + IMAGES_STAGING);
+            processedJdbc.execute("INSERT INTO public.slide_processing_status SELECT * FROM " + TRACKING_STAGING);
+            // Log de sincronización derivado de staging: una fila CREATED por slide cargado, más el resumen de la ejecución
+            processedJdbc.update(SyncLogWriter.withRunSummary("""
+                INSERT INTO public.slide_sync_log
+                    (sync_run_id, synced_at, slide_id, slide_name, action, slide_type, channel_id,
+                     channel_name, odoo_write_date, original_size_bytes, processed_size_bytes,
+                     images_extracted, message)
+                SELECT ?, now(), id, name, 'CREATED', slide_type, channel_id, channel_name,
+                       odoo_write_date, original_size_bytes, processed_size_bytes, images_extracted,
+                       'Carga masiva inicial'
+                FROM %s
+                """.formatted(SLIDES_STAGING)), syncRunId);
+        });
+        dropStagingTables();
+        processedJdbc.execute("ANALYZE slide_api.slides");
+        processedJdbc.execute("ANALYZE slide_api.slide_images");
+        processedJdbc.execute("ANALYZE public.slide_processing_status");
+    }
+
+    private static void awaitTermination(ExecutorService pool) {
+        try {
+            while (!pool.awaitTermination(1, TimeUnit.MINUTES)) {
+                log.info("Carga masiva: esperando a los hilos de extracción...");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Carga masiva interrumpida", e);
+        }
+    }
+
+    /**
+     * COPY FROM STDIN sobre una conexión dedicada; las escrituras de los hilos se serializan
+     * por fila completa.
+     */
+    private static final class CopyStream implements AutoCloseable {
+        private final Connection connection;
+        private final CopyIn copyIn;
+        private boolean ended;
+
+        private CopyStream(Connection connection, CopyIn copyIn) {
+            this.connection = connection;
+            this.copyIn = copyIn;
+        }
+
+        static CopyStream open(DataSource dataSource, String sql) throws SQLException {
+            Connection connection = dataSource.getConnection();
+            try {
+                return new CopyStream(connection, connection.unwrap(PGConnection.class).getCopyAPI().copyIn(sql));
+            } catch (SQLException e) {
+                connection.close();
+                throw e;
+            }
+        }
+
+        synchronized void write(byte[] row) {
+            try {
+                copyIn.writeToCopy(row, 0, row.length);
+            } catch (SQLException e) {
+                throw new CopyWriteException(e);
+            }
+        }
+
+        synchronized long end() throws SQLException {
+            long rows = copyIn.endCopy();
+            ended = true;
+            if (!connection.getAutoCommit()) connection.commit();
+            return rows;
+        }
+
+        @Override
+        public void close() throws SQLException {
+            try {
+                if (!ended && copyIn.isActive()) copyIn.cancelCopy();
+            } finally {
+                connection.close();
+            }
+        }
+    }
+
+    private static final class CopyWriteException extends RuntimeException {
+        CopyWriteException(SQLException cause) {
+            super("Error escribiendo en COPY de staging: " + cause.getMessage(), cause);
+        }
+    }
+
+    private static final class BulkCounters {
+        final AtomicInteger read = new AtomicInteger();
+        final AtomicInteger loaded = new AtomicInteger();
+        final AtomicInteger failed = new AtomicInteger();
+        final AtomicInteger images = new AtomicInteger();
+        final AtomicLong originalBytes = new AtomicLong();
+        final AtomicLong processedBytes = new AtomicLong();
+    }
+}
@@ -0,0 +1,148 @@
+package com.uisep.slideapi.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Escritor masivo genérico hacia la BD procesada.
+ * Lee la consulta de origen con cursor y vuelca las filas en la tabla destino por lotes de
+ * {@code INSERT ... SELECT FROM unnest(...) ON CONFLICT DO UPDATE} (una sentencia por lote, sin el
+ * SELECT previo que hace Hibernate con ids asignados). Solo reescribe las filas cuyo contenido cambió
+ * y, al terminar, elimina las filas del destino cuya clave ya no devolvió el origen.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class BulkUpsertWriter {
+
+    // Filas por viaje del cursor
+    private static final int FETCH_SIZE = 2000;
+
+    @Qualifier("processedJdbcTemplate")
+    private final JdbcTemplate processedJdbc;
+
+    /**
+     * Columna destino con el tipo SQL de su array ({@code integer}, {@code text}, {@code timestamp}...).
+     * Las columnas con {@code compared = false} (p.ej. fechas de sincronización) se escriben pero no
+     * cuentan como cambio.
+     */
+    public record Column(String name, String sqlType, boolean compared) {
+        public static Column of(String name, String sqlType) {
+            return new Column(name, sqlType, true);
+        }
+
+        public static Column touch(String name, String sqlType) {
+            return new Column(name, sqlType, false);
+        }
+    }
+
+    /**
+     * Tabla destino; la primera columna es la clave del ON CONFLICT.
+     */
+    public record Target(String table, List<Column> columns, int batchSize) {}
+
+    /**
+     * Consulta de origen: cada fila se traduce a los valores de las columnas destino, en orden.
+     */
+    public record Source(JdbcTemplate jdbc, PlatformTransactionManager transactionManager,
+                         String sql, RowMapper<Object[]> mapper) {}
+
+    public record Result(long scanned, long written, long deleted) {}
+
+    /**
+     * Sincroniza la tabla destino con el origen en una pasada.
+     * Si el origen no devuelve filas no se borra nada (origen vacío o inaccesible).
+     */
+    public Result sync(Source source, Target target) {
+        String upsertSql = upsertSql(target);
+        Batch batch = new Batch(target, upsertSql);
+
+        TransactionTemplate sourceTx = new TransactionTemplate(source.transactionManager());
+        sourceTx.setReadOnly(true);
+        sourceTx.executeWithoutResult(status -> source.jdbc().query(con -> {
+            PreparedStatement ps = con.prepareStatement(source.sql());
+            ps.setFetchSize(FETCH_SIZE);
+            return ps;
+        }, (RowCallbackHandler) rs -> batch.add(source.mapper().mapRow(rs, 0))));
+        batch.flush();
+
+        long deleted = 0;
+        if (!batch.keys.isEmpty()) {
+            Column key = target.columns().get(0);
+            deleted = processedJdbc.update(con -> {
+                PreparedStatement ps = con.prepareStatement("DELETE FROM " + target.table()
+                    + " WHERE NOT (" + key.name() + " = ANY(?::" + key.sqlType() + "[]))");
+                ps.setArray(1, con.createArrayOf(key.sqlType(), batch.keys.toArray()));
+                return ps;
+            });
+        }
+
+        log.debug("Upsert masivo en {}: {} leídas, {} escritas, {} eliminadas",
+            target.table(), batch.keys.size(), batch.written, deleted);
+        return new Result(batch.keys.size(), batch.written, deleted);
+    }
+
+    private static String upsertSql(Target target) {
+        List<Column> columns = target.columns();
+        String names = columns.stream().map(Column::name).collect(Collectors.joining(", "));
+        String arrays = columns.stream().map(c -> "?::" + c.sqlType() + "[]").collect(Collectors.joining(", "));
+        String updates = columns.stream().skip(1)
+            .map(c -> c.name() + " = EXCLUDED." + c.name()).collect(Collectors.joining(", "));
+        List<Column> compared = columns.stream().skip(1).filter(Column::compared).toList();
+        String current = compared.stream().map(c -> "t." + c.name()).collect(Collectors.joining(", "));
+        String incoming = compared.stream().map(c -> "EXCLUDED." + c.name()).collect(Collectors.joining(", "));
+        return "INSERT INTO " + target.table() + " AS t (" + names + ")"
+            + " SELECT " + names + " FROM unnest(" + arrays + ") AS v(" + names + ")"
+            + " ON CONFLICT (" + columns.get(0).name() + ") DO UPDATE SET " + updates
+            + (compared.isEmpty() ? "" : " WHERE ROW(" + current + ") IS DISTINCT FROM ROW(" + incoming + ")");
+    }
+
+    /**
+     * Valores pendientes por columna y claves vistas en la pasada.
+     */
+    private final class Batch {
+        private final Target target;
+        private final String upsertSql;
+        private final List<List<Object>> values = new ArrayList<>();
+        private final List<Object> keys = new ArrayList<>();
+        private long written;
+
+        Batch(Target target, String upsertSql) {
+            this.target = target;
+            this.upsertSql = upsertSql;
+            target.columns().forEach(c -> values.add(new ArrayList<>()));
+        }
+
+        void add(Object[] row) {
+            for (int i = 0; i < row.length; i++) {
+                values.get(i).add(row[i]);
+            }
+            keys.add(row[0]);
+            if (values.get(0).size() >= target.batchSize()) flush();
+        }
+
+        void flush() {
+            if (values.get(0).isEmpty()) return;
+            written += processedJdbc.update(con -> {
+                PreparedStatement ps = con.prepareStatement(upsertSql);
+                for (int i = 0; i < values.size(); i++) {
+                    ps.setArray(i + 1, con.createArrayOf(target.columns().get(i).sqlType(), values.get(i).toArray()));
+                }
+                return ps;
+            });
+            values.forEach(List::clear);
+        }
+    }
+}
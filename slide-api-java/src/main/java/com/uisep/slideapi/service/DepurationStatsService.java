@@ -0,0 +1,147 @@
+package com.uisep.slideapi.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Contadores de las estadísticas de depuración (public.depuration_stats, migración V011).
+ * Los mantienen triggers de slide_api.slides y public.slide_base64_inventory en la misma
+ * transacción que escribe cada sentencia: cada una deja su delta en public.depuration_stats_delta
+ * y aquí se acumulan periódicamente en la fila única. Leerlos es una consulta sobre esa fila
+ * más los pocos deltas aún sin acumular.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class DepurationStatsService {
+
+    private static final String COUNTER_COLUMNS = """
+        replica_slides, replica_active_slides, replica_inactive_bytes, base64_slides,
+        base64_pending_slides, base64_pending_bytes, completed_slides, original_bytes,
+        processed_bytes, images_extracted""";
+
+    private static final String READ_SQL = """
+        SELECT s.replica_slides + d.replica_slides,
+               s.replica_active_slides + d.replica_active_slides,
+               s.replica_inactive_bytes + d.replica_inactive_bytes,
+               s.base64_slides + d.base64_slides,
+               s.base64_pending_slides + d.base64_pending_slides,
+               s.base64_pending_bytes + d.base64_pending_bytes,
+               s.completed_slides + d.completed_slides,
+               s.original_bytes + d.original_bytes,
+               s.processed_bytes + d.processed_bytes,
+               s.images_extracted + d.images_extracted,
+               s.updated_at, s.recomputed_at
+        FROM public.depuration_stats s,
+             (SELECT COALESCE(SUM(replica_slides), 0) AS replica_slides,
+                     COALESCE(SUM(replica_active_slides), 0) AS replica_active_slides,
+                     COALESCE(SUM(replica_inactive_bytes), 0) AS replica_inactive_bytes,
+                     COALESCE(SUM(base64_slides), 0) AS base64_slides,
+                     COALESCE(SUM(base64_pending_slides), 0) AS base64_pending_slides,
+                     COALESCE(SUM(base64_pending_bytes), 0) AS base64_pending_bytes,
+                     COALESCE(SUM(completed_slides), 0) AS completed_slides,
+                     COALESCE(SUM(original_bytes), 0) AS original_bytes,
+                     COALESCE(SUM(processed_bytes), 0) AS processed_bytes,
+                     COALESCE(SUM(images_extracted), 0) AS images_extracted
+              FROM public.depuration_stats_delta) d
+        WHERE s.id = 1
+        """;
+
+    // Los deltas borrados son exactamente los que se suman (misma sentencia)
+    private static final String FOLD_SQL = """
+        WITH folded AS (
+            DELETE FROM public.depuration_stats_delta RETURNING %1$s
+        )
+        UPDATE public.depuration_stats s SET
+            replica_slides = s.replica_slides + t.replica_slides,
+            replica_active_slides = s.replica_active_slides + t.replica_active_slides,
+            replica_inactive_bytes = s.replica_inactive_bytes + t.replica_inactive_bytes,
+            base64_slides = s.base64_slides + t.base64_slides,
+            base64_pending_slides = s.base64_pending_slides + t.base64_pending_slides,
+            base64_pending_bytes = s.base64_pending_bytes + t.base64_pending_bytes,
+            completed_slides = s.completed_slides + t.completed_slides,
+            original_bytes = s.original_bytes + t.original_bytes,
+            processed_bytes = s.processed_bytes + t.processed_bytes,
+            images_extracted = s.images_extracted + t.images_extracted,
+            updated_at = now()
+        FROM (SELECT COUNT(*) AS deltas,
+                     COALESCE(SUM(replica_slides), 0) AS replica_slides,
+                     COALESCE(SUM(replica_active_slides), 0) AS replica_active_slides,
+                     COALESCE(SUM(replica_inactive_bytes), 0) AS replica_inactive_bytes,
+                     COALESCE(SUM(base64_slides), 0) AS base64_slides,
+                     COALESCE(SUM(base64_pending_slides), 0) AS base64_pending_slides,
+                     COALESCE(SUM(base64_pending_bytes), 0) AS base64_pending_bytes,
+                     COALESCE(SUM(completed_slides), 0) AS completed_slides,
+                     COALESCE(SUM(original_bytes), 0) AS original_bytes,
+                     COALESCE(SUM(processed_bytes), 0) AS processed_bytes,
+                     COALESCE(SUM(images_extracted), 0) AS images_extracted
+              FROM folded) t
+        WHERE s.id = 1 AND t.deltas > 0
+        """.formatted(COUNTER_COLUMNS);
+
+    @Qualifier("processedJdbcTemplate")
+    private final JdbcTemplate processedJdbc;
+
+    /**
+     * Valores de los contadores.
+     * Réplica (según el inventario Base64): slides, activos, bytes de html_content de los inactivos,
+     * activos con Base64 y los pendientes de migrar con sus bytes. Procesados: slides COMPLETED
+     * con sus tamaños original y procesado e imágenes extraídas.
+     */
+    public record Counters(long replicaSlides, long replicaActiveSlides, long replicaInactiveBytes,
+                           long base64Slides, long base64PendingSlides, long base64PendingBytes,
+                           long completedSlides, long originalBytes, long processedBytes,
+                           long imagesExtracted, LocalDateTime updatedAt, LocalDateTime recomputedAt) {}
+
+    /**
+     * Lee los contadores; si aún no existe la fila los calcula por primera vez.
+     */
+    public Counters read() {
+        List<Counters> rows = processedJdbc.query(READ_SQL, (rs, rowNum) -> new Counters(
+            rs.getLong(1), rs.getLong(2), rs.getLong(3), rs.getLong(4), rs.getLong(5),
+            rs.getLong(6), rs.getLong(7), rs.getLong(8), rs.getLong(9), rs.getLong(10),
+            toLocalDateTime(rs.getTimestamp(11)), toLocalDateTime(rs.getTimestamp(12))));
+        if (!rows.isEmpty()) return rows.get(0);
+        recompute();
+        return read();
+    }
+
+    /**
+     * Recalcula todos los contadores desde las tablas (inventario Base64 y slides procesados)
+     * en una sola instantánea y sustituye los acumulados.
+     *
+     * @return true si los contadores coincidían con el recálculo
+     */
+    public boolean recompute() {
+        Boolean matched = processedJdbc.queryForObject("SELECT public.recompute_depuration_stats()", Boolean.class);
+        if (!Boolean.TRUE.equals(matched)) {
+            log.warn("Estadísticas de depuración: los contadores no coincidían con el recálculo completo; corregidos");
+        }
+        return Boolean.TRUE.equals(matched);
+    }
+
+    /**
+     * Acumula los deltas pendientes en la fila de contadores.
+     */
+    @Scheduled(fixedDelayString = "${migration.stats.fold-interval-ms:30000}",
+               initialDelayString = "${migration.stats.fold-interval-ms:30000}")
+    void fold() {
+        try {
+            processedJdbc.update(FOLD_SQL);
+        } catch (Exception e) {
+            log.warn("No se pudieron acumular los deltas de las estadísticas de depuración: {}", e.getMessage());
+        }
+    }
+
+    private static LocalDateTime toLocalDateTime(Timestamp timestamp) {
+        return timestamp != null ? timestamp.toLocalDateTime() : null;
+    }
+}
@@ -0,0 +1,152 @@
+package com.uisep.slideapi.service;
+
+import com.uisep.slideapi.dto.SlideDTO.SyncResult;
+import com.uisep.slideapi.entity.processed.SyncWatermark;
+import com.uisep.slideapi.repository.processed.SyncWatermarkRepository;
+import com.uisep.slideapi.repository.replica.SlideSlideReplicaRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Sincronización incremental dirigida por cambios.
+ * Consulta cada minuto max(write_date) en la réplica (consulta barata) y solo cuando
+ * supera la marca de agua persistida procesa los slides modificados desde entonces.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class IncrementalSyncService {
+
+    static final String SLIDES_WATERMARK = "slide_slide.write_date";
+
+    private final SlideSlideReplicaRepository replicaSlideRepo;
+    private final SyncWatermarkRepository watermarkRepo;
+    private final SlideSyncService syncService;
+    private final SlideClaimService claimService;
+    private final SyncJobService syncJobService;
+
+    @Qualifier("replicaJdbcTemplate")
+    private final JdbcTemplate replicaJdbc;
+
+    @Value("${migration.sync.incremental.enabled:true}")
+    private boolean enabled;
+
+    // Odoo fija write_date al inicio de la transacción: una fila puede hacerse visible en la
+    // réplica con write_date menor que el máximo ya observado. El solape re-lee esa ventana;
+    // los slides sin cambios se resuelven por la ruta rápida de huella (SKIPPED).
+    @Value("${migration.sync.incremental.overlap-seconds:300}")
+    private long overlapSeconds;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+    // La sincronización puede durar minutos: fuera del hilo único de scheduling, que también
+    // muestrea el throttle de la réplica y emite el progreso por SSE
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "incremental-sync");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Sondeo periódico de cambios en la réplica.
+     * Intervalo definido por migration.sync.incremental.poll-interval-ms (por defecto 60 s).
+     * Si la ejecución anterior sigue en curso se omite este sondeo.
+     */
+    @Scheduled(fixedDelayString = "${migration.sync.incremental.poll-interval-ms:60000}",
+               initialDelayString = "${migration.sync.incremental.initial-delay-ms:60000}")
+    public void pollForChanges() {
+        if (!enabled || !running.compareAndSet(false, true)) return;
+        try {
+            executor.execute(this::pollInBackground);
+        } catch (RejectedExecutionException e) {
+            running.set(false);
+        }
+    }
+
+    private void pollInBackground() {
+        try {
+            // Con una sincronización completa en curso (lock tomado) se omite: el siguiente sondeo lo recoge
+            syncJobService.runExclusive(this::syncIfChanged).ifPresent(result ->
+                log.info("Sincronización incremental: {} slides procesados, {} creados, {} actualizados, {} fallidos",
+                    result.getSlidesProcessed(), result.getSlidesCreated(),
+                    result.getSlidesUpdated(), result.getSlidesFailed()));
+        } catch (Exception e) {
+            log.error("Error en sincronización incremental", e);
+        } finally {
+            running.set(false);
+        }
+    }
+
+    /**
+     * Ejecuta una sincronización incremental si max(write_date) en la réplica superó la marca de agua.
+     *
+     * @return Resultado de la sincronización, o null si no hubo cambios
+     */
+    public SyncResult syncIfChanged() {
+        Timestamp replicaMaxTs = replicaJdbc.queryForObject(
+            "SELECT MAX(write_date) FROM slide_slide", Timestamp.class);
+        if (replicaMaxTs == null) return null;
+        LocalDateTime replicaMax = replicaMaxTs.toLocalDateTime();
+
+        SyncWatermark watermark = watermarkRepo.findById(SLIDES_WATERMARK).orElse(null);
+        if (watermark == null || watermark.getWatermark() == null) {
+            // Primera ejecución: la línea base la establece la sincronización completa
+            watermarkRepo.save(SyncWatermark.builder()
+                .name(SLIDES_WATERMARK)
+                .watermark(replicaMax)
+                .build());
+            log.info("Marca de agua incremental inicializada en {}", replicaMax);
+            return null;
+        }
+
+        if (!replicaMax.isAfter(watermark.getWatermark())) {
+            return null;
+        }
+
+        LocalDateTime since = watermark.getWatermark().minusSeconds(overlapSeconds);
+        List<Integer> changedIds = replicaSlideRepo.findActiveSlideIdsChangedSince(since);
+        log.info("Cambios en réplica: write_date {} > marca {} → {} slides a sincronizar",
+            replicaMax, watermark.getWatermark(), changedIds.size());
+
+        SyncResult result = null;
+        if (!changedIds.isEmpty()) {
+            // Dejar constancia en el tracking: si el proceso se interrumpe, la sincronización completa los recoge
+            syncService.markPending(changedIds);
+            String syncRunId = "incremental-" + UUID.randomUUID().toString().substring(0, 8);
+            // Reclamar: un worker de apoyo o la sincronización de un canal no toman este lock,
+            // así que solo se procesan los slides reclamados aquí
+            try (SlideClaimService.Worker worker = claimService.openWorker()) {
+                List<Integer> claimed = worker.claimIds(changedIds);
+                if (claimed.size() < changedIds.size()) {
+                    log.info("Sincronización incremental: {} slides en proceso por otro worker, omitidos",
+                        changedIds.size() - claimed.size());
+                }
+                result = syncService.syncSlideIds(claimed, syncRunId);
+            }
+        }
+
+        // Los fallidos quedan FAILED en el tracking y se reintentan en la sincronización completa
+        watermark.setWatermark(replicaMax);
+        watermarkRepo.save(watermark);
+        return result;
+    }
+}
@@ -0,0 +1,40 @@
+package com.uisep.slideapi.service;
+
+import java.util.concurrent.CancellationException;
+
+/**
+ * CharSequence que aborta cuando el hilo está interrumpido.
+ * java.util.regex no atiende interrupciones: envolver la entrada del Matcher con esta clase
+ * permite que el watchdog corte un escaneo sobre un HTML de decenas de MB.
+ */
+final class InterruptibleCharSequence implements CharSequence {
+
+    private final CharSequence inner;
+
+    InterruptibleCharSequence(CharSequence inner) {
+        this.inner = inner;
+    }
+
+    @Override
+    public char charAt(int index) {
+        if (Thread.currentThread().isInterrupted()) {
+            throw new CancellationException("Escaneo de HTML interrumpido");
+        }
+        return inner.charAt(index);
+    }
+
+    @Override
+    public int length() {
+        return inner.length();
+    }
+
+    @Override
+    public CharSequence subSequence(int start, int end) {
+        return new InterruptibleCharSequence(inner.subSequence(start, end));
+    }
+
+    @Override
+    public String toString() {
+        return inner.toString();
+    }
+}
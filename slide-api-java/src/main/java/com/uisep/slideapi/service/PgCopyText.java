@@ -0,0 +1,122 @@
+package com.uisep.slideapi.service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+
+/**
+ * Codificación del formato texto de COPY de PostgreSQL (delimitador tab, NULL como \N).
+ * Usado por la carga masiva para leer la réplica con COPY TO STDOUT y escribir
+ * las tablas de staging con COPY FROM STDIN.
+ */
+final class PgCopyText {
+
+    private PgCopyText() {}
+
+    /**
+     * Decodifica una fila tal como la entrega COPY TO STDOUT (un mensaje por fila).
+     * Los campos NULL se devuelven como null.
+     */
+    static List<String> parseRow(byte[] data) {
+        String line = new String(data, StandardCharsets.UTF_8);
+        int end = line.length();
+        if (end > 0 && line.charAt(end - 1) == '\n') end--;
+
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean isNull = false;
+        for (int i = 0; i < end; i++) {
+            char c = line.charAt(i);
+            if (c == '\t') {
+                fields.add(isNull ? null : field.toString());
+                field.setLength(0);
+                isNull = false;
+            } else if (c == '\\' && i + 1 < end) {
+                char next = line.charAt(++i);
+                switch (next) {
+                    case 'N' -> isNull = field.isEmpty();
+                    case 'b' -> field.append('\b');
+                    case 'f' -> field.append('\f');
+                    case 'n' -> field.append('\n');
+                    case 'r' -> field.append('\r');
+                    case 't' -> field.append('\t');
+                    case 'v' -> field.append('\u000B');
+                    case 'x' -> {
+                        int j = i + 1;
+                        while (j < end && j < i + 3 && Character.digit(line.charAt(j), 16) >= 0) j++;
+                        field.append((char) Integer.parseInt(line.substring(i + 1, j), 16));
+                        i = j - 1;
+                    }
+                    default -> {
+                        if (next >= '0' && next <= '7') {
+                            int j = i;
+                            while (j < end && j < i + 3 && line.charAt(j) >= '0' && line.charAt(j) <= '7') j++;
+                            field.append((char) Integer.parseInt(line.substring(i, j), 8));
+                            i = j - 1;
+                        } else {
+                            field.append(next);
+                        }
+                    }
+                }
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(isNull ? null : field.toString());
+        return fields;
+    }
+
+    /**
+     * Codifica una fila para COPY FROM STDIN. Tipos soportados: String, Number, Boolean,
+     * LocalDateTime y byte[] (bytea en formato hex).
+     */
+    static byte[] formatRow(Object... values) {
+        StringBuilder row = new StringBuilder();
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) row.append('\t');
+            Object value = values[i];
+            if (value == null) {
+                row.append("\\N");
+            } else if (value instanceof Boolean b) {
+                row.append(b ? 't' : 'f');
+            } else if (value instanceof byte[] bytes) {
+                // bytea hex: \x... con la barra escapada para COPY
+                row.append("\\\\x").append(HexFormat.of().formatHex(bytes));
+            } else if (value instanceof LocalDateTime ldt) {
+                row.append(ldt);
+            } else {
+                appendEscaped(row, value.toString());
+            }
+        }
+        row.append('\n');
+        return row.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static void appendEscaped(StringBuilder out, String text) {
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            switch (c) {
+                case '\\' -> out.append("\\\\");
+                case '\n' -> out.append("\\n");
+                case '\r' -> out.append("\\r");
+                case '\t' -> out.append("\\t");
+                default -> out.append(c);
+            }
+        }
+    }
+
+    static Integer toInteger(String value) {
+        return value != null ? Integer.valueOf(value) : null;
+    }
+
+    static Boolean toBoolean(String value) {
+        return value != null ? "t".equals(value) : null;
+    }
+
+    static LocalDateTime toLocalDateTime(String value) {
+        // El servidor emite "yyyy-MM-dd HH:mm:ss[.ffffff]"
+        return value != null ? LocalDateTime.parse(value.replace(' ', 'T')) : null;
+    }
+}
@@ -0,0 +1,286 @@
+package com.uisep.slideapi.service;
+
+import com.uisep.slideapi.dto.SlideDTO.ChannelSizeStats;
+import com.uisep.slideapi.dto.SlideDTO.ReplicaScanStats;
+import com.uisep.slideapi.dto.SlideDTO.SlideSizeStats;
+import com.uisep.slideapi.entity.replica.SlideChannelReplica;
+import com.uisep.slideapi.repository.replica.SlideChannelReplicaRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+
+import java.sql.PreparedStatement;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Estadísticas de tamaño de la réplica (Base64 pendiente, tamaño por canal, slides más pesados)
+ * con un escaneo paralelo de slide_slide por rangos de id.
+ * Cada rango calcula en una pasada sus agregados parciales por canal y su top local; los parciales
+ * se suman y el resultado queda en caché con su fecha de cálculo. Las conexiones de cada rango
+ * salen del DataSource de réplica, que las reparte entre las réplicas configuradas.
+ * Un solo escaneo a la vez: las peticiones concurrentes esperan el mismo resultado.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class ReplicaScanService {
+
+    // Mismo criterio que SlideSlideReplicaRepository.countSlidesWithBase64
+    private static final String BASE64_FILTER =
+        "s.active = true AND CAST(s.html_content AS text) LIKE '%data:image%base64%'";
+
+    private static final String RANGE_AGGREGATES_SQL = """
+        SELECT s.channel_id,
+               COUNT(*),
+               COALESCE(SUM(pg_column_size(s.html_content)), 0),
+               COUNT(*) FILTER (WHERE %1$s),
+               COALESCE(SUM(pg_column_size(s.html_content)) FILTER (WHERE %1$s), 0)
+        FROM slide_slide s
+        WHERE s.id >= ? AND s.id < ?
+        GROUP BY s.channel_id
+        """.formatted(BASE64_FILTER);
+
+    // pg_column_size no descomprime el valor: el top local solo lee el heap
+    private static final String RANGE_HEAVIEST_SQL = """
+        SELECT s.id, s.channel_id, s.active, pg_column_size(s.html_content) AS size
+        FROM slide_slide s
+        WHERE s.id >= ? AND s.id < ?
+          AND s.html_content IS NOT NULL
+        ORDER BY size DESC
+        LIMIT ?
+        """;
+
+    private static final String SLIDE_NAMES_SQL = """
+        SELECT s.id,
+               COALESCE(s.name->>'es_MX', s.name->>'es_ES', s.name->>'en_US',
+                        (SELECT v.value FROM jsonb_each_text(s.name) v LIMIT 1))
+        FROM slide_slide s
+        WHERE s.id = ANY(?::int[])
+        """;
+
+    @Qualifier("replicaJdbcTemplate")
+    private final JdbcTemplate replicaJdbc;
+
+    private final SlideChannelReplicaRepository replicaChannelRepo;
+
+    // Rangos escaneados a la vez (cada uno ocupa una conexión de réplica)
+    @Value("${migration.analytics.scan.parallelism:3}")
+    private int parallelism;
+
+    // Rangos por hilo: rangos más pequeños reparten mejor las zonas con slides pesados
+    @Value("${migration.analytics.scan.partitions-per-worker:4}")
+    private int partitionsPerWorker;
+
+    @Value("${migration.analytics.scan.top-limit:20}")
+    private int topLimit;
+
+    // Tiempo máximo de la consulta de un rango
+    @Value("${migration.analytics.scan.range-timeout-seconds:600}")
+    private int rangeTimeoutSeconds;
+
+    // Vigencia del resultado en caché
+    @Value("${migration.analytics.cache-ttl-minutes:60}")
+    private long cacheTtlMinutes;
+
+    private final AtomicReference<ReplicaScanStats> cached = new AtomicReference<>();
+    private CompletableFuture<ReplicaScanStats> inFlight;
+    private JdbcTemplate scanJdbc;
+    private ExecutorService coordinator;
+    private ExecutorService workers;
+
+    @PostConstruct
+    void init() {
+        scanJdbc = new JdbcTemplate(replicaJdbc.getDataSource());
+        scanJdbc.setQueryTimeout(rangeTimeoutSeconds);
+        coordinator = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "replica-scan");
+            thread.setDaemon(true);
+            return thread;
+        });
+        AtomicInteger threadNumber = new AtomicInteger();
+        workers = Executors.newFixedThreadPool(Math.max(1, parallelism), runnable -> {
+            Thread thread = new Thread(runnable, "replica-scan-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    void shutdown() {
+        coordinator.shutdownNow();
+        workers.shutdownNow();
+    }
+
+    /**
+     * Estadísticas de la réplica: las de la caché si siguen vigentes; si no (o con
+     * {@code refresh}), espera a un escaneo nuevo.
+     */
+    public ReplicaScanStats getStats(boolean refresh) {
+        ReplicaScanStats current = cached.get();
+        if (!refresh && isFresh(current)) return current;
+        try {
+            return refreshAsync().join();
+        } catch (CompletionException e) {
+            throw new IllegalStateException("Escaneo de la réplica fallido: " + e.getCause().getMessage(), e.getCause());
+        }
+    }
+
+    /**
+     * Último resultado en caché sin esperar; si falta o caducó se lanza un escaneo en segundo plano.
+     */
+    public Optional<ReplicaScanStats> cachedStats() {
+        ReplicaScanStats current = cached.get();
+        if (!isFresh(current)) refreshAsync();
+        return Optional.ofNullable(current);
+    }
+
+    private synchronized CompletableFuture<ReplicaScanStats> refreshAsync() {
+        if (inFlight == null || inFlight.isDone()) {
+            inFlight = CompletableFuture.supplyAsync(this::scan, coordinator);
+        }
+        return inFlight;
+    }
+
+    private boolean isFresh(ReplicaScanStats stats) {
+        return stats != null
+            && stats.getComputedAt().isAfter(LocalDateTime.now().minus(Duration.ofMinutes(cacheTtlMinutes)));
+    }
+
+    private ReplicaScanStats scan() {
+        long startMs = System.currentTimeMillis();
+        long[] bounds = scanJdbc.queryForObject("SELECT COALESCE(MIN(id), 0), COALESCE(MAX(id), -1) FROM slide_slide",
+            (rs, rowNum) -> new long[] { rs.getLong(1), rs.getLong(2) });
+        long minId = bounds[0];
+        long maxId = bounds[1];
+
+        List<long[]> ranges = new ArrayList<>();
+        if (maxId >= minId) {
+            int partitions = Math.max(1, parallelism * partitionsPerWorker);
+            long step = Math.max(1, (maxId - minId + partitions) / partitions);
+            for (long from = minId; from <= maxId; from += step) {
+                ranges.add(new long[] { from, Math.min(from + step, maxId + 1) });
+            }
+        }
+
+        List<Future<RangeResult>> futures = new ArrayList<>();
+        for (long[] range : ranges) {
+            futures.add(workers.submit(() -> scanRange(range[0], range[1])));
+        }
+
+        // Fusión de parciales: sumas por canal y top global a partir de los tops locales
+        Map<Integer, long[]> byChannel = new HashMap<>();
+        List<SlideSizeStats> candidates = new ArrayList<>();
+        try {
+            for (Future<RangeResult> future : futures) {
+                RangeResult partial = future.get();
+                partial.byChannel().forEach((channelId, sums) -> byChannel.merge(channelId, sums, (a, b) -> {
+                    for (int i = 0; i < a.length; i++) a[i] += b[i];
+                    return a;
+                }));
+                candidates.addAll(partial.heaviest());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            futures.forEach(future -> future.cancel(true));
+            throw new IllegalStateException("Escaneo de la réplica interrumpido", e);
+        } catch (ExecutionException e) {
+            futures.forEach(future -> future.cancel(true));
+            log.warn("Escaneo de la réplica fallido: {}", e.getCause().getMessage());
+            throw new IllegalStateException(e.getCause().getMessage(), e.getCause());
+        }
+
+        long[] totals = new long[4];
+        byChannel.values().forEach(sums -> {
+            for (int i = 0; i < totals.length; i++) totals[i] += sums[i];
+        });
+
+        candidates.sort(Comparator.comparingLong(SlideSizeStats::getSizeBytes).reversed());
+        List<SlideSizeStats> heaviest = new ArrayList<>(candidates.subList(0, Math.min(topLimit, candidates.size())));
+        fillSlideNames(heaviest);
+
+        List<ChannelSizeStats> channels = new ArrayList<>();
+        for (SlideChannelReplica channel : replicaChannelRepo.findAll()) {
+            if (!Boolean.TRUE.equals(channel.getActive())) continue;
+            long[] sums = byChannel.getOrDefault(channel.getId(), new long[4]);
+            channels.add(ChannelSizeStats.builder()
+                .channelId(channel.getId())
+                .channelName(channel.getNameEs())
+                .isPublished(channel.getIsPublished())
+                .slideCount(sums[0])
+                .totalSize(sums[1])
+                .build());
+        }
+        channels.sort(Comparator.comparingLong(ChannelSizeStats::getTotalSize).reversed());
+
+        ReplicaScanStats stats = ReplicaScanStats.builder()
+            .computedAt(LocalDateTime.now())
+            .durationMs(System.currentTimeMillis() - startMs)
+            .partitions(ranges.size())
+            .scannedSlides(totals[0])
+            .totalHtmlSize(totals[1])
+            .slidesWithBase64(totals[2])
+            .base64Size(totals[3])
+            .channels(channels)
+            .heaviestSlides(heaviest)
+            .build();
+        cached.set(stats);
+        log.info("Escaneo de la réplica: {} slides en {} rangos, {} con Base64 ({} bytes) en {} ms",
+            stats.getScannedSlides(), stats.getPartitions(), stats.getSlidesWithBase64(),
+            stats.getBase64Size(), stats.getDurationMs());
+        return stats;
+    }
+
+    /**
+     * Agregados de un rango [fromId, toId): por canal {slides, tamaño, slides con Base64, tamaño Base64}
+     * y su top local de slides más pesados.
+     */
+    private RangeResult scanRange(long fromId, long toId) {
+        Map<Integer, long[]> byChannel = new HashMap<>();
+        scanJdbc.query(RANGE_AGGREGATES_SQL, (RowCallbackHandler) rs -> {
+            Integer channelId = (Integer) rs.getObject(1);
+            byChannel.put(channelId, new long[] { rs.getLong(2), rs.getLong(3), rs.getLong(4), rs.getLong(5) });
+        }, fromId, toId);
+
+        List<SlideSizeStats> heaviest = scanJdbc.query(RANGE_HEAVIEST_SQL, (rs, rowNum) -> SlideSizeStats.builder()
+            .slideId(rs.getInt(1))
+            .channelId((Integer) rs.getObject(2))
+            .active(rs.getBoolean(3))
+            .sizeBytes(rs.getLong(4))
+            .build(), fromId, toId, topLimit);
+        return new RangeResult(byChannel, heaviest);
+    }
+
+    private void fillSlideNames(List<SlideSizeStats> slides) {
+        if (slides.isEmpty()) return;
+        Map<Integer, String> names = new HashMap<>();
+        scanJdbc.query(con -> {
+            PreparedStatement ps = con.prepareStatement(SLIDE_NAMES_SQL);
+            ps.setArray(1, con.createArrayOf("integer", slides.stream().map(SlideSizeStats::getSlideId).toArray()));
+            return ps;
+        }, (RowCallbackHandler) rs -> names.put(rs.getInt(1), rs.getString(2)));
+        slides.forEach(slide -> slide.setSlideName(names.get(slide.getSlideId())));
+    }
+
+    private record RangeResult(Map<Integer, long[]> byChannel, List<SlideSizeStats> heaviest) {}
+}
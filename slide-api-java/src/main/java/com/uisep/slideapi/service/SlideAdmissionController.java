@@ -0,0 +1,107 @@
+package com.uisep.slideapi.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Control de admisión por memoria para el procesamiento concurrente de slides.
+ * Cada slide adquiere, antes de cargarse, permisos proporcionales a su peso estimado en heap
+ * (bytes almacenados en la réplica × factor de expansión) contra un presupuesto global.
+ * Así los slides pequeños usan todos los núcleos y los grandes esperan a que haya memoria,
+ * en lugar de terminar en OutOfMemoryError.
+ * Los permisos se cuentan en KB para que el presupuesto quepa en un Semaphore.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class SlideAdmissionController {
+
+    private final MeterRegistry meterRegistry;
+
+    // Presupuesto de heap para contenido en vuelo (0 = 50% del heap máximo)
+    @Value("${migration.sync.admission.heap-budget-mb:0}")
+    private long heapBudgetMb;
+
+    // Bytes en heap por byte almacenado: String del JSON, Map, HTML reescrito e imágenes decodificadas
+    @Value("${migration.sync.admission.memory-factor:3.0}")
+    private double memoryFactor;
+
+    // Peso a partir del cual el slide va al carril exclusivo (0 = 25% del presupuesto)
+    @Value("${migration.sync.admission.oversize-mb:0}")
+    private long oversizeMb;
+
+    private Semaphore budget;
+    private int budgetKb;
+    private long oversizeBytes;
+    private Counter oversizeCounter;
+
+    @PostConstruct
+    void init() {
+        long budgetBytes = heapBudgetMb > 0 ? heapBudgetMb * 1024 * 1024 : Runtime.getRuntime().maxMemory() / 2;
+        budgetKb = (int) Math.min(Integer.MAX_VALUE, budgetBytes / 1024);
+        budget = new Semaphore(budgetKb, true);
+        oversizeBytes = oversizeMb > 0 ? oversizeMb * 1024 * 1024 : budgetBytes / 4;
+
+        Gauge.builder("slide.sync.admission.available.bytes", () -> budget.availablePermits() * 1024L)
+            .description("Presupuesto de heap libre para slides en vuelo")
+            .register(meterRegistry);
+        oversizeCounter = Counter.builder("slide.sync.admission.oversize")
+            .description("Slides enviados al carril exclusivo por tamaño")
+            .register(meterRegistry);
+
+        log.info("Admisión por memoria: presupuesto {} MB, factor {}, carril exclusivo desde {} MB",
+            budgetKb / 1024, memoryFactor, oversizeBytes / (1024 * 1024));
+    }
+
+    /**
+     * Peso estimado en heap de un slide a partir de sus bytes almacenados en la réplica.
+     */
+    long weigh(Long storedBytes) {
+        return (long) ((storedBytes != null ? storedBytes : 0L) * memoryFactor);
+    }
+
+    boolean isOversize(long weightBytes) {
+        return weightBytes > oversizeBytes;
+    }
+
+    void countOversize() {
+        oversizeCounter.increment();
+    }
+
+    /**
+     * Bloquea hasta que haya presupuesto para el peso indicado. Un slide mayor que el
+     * presupuesto completo adquiere el presupuesto entero (se procesa solo).
+     */
+    Permit acquire(long weightBytes) throws InterruptedException {
+        int kb = (int) Math.max(1, Math.min(budgetKb, (weightBytes + 1023) / 1024));
+        budget.acquire(kb);
+        return new Permit(kb);
+    }
+
+    /**
+     * Permisos adquiridos por un slide; se liberan una sola vez al terminar de persistirlo.
+     */
+    final class Permit {
+        private final int kb;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private Permit(int kb) {
+            this.kb = kb;
+        }
+
+        void release() {
+            if (released.compareAndSet(false, true)) {
+                budget.release(kb);
+            }
+        }
+    }
+}
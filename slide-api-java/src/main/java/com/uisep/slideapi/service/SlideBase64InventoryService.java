@@ -0,0 +1,294 @@
+package com.uisep.slideapi.service;
+
+import com.uisep.slideapi.dto.SlideDTO.Base64InventoryResult;
+import com.uisep.slideapi.entity.processed.SyncWatermark;
+import com.uisep.slideapi.repository.processed.SyncWatermarkRepository;
+import com.uisep.slideapi.service.Base64ImageExtractor.Base64Summary;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Inventario de imágenes Base64 por slide (public.slide_base64_inventory).
+ * Se refresca solo con los slides cuyo write_date superó la marca de agua del inventario:
+ * la réplica filtra con LIKE y solo envía el html_content de los que tienen Base64, que se resume
+ * aquí (número de imágenes, bytes, la mayor). La primera ejecución recorre toda la tabla.
+ * La elección de candidatos de migración y las estadísticas leen esta tabla en lugar de escanear la réplica;
+ * los triggers de la migración V011 trasladan cada cambio a los contadores de estadísticas.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class SlideBase64InventoryService {
+
+    static final String INVENTORY_WATERMARK = "slide_slide.base64_inventory";
+
+    // Filas por sentencia masiva
+    private static final int UPSERT_CHUNK_SIZE = 1000;
+    // Filas por viaje del cursor (incluye html_content de los slides con Base64)
+    private static final int FETCH_SIZE = 100;
+
+    private static final String CHANGED_SLIDES_SQL = """
+        SELECT s.id, s.active, s.write_date, pg_column_size(s.html_content),
+               CASE WHEN CAST(s.html_content AS text) LIKE '%data:image%base64%'
+                    THEN CAST(s.html_content AS text) END
+        FROM slide_slide s
+        """;
+
+    private static final String UPSERT_SQL = """
+        INSERT INTO public.slide_base64_inventory
+            (slide_id, active, base64_images, base64_bytes, largest_image_bytes, odoo_write_date,
+             html_bytes, scanned_at)
+        SELECT v.id, v.active, v.images, v.bytes, v.largest, v.write_date, v.html_bytes, ?
+        FROM unnest(?::int[], ?::boolean[], ?::int[], ?::bigint[], ?::bigint[], ?::timestamp[], ?::bigint[])
+             AS v(id, active, images, bytes, largest, write_date, html_bytes)
+        ON CONFLICT (slide_id) DO UPDATE SET
+            active = EXCLUDED.active,
+            base64_images = EXCLUDED.base64_images,
+            base64_bytes = EXCLUDED.base64_bytes,
+            largest_image_bytes = EXCLUDED.largest_image_bytes,
+            odoo_write_date = EXCLUDED.odoo_write_date,
+            html_bytes = EXCLUDED.html_bytes,
+            scanned_at = EXCLUDED.scanned_at
+        """;
+
+    // Activos con Base64 cuyo slide procesado no está al día con la versión inventariada
+    // (mismo criterio que los contadores de db/migrations/V011)
+    private static final String PENDING_FILTER = """
+        i.active AND i.base64_images > 0
+        AND NOT EXISTS (
+            SELECT 1 FROM slide_api.slides p
+            WHERE p.id = i.slide_id AND p.odoo_write_date >= i.odoo_write_date
+        )
+        """;
+
+    private final Base64ImageExtractor imageExtractor;
+    private final SyncWatermarkRepository watermarkRepo;
+
+    @Qualifier("replicaJdbcTemplate")
+    private final JdbcTemplate replicaJdbc;
+
+    @Qualifier("processedJdbcTemplate")
+    private final JdbcTemplate processedJdbc;
+
+    @Qualifier("replicaTransactionManager")
+    private final PlatformTransactionManager replicaTransactionManager;
+
+    @Qualifier("processedTransactionManager")
+    private final PlatformTransactionManager processedTransactionManager;
+
+    @Value("${migration.base64.inventory.enabled:true}")
+    private boolean enabled;
+
+    // Solape sobre la marca de agua para commits tardíos en Odoo (como la sincronización incremental)
+    @Value("${migration.base64.inventory.overlap-seconds:300}")
+    private long overlapSeconds;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+    // La primera pasada recorre toda la réplica: fuera del hilo de scheduling
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "base64-inventory");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @Scheduled(fixedDelayString = "${migration.base64.inventory.refresh-interval-ms:600000}",
+               initialDelayString = "${migration.base64.inventory.initial-delay-ms:120000}")
+    void scheduledRefresh() {
+        if (!enabled || running.get()) return;
+        executor.execute(this::refreshInBackground);
+    }
+
+    private void refreshInBackground() {
+        try {
+            refresh(false).ifPresent(result -> {
+                if (result.getScannedSlides() > 0) {
+                    log.info("Inventario Base64 ({}): {} slides revisados, {} con Base64, {} retirados ({} ms)",
+                        result.getMode(), result.getScannedSlides(), result.getSlidesWithBase64(),
+                        result.getRemoved(), result.getDurationMs());
+                }
+            });
+        } catch (Exception e) {
+            log.error("Error refrescando el inventario Base64", e);
+        }
+    }
+
+    /**
+     * Refresca el inventario con los slides modificados desde la marca de agua, o con todos si
+     * {@code full} o si aún no existe marca. La pasada completa retira además los slides que ya no
+     * están en la réplica.
+     *
+     * @return Resultado, o vacío si ya hay un refresco en curso
+     */
+    public Optional<Base64InventoryResult> refresh(boolean full) {
+        if (!running.compareAndSet(false, true)) return Optional.empty();
+        try {
+            return Optional.of(doRefresh(full));
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private Base64InventoryResult doRefresh(boolean full) {
+        long startMs = System.currentTimeMillis();
+        Timestamp scannedAt = Timestamp.valueOf(LocalDateTime.now());
+        SyncWatermark watermark = watermarkRepo.findById(INVENTORY_WATERMARK)
+            .orElseGet(() -> SyncWatermark.builder().name(INVENTORY_WATERMARK).build());
+        boolean incremental = !full && watermark.getWatermark() != null;
+        LocalDateTime since = incremental ? watermark.getWatermark().minusSeconds(overlapSeconds) : null;
+
+        InventoryBatch batch = new InventoryBatch(scannedAt);
+        TransactionTemplate replicaTx = new TransactionTemplate(replicaTransactionManager);
+        replicaTx.setReadOnly(true);
+        replicaTx.executeWithoutResult(status -> replicaJdbc.query(con -> {
+            PreparedStatement ps = con.prepareStatement(incremental
+                ? CHANGED_SLIDES_SQL + " WHERE s.write_date > ?"
+                : CHANGED_SLIDES_SQL);
+            if (incremental) ps.setTimestamp(1, Timestamp.valueOf(since));
+            ps.setFetchSize(FETCH_SIZE);
+            return ps;
+        }, (RowCallbackHandler) rs -> {
+            Timestamp writeDate = rs.getTimestamp(3);
+            batch.add(rs.getInt(1), rs.getBoolean(2), writeDate, rs.getLong(4), imageExtractor.summarize(rs.getString(5)));
+        }));
+        batch.flush();
+
+        int removed = 0;
+        if (!incremental) {
+            // Todo lo vigente se acaba de reescribir: lo que quedó con scanned_at anterior ya no existe
+            removed = processedJdbc.update(
+                "DELETE FROM public.slide_base64_inventory WHERE scanned_at < ?", scannedAt);
+        }
+
+        if (batch.maxWriteDate != null
+                && (watermark.getWatermark() == null || batch.maxWriteDate.isAfter(watermark.getWatermark()))) {
+            watermark.setWatermark(batch.maxWriteDate);
+            watermarkRepo.save(watermark);
+        }
+
+        return Base64InventoryResult.builder()
+            .mode(incremental ? "INCREMENTAL" : "FULL")
+            .scannedSlides(batch.scanned)
+            .slidesWithBase64(batch.withBase64)
+            .removed((long) removed)
+            .watermark(watermark.getWatermark())
+            .durationMs(System.currentTimeMillis() - startMs)
+            .build();
+    }
+
+    /**
+     * IDs de slides activos con Base64 pendientes de migrar, de mayor a menor tamaño de imágenes.
+     */
+    public List<Integer> findMigrationCandidates(int limit) {
+        return processedJdbc.queryForList(
+            "SELECT i.slide_id FROM public.slide_base64_inventory i WHERE " + PENDING_FILTER
+                + " ORDER BY i.base64_bytes DESC LIMIT ?",
+            Integer.class, limit);
+    }
+
+    /**
+     * Retira del inventario slides que ya no existen en la réplica.
+     */
+    public void forget(List<Integer> slideIds) {
+        if (slideIds.isEmpty()) return;
+        processedJdbc.update(con -> {
+            PreparedStatement ps = con.prepareStatement(
+                "DELETE FROM public.slide_base64_inventory WHERE slide_id = ANY(?::int[])");
+            ps.setArray(1, con.createArrayOf("integer", slideIds.toArray()));
+            return ps;
+        });
+    }
+
+    /**
+     * Si el inventario ya se construyó (existe su marca de agua).
+     */
+    public boolean isBuilt() {
+        return watermarkRepo.findById(INVENTORY_WATERMARK)
+            .map(SyncWatermark::getWatermark)
+            .isPresent();
+    }
+
+    /**
+     * Acumula filas del cursor y las escribe por bloques con un upsert masivo.
+     */
+    private final class InventoryBatch {
+        private final Timestamp scannedAt;
+        private final List<Integer> ids = new ArrayList<>();
+        private final List<Boolean> actives = new ArrayList<>();
+        private final List<Integer> images = new ArrayList<>();
+        private final List<Long> bytes = new ArrayList<>();
+        private final List<Long> largest = new ArrayList<>();
+        private final List<Timestamp> writeDates = new ArrayList<>();
+        private final List<Long> htmlBytes = new ArrayList<>();
+        private long scanned;
+        private long withBase64;
+        private LocalDateTime maxWriteDate;
+
+        InventoryBatch(Timestamp scannedAt) {
+            this.scannedAt = scannedAt;
+        }
+
+        void add(int id, boolean active, Timestamp writeDate, long htmlSize, Base64Summary summary) {
+            ids.add(id);
+            actives.add(active);
+            images.add(summary.images());
+            bytes.add(summary.bytes());
+            largest.add(summary.largestBytes());
+            writeDates.add(writeDate);
+            htmlBytes.add(htmlSize);
+            scanned++;
+            if (summary.images() > 0) withBase64++;
+            if (writeDate != null && (maxWriteDate == null || writeDate.toLocalDateTime().isAfter(maxWriteDate))) {
+                maxWriteDate = writeDate.toLocalDateTime();
+            }
+            if (ids.size() >= UPSERT_CHUNK_SIZE) flush();
+        }
+
+        void flush() {
+            if (ids.isEmpty()) return;
+            new TransactionTemplate(processedTransactionManager).executeWithoutResult(status ->
+                processedJdbc.update(con -> {
+                    PreparedStatement ps = con.prepareStatement(UPSERT_SQL);
+                    ps.setTimestamp(1, scannedAt);
+                    ps.setArray(2, con.createArrayOf("integer", ids.toArray()));
+                    ps.setArray(3, con.createArrayOf("boolean", actives.toArray()));
+                    ps.setArray(4, con.createArrayOf("integer", images.toArray()));
+                    ps.setArray(5, con.createArrayOf("bigint", bytes.toArray()));
+                    ps.setArray(6, con.createArrayOf("bigint", largest.toArray()));
+                    ps.setArray(7, con.createArrayOf("timestamp", writeDates.toArray()));
+                    ps.setArray(8, con.createArrayOf("bigint", htmlBytes.toArray()));
+                    return ps;
+                }));
+            ids.clear();
+            actives.clear();
+            images.clear();
+            bytes.clear();
+            largest.clear();
+            writeDates.clear();
+            htmlBytes.clear();
+        }
+    }
+}
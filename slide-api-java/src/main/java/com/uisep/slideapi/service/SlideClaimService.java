@@ -0,0 +1,217 @@
+package com.uisep.slideapi.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.net.InetAddress;
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reparto de la cola de sincronización entre nodos.
+ * Cada worker reclama lotes de slide_processing_status con FOR UPDATE SKIP LOCKED: las filas pasan
+ * a PROCESSING con su identificador y un lease que un latido renueva mientras el worker vive.
+ * Si el nodo cae, el lease vence y otro worker reclama esos slides; no hace falta resetear
+ * PROCESSING al arrancar.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class SlideClaimService {
+
+    // Cola reclamable: PENDING, FAILED con reintento vencido y PROCESSING con lease vencido.
+    // Un PROCESSING sin lease (procesado fuera de un reclamo) se considera vivo durante un lease
+    // desde started_at; sin started_at, abandonado.
+    private static final String CLAIMABLE = """
+        (status = 'PENDING'
+         OR (status = 'FAILED' AND (next_attempt_at IS NULL OR next_attempt_at <= LOCALTIMESTAMP))
+         OR (status = 'PROCESSING'
+             AND COALESCE(lease_expires_at, started_at + ? * INTERVAL '1 second', '-infinity'::timestamp)
+                 < LOCALTIMESTAMP))
+        """;
+
+    // Prioridad (ver SlidePriorityService): puntuación base penalizada por fallos previos
+    private static final String PRIORITY = "COALESCE(priority_score, 0) / (1 + COALESCE(retry_count, 0))";
+
+    @Qualifier("processedJdbcTemplate")
+    private final JdbcTemplate processedJdbc;
+
+    // Slides por reclamo; cada reclamo alimenta una pasada completa del modo de commit
+    @Value("${migration.sync.claim.batch-size:500}")
+    private int claimBatchSize;
+
+    // Duración del lease; el latido lo renueva cada tercio
+    @Value("${migration.sync.claim.lease-seconds:600}")
+    private long leaseSeconds;
+
+    private final ScheduledExecutorService heartbeat = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "slide-claim-heartbeat");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @PreDestroy
+    void shutdown() {
+        heartbeat.shutdownNow();
+    }
+
+    /**
+     * Slides reclamables ahora mismo (estimación del trabajo restante).
+     */
+    public int countClaimable() {
+        Integer count = processedJdbc.queryForObject(
+            "SELECT COUNT(*) FROM public.slide_processing_status WHERE " + CLAIMABLE,
+            Integer.class, leaseSeconds);
+        return count != null ? count : 0;
+    }
+
+    /**
+     * Devuelve a PENDING los slides en PROCESSING cuyo lease venció (o que nunca lo tuvieron y
+     * superaron un lease desde started_at), con el mismo criterio que el reclamo. Los que otro
+     * worker sigue renovando no se tocan.
+     */
+    public int releaseExpired() {
+        return processedJdbc.update("""
+            UPDATE public.slide_processing_status
+            SET status = 'PENDING', claimed_by = NULL, lease_expires_at = NULL
+            WHERE status = 'PROCESSING' AND %s
+            """.formatted(CLAIMABLE), leaseSeconds);
+    }
+
+    /**
+     * Abre un worker con identificador propio y latido de renovación. Cerrar siempre con
+     * try-with-resources: al cerrar, los slides reclamados y no terminados vuelven a PENDING.
+     */
+    public Worker openWorker() {
+        Worker worker = new Worker(nodeName() + "/" + UUID.randomUUID().toString().substring(0, 8));
+        long period = Math.max(1, leaseSeconds / 3);
+        worker.renewal = heartbeat.scheduleAtFixedRate(worker::renew, period, period, TimeUnit.SECONDS);
+        return worker;
+    }
+
+    private static String nodeName() {
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (Exception e) {
+            return "desconocido";
+        }
+    }
+
+    /**
+     * Worker de una ejecución: reclama, renueva y libera sus slides.
+     */
+    public final class Worker implements AutoCloseable {
+        private final String workerId;
+        private ScheduledFuture<?> renewal;
+
+        private Worker(String workerId) {
+            this.workerId = workerId;
+        }
+
+        public String getWorkerId() {
+            return workerId;
+        }
+
+        /**
+         * Reclama el siguiente lote de la cola en orden de prioridad.
+         *
+         * @return IDs reclamados (vacío si no queda trabajo libre)
+         */
+        public List<Integer> claimBatch() {
+            return claim("", null, claimBatchSize);
+        }
+
+        /**
+         * Reclama los slides indicados que estén libres (los de otro worker con lease vivo se omiten).
+         */
+        public List<Integer> claimIds(List<Integer> slideIds) {
+            if (slideIds.isEmpty()) return List.of();
+            return claim("AND slide_id = ANY(?::int[])", slideIds, slideIds.size());
+        }
+
+        private List<Integer> claim(String extraFilter, List<Integer> slideIds, int limit) {
+            List<ClaimedSlide> claimed = processedJdbc.query(con -> {
+                PreparedStatement ps = con.prepareStatement("""
+                    WITH claimable AS (
+                        SELECT slide_id FROM public.slide_processing_status
+                        WHERE %s %s
+                        ORDER BY %s DESC, slide_id
+                        LIMIT ?
+                        FOR UPDATE SKIP LOCKED
+                    )
+                    UPDATE public.slide_processing_status t SET
+                        status = 'PROCESSING',
+                        claimed_by = ?,
+                        lease_expires_at = LOCALTIMESTAMP + ? * INTERVAL '1 second',
+                        started_at = LOCALTIMESTAMP
+                    FROM claimable c
+                    WHERE t.slide_id = c.slide_id
+                    RETURNING t.slide_id, COALESCE(t.priority_score, 0) / (1 + COALESCE(t.retry_count, 0))
+                    """.formatted(CLAIMABLE, extraFilter, PRIORITY));
+                int i = 1;
+                ps.setLong(i++, leaseSeconds);
+                if (slideIds != null) {
+                    ps.setArray(i++, con.createArrayOf("integer", slideIds.toArray()));
+                }
+                ps.setInt(i++, limit);
+                ps.setString(i++, workerId);
+                ps.setLong(i, leaseSeconds);
+                return ps;
+            }, (rs, rowNum) -> new ClaimedSlide(rs.getInt(1), rs.getDouble(2)));
+
+            // RETURNING no conserva el orden del SELECT: reordenar por prioridad
+            List<Integer> ids = new ArrayList<>(claimed.size());
+            claimed.stream()
+                .sorted(Comparator.comparingDouble(ClaimedSlide::priority).reversed()
+                    .thenComparing(ClaimedSlide::slideId))
+                .forEach(slide -> ids.add(slide.slideId()));
+            if (!ids.isEmpty()) {
+                log.debug("Worker {}: reclamados {} slides", workerId, ids.size());
+            }
+            return ids;
+        }
+
+        private void renew() {
+            try {
+                processedJdbc.update("""
+                    UPDATE public.slide_processing_status
+                    SET lease_expires_at = LOCALTIMESTAMP + ? * INTERVAL '1 second'
+                    WHERE claimed_by = ? AND status = 'PROCESSING'
+                    """, leaseSeconds, workerId);
+            } catch (Exception e) {
+                log.warn("Worker {}: no se pudo renovar el lease: {}", workerId, e.getMessage());
+            }
+        }
+
+        /**
+         * Detiene el latido y devuelve a PENDING los slides reclamados que no llegaron a terminar
+         * (cancelación o error): quedan disponibles de inmediato sin esperar al vencimiento.
+         */
+        @Override
+        public void close() {
+            renewal.cancel(false);
+            int released = processedJdbc.update("""
+                UPDATE public.slide_processing_status
+                SET status = 'PENDING', claimed_by = NULL, lease_expires_at = NULL
+                WHERE claimed_by = ? AND status = 'PROCESSING'
+                """, workerId);
+            if (released > 0) {
+                log.info("Worker {}: {} slides reclamados sin terminar → PENDING", workerId, released);
+            }
+        }
+    }
+
+    private record ClaimedSlide(int slideId, double priority) {}
+}
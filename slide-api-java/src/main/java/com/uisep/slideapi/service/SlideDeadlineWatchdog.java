@@ -0,0 +1,139 @@
+package com.uisep.slideapi.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Vigilante del tiempo máximo de procesamiento por slide.
+ * Cada slide abre un {@link SlideDeadline}; si se agota el plazo el vigilante interrumpe el hilo
+ * que lo procesa. La interrupción corta la descarga de Odoo (HttpClient) y el escaneo regex
+ * ({@link InterruptibleCharSequence}); las consultas se acotan con el timeout de transacción
+ * ({@link SlideDeadline#remainingSeconds()}), que el driver aplica cancelando la sentencia en el
+ * servidor y devolviendo la conexión al pool.
+ */
+@Component
+@Slf4j
+public class SlideDeadlineWatchdog {
+
+    // Plazo por slide (0 = sin límite)
+    @Value("${migration.sync.slide-timeout-seconds:300}")
+    private long slideTimeoutSeconds;
+
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "slide-watchdog");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public long getSlideTimeoutSeconds() {
+        return slideTimeoutSeconds;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        scheduler.shutdownNow();
+    }
+
+    /**
+     * Abre el plazo de un slide para el hilo actual. Cerrar siempre con try-with-resources.
+     */
+    public SlideDeadline start(Integer slideId) {
+        SlideDeadline deadline = new SlideDeadline(slideId, Thread.currentThread(), slideTimeoutSeconds);
+        if (slideTimeoutSeconds > 0) {
+            deadline.future = scheduler.schedule(deadline::expire, slideTimeoutSeconds, TimeUnit.SECONDS);
+        }
+        return deadline;
+    }
+
+    /**
+     * Plazo de un slide en curso.
+     */
+    public static final class SlideDeadline implements AutoCloseable {
+        private final Integer slideId;
+        private final Thread worker;
+        private final long timeoutSeconds;
+        private final long startNanos = System.nanoTime();
+        private ScheduledFuture<?> future;
+        private volatile boolean expired;
+        private boolean closed;
+
+        private SlideDeadline(Integer slideId, Thread worker, long timeoutSeconds) {
+            this.slideId = slideId;
+            this.worker = worker;
+            this.timeoutSeconds = timeoutSeconds;
+        }
+
+        private synchronized void expire() {
+            if (closed) return;
+            expired = true;
+            log.warn("Watchdog: slide {} superó {} s → cancelando", slideId, timeoutSeconds);
+            worker.interrupt();
+        }
+
+        public boolean isExpired() {
+            return expired;
+        }
+
+        public long elapsedMs() {
+            return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+        }
+
+        /**
+         * Segundos restantes (mínimo 1) para usar como timeout de transacción; -1 si no hay plazo.
+         */
+        public int remainingSeconds() {
+            if (timeoutSeconds <= 0) return -1;
+            long remaining = timeoutSeconds - TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - startNanos);
+            return (int) Math.max(1, remaining);
+        }
+
+        /**
+         * Lanza {@link SlideTimeoutException} si el plazo ya se agotó.
+         */
+        public void check() {
+            if (expired) throw timeout(null);
+        }
+
+        public SlideTimeoutException timeout(Throwable cause) {
+            return new SlideTimeoutException(slideId, elapsedMs(),
+                "Timeout: procesamiento superó " + timeoutSeconds + " s (watchdog)", cause);
+        }
+
+        @Override
+        public synchronized void close() {
+            closed = true;
+            if (future != null) future.cancel(false);
+            // No arrastrar la interrupción del watchdog al siguiente slide del mismo hilo
+            if (expired) Thread.interrupted();
+        }
+    }
+
+    /**
+     * El slide superó su plazo de procesamiento.
+     */
+    public static final class SlideTimeoutException extends RuntimeException {
+        private final Integer slideId;
+        private final long elapsedMs;
+
+        SlideTimeoutException(Integer slideId, long elapsedMs, String message, Throwable cause) {
+            super(message, cause);
+            this.slideId = slideId;
+            this.elapsedMs = elapsedMs;
+        }
+
+        public Integer getSlideId() {
+            return slideId;
+        }
+
+        public long getElapsedMs() {
+            return elapsedMs;
+        }
+    }
+}
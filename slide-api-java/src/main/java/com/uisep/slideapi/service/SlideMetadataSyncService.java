@@ -0,0 +1,200 @@
+package com.uisep.slideapi.service;
+
+import com.uisep.slideapi.dto.SlideDTO.MetadataSyncResult;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Sincronización ligera y frecuente de metadatos (active, is_published, total_views).
+ * Lee solo columnas escalares de slide_slide y slide_channel en una consulta set-based
+ * y aplica las diferencias con UPDATEs masivos. Nunca carga html_content ni pasa por
+ * el procesamiento por slide de {@link SlideSyncService}.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class SlideMetadataSyncService {
+
+    // Filas por sentencia UPDATE ... FROM unnest(...)
+    private static final int UPDATE_CHUNK_SIZE = 5000;
+
+    @Qualifier("replicaJdbcTemplate")
+    private final JdbcTemplate replicaJdbc;
+
+    @Qualifier("processedJdbcTemplate")
+    private final JdbcTemplate processedJdbc;
+
+    @Value("${migration.metadata-sync.enabled:true}")
+    private boolean enabled;
+
+    /**
+     * Sincronización programada de metadatos.
+     * Se ejecuta según migration.metadata-sync.cron (por defecto cada 5 minutos).
+     */
+    @Scheduled(cron = "${migration.metadata-sync.cron:0 */5 * * * *}")
+    public void scheduledMetadataSync() {
+        if (!enabled) return;
+        try {
+            MetadataSyncResult result = syncMetadata();
+            if (result.getSlidesUpdated() > 0 || result.getChannelsUpdated() > 0
+                    || result.getContentChangesDetected() > 0) {
+                log.info("Metadatos sincronizados: {} slides, {} canales actualizados, {} con cambios de contenido ({} ms)",
+                    result.getSlidesUpdated(), result.getChannelsUpdated(),
+                    result.getContentChangesDetected(), result.getDurationMs());
+            }
+        } catch (Exception e) {
+            log.error("Error en sincronización de metadatos", e);
+        }
+    }
+
+    /**
+     * Lee los metadatos de slides y canales de la réplica y aplica las diferencias.
+     * Los slides cuyo write_date supera el odoo_write_date guardado se marcan PENDING
+     * en el tracking para que la sincronización completa re-procese su contenido.
+     */
+    @Transactional("processedTransactionManager")
+    public MetadataSyncResult syncMetadata() {
+        long startMs = System.currentTimeMillis();
+
+        List<MetadataRow> slides = new ArrayList<>();
+        List<MetadataRow> channels = new ArrayList<>();
+
+        // Una sola consulta para ambas tablas, solo columnas escalares
+        replicaJdbc.query("""
+            SELECT 'S' AS kind, s.id, s.channel_id, s.active, s.is_published, s.total_views, s.write_date
+            FROM slide_slide s
+            UNION ALL
+            SELECT 'C' AS kind, c.id, NULL, c.active, c.is_published, c.total_views, c.write_date
+            FROM slide_channel c
+            """, rs -> {
+            MetadataRow row = new MetadataRow(
+                rs.getInt("id"),
+                (Integer) rs.getObject("channel_id"),
+                (Boolean) rs.getObject("active"),
+                (Boolean) rs.getObject("is_published"),
+                (Integer) rs.getObject("total_views"),
+                rs.getTimestamp("write_date"));
+            if ("S".equals(rs.getString("kind"))) slides.add(row);
+            else channels.add(row);
+        });
+
+        int slidesUpdated = 0, channelsUpdated = 0, contentChanges = 0;
+        for (int i = 0; i < slides.size(); i += UPDATE_CHUNK_SIZE) {
+            List<MetadataRow> chunk = slides.subList(i, Math.min(i + UPDATE_CHUNK_SIZE, slides.size()));
+            slidesUpdated += applySlideMetadata(chunk);
+            contentChanges += markContentChanges(chunk);
+        }
+        for (int i = 0; i < channels.size(); i += UPDATE_CHUNK_SIZE) {
+            channelsUpdated += applyChannelMetadata(
+                channels.subList(i, Math.min(i + UPDATE_CHUNK_SIZE, channels.size())));
+        }
+
+        return MetadataSyncResult.builder()
+            .syncedAt(LocalDateTime.now())
+            .durationMs(System.currentTimeMillis() - startMs)
+            .slidesScanned(slides.size())
+            .slidesUpdated(slidesUpdated)
+            .channelsScanned(channels.size())
+            .channelsUpdated(channelsUpdated)
+            .contentChangesDetected(contentChanges)
+            .build();
+    }
+
+    /**
+     * Actualiza flags, vistas y canal de los slides procesados que difieren de la réplica.
+     * No toca odoo_write_date: si lo hiciera, la sincronización completa no detectaría
+     * cambios de contenido pendientes.
+     */
+    private int applySlideMetadata(List<MetadataRow> rows) {
+        return processedJdbc.update(con -> {
+            PreparedStatement ps = con.prepareStatement("""
+                UPDATE slide_api.slides p SET
+                    active         = v.active,
+                    is_published   = v.is_published,
+                    total_views    = v.total_views,
+                    channel_name   = CASE WHEN p.channel_id IS DISTINCT FROM v.channel_id
+                                          THEN (SELECT c.name FROM slide_api.channels c WHERE c.id = v.channel_id)
+                                          ELSE p.channel_name END,
+                    channel_id     = v.channel_id,
+                    last_synced_at = now()
+                FROM unnest(?::int[], ?::int[], ?::boolean[], ?::boolean[], ?::int[])
+                     AS v(id, channel_id, active, is_published, total_views)
+                WHERE p.id = v.id
+                  AND (p.active       IS DISTINCT FROM v.active
+                    OR p.is_published IS DISTINCT FROM v.is_published
+                    OR p.total_views  IS DISTINCT FROM v.total_views
+                    OR p.channel_id   IS DISTINCT FROM v.channel_id)
+                """);
+            ps.setArray(1, con.createArrayOf("integer", rows.stream().map(MetadataRow::id).toArray()));
+            ps.setArray(2, con.createArrayOf("integer", rows.stream().map(MetadataRow::channelId).toArray()));
+            ps.setArray(3, con.createArrayOf("boolean", rows.stream().map(MetadataRow::active).toArray()));
+            ps.setArray(4, con.createArrayOf("boolean", rows.stream().map(MetadataRow::isPublished).toArray()));
+            ps.setArray(5, con.createArrayOf("integer", rows.stream().map(MetadataRow::totalViews).toArray()));
+            return ps;
+        });
+    }
+
+    /**
+     * Marca PENDING los slides COMPLETED cuyo write_date en la réplica es más reciente
+     * que el guardado (el contenido lo re-procesa la sincronización completa).
+     */
+    private int markContentChanges(List<MetadataRow> rows) {
+        return processedJdbc.update(con -> {
+            PreparedStatement ps = con.prepareStatement("""
+                UPDATE public.slide_processing_status t SET status = 'PENDING'
+                FROM unnest(?::int[], ?::timestamp[]) AS v(id, write_date)
+                JOIN slide_api.slides p ON p.id = v.id
+                WHERE t.slide_id = v.id
+                  AND t.status = 'COMPLETED'
+                  AND v.write_date > COALESCE(p.odoo_write_date, '-infinity'::timestamp)
+                """);
+            ps.setArray(1, con.createArrayOf("integer", rows.stream().map(MetadataRow::id).toArray()));
+            ps.setArray(2, con.createArrayOf("timestamp", rows.stream().map(MetadataRow::writeDate).toArray()));
+            return ps;
+        });
+    }
+
+    /**
+     * Actualiza flags y vistas de los canales procesados que difieren de la réplica.
+     */
+    private int applyChannelMetadata(List<MetadataRow> rows) {
+        return processedJdbc.update(con -> {
+            PreparedStatement ps = con.prepareStatement("""
+                UPDATE slide_api.channels c SET
+                    active         = v.active,
+                    is_published   = v.is_published,
+                    total_views    = v.total_views,
+                    last_synced_at = now()
+                FROM unnest(?::int[], ?::boolean[], ?::boolean[], ?::int[])
+                     AS v(id, active, is_published, total_views)
+                WHERE c.id = v.id
+                  AND (c.active       IS DISTINCT FROM v.active
+                    OR c.is_published IS DISTINCT FROM v.is_published
+                    OR c.total_views  IS DISTINCT FROM v.total_views)
+                """);
+            ps.setArray(1, con.createArrayOf("integer", rows.stream().map(MetadataRow::id).toArray()));
+            ps.setArray(2, con.createArrayOf("boolean", rows.stream().map(MetadataRow::active).toArray()));
+            ps.setArray(3, con.createArrayOf("boolean", rows.stream().map(MetadataRow::isPublished).toArray()));
+            ps.setArray(4, con.createArrayOf("integer", rows.stream().map(MetadataRow::totalViews).toArray()));
+            return ps;
+        });
+    }
+
+    /**
+     * Fila ligera de metadatos de la réplica (slide o canal).
+     */
+    private record MetadataRow(Integer id, Integer channelId, Boolean active, Boolean isPublished,
+                               Integer totalViews, Timestamp writeDate) {}
+}
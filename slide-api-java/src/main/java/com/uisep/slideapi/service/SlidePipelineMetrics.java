@@ -0,0 +1,69 @@
+package com.uisep.slideapi.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Métricas del pipeline de sincronización expuestas en /actuator/metrics:
+ * <ul>
+ *   <li>slide.sync.pipeline.queue.depth{stage} — slides en espera de cada etapa (incluido el carril
+ *       exclusivo "oversize")</li>
+ *   <li>slide.sync.pipeline.stage.items{stage} — slides completados por etapa</li>
+ *   <li>slide.sync.pipeline.stage.duration{stage} — tiempo por slide (por lote en persist)</li>
+ * </ul>
+ * Las colas solo existen mientras corre una sincronización; fuera de ella la profundidad es 0.
+ */
+@Component
+@RequiredArgsConstructor
+public class SlidePipelineMetrics {
+
+    private final MeterRegistry meterRegistry;
+
+    private final Map<String, BlockingQueue<?>> queues = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    void registerQueueGauges() {
+        for (String stage : List.of(SlideSyncPipeline.STAGE_FETCH, SlideSyncPipeline.STAGE_EXTRACT,
+                                    SlideSyncPipeline.STAGE_PERSIST, SlideSyncPipeline.STAGE_OVERSIZE)) {
+            Gauge.builder("slide.sync.pipeline.queue.depth", () -> {
+                    BlockingQueue<?> queue = queues.get(stage);
+                    return queue != null ? queue.size() : 0;
+                })
+                .tag("stage", stage)
+                .description("Slides en cola de la etapa")
+                .register(meterRegistry);
+        }
+    }
+
+    void bindQueue(String stage, BlockingQueue<?> queue) {
+        queues.put(stage, queue);
+    }
+
+    void unbindQueues() {
+        queues.clear();
+    }
+
+    Timer stageTimer(String stage) {
+        return Timer.builder("slide.sync.pipeline.stage.duration")
+            .tag("stage", stage)
+            .description("Tiempo de trabajo de la etapa")
+            .register(meterRegistry);
+    }
+
+    Counter stageCounter(String stage) {
+        return Counter.builder("slide.sync.pipeline.stage.items")
+            .tag("stage", stage)
+            .description("Slides completados por la etapa")
+            .register(meterRegistry);
+    }
+}
@@ -0,0 +1,138 @@
+package com.uisep.slideapi.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Prioridad de la cola de sincronización.
+ * La puntuación base de cada slide combina sus vistas, la popularidad de su canal y la
+ * recencia de su write_date (escala logarítmica para que los slides virales no lo acaparen todo);
+ * el estado de reintentos se aplica al reclamar lotes de la cola (SlideClaimService).
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class SlidePriorityService {
+
+    // Filas por sentencia masiva
+    private static final int APPLY_CHUNK_SIZE = 5000;
+    // Filas por viaje del cursor
+    private static final int FETCH_SIZE = 2000;
+
+    @Qualifier("replicaJdbcTemplate")
+    private final JdbcTemplate replicaJdbc;
+
+    @Qualifier("processedJdbcTemplate")
+    private final JdbcTemplate processedJdbc;
+
+    @Qualifier("replicaTransactionManager")
+    private final PlatformTransactionManager replicaTransactionManager;
+
+    @Qualifier("processedTransactionManager")
+    private final PlatformTransactionManager processedTransactionManager;
+
+    @Value("${migration.sync.priority.views-weight:1.0}")
+    private double viewsWeight;
+
+    @Value("${migration.sync.priority.channel-weight:0.5}")
+    private double channelWeight;
+
+    @Value("${migration.sync.priority.recency-weight:2.0}")
+    private double recencyWeight;
+
+    // Días tras los que el bono por recencia se reduce a la mitad
+    @Value("${migration.sync.priority.recency-half-life-days:30}")
+    private double recencyHalfLifeDays;
+
+    /**
+     * Recalcula priority_score y view_weight del tracking desde la réplica, en una pasada
+     * sin html_content. Solo escribe las filas cuyo valor cambió.
+     *
+     * @return Filas del tracking actualizadas
+     */
+    public int refreshPriorities() {
+        long startMs = System.currentTimeMillis();
+        LocalDateTime now = LocalDateTime.now();
+        List<Integer> ids = new ArrayList<>();
+        List<Double> scores = new ArrayList<>();
+        List<Long> views = new ArrayList<>();
+
+        TransactionTemplate replicaTx = new TransactionTemplate(replicaTransactionManager);
+        replicaTx.setReadOnly(true);
+        replicaTx.executeWithoutResult(status -> replicaJdbc.query(con -> {
+            PreparedStatement ps = con.prepareStatement("""
+                SELECT s.id, COALESCE(s.total_views, 0), COALESCE(c.total_views, 0), s.write_date
+                FROM slide_slide s
+                JOIN slide_channel c ON c.id = s.channel_id
+                WHERE s.active = true
+                  AND s.is_published = true
+                  AND c.active = true
+                  AND c.is_published = true
+                """);
+            ps.setFetchSize(FETCH_SIZE);
+            return ps;
+        }, (RowCallbackHandler) rs -> {
+            Timestamp writeDate = rs.getTimestamp(4);
+            ids.add(rs.getInt(1));
+            views.add(rs.getLong(2));
+            scores.add(score(rs.getLong(2), rs.getLong(3),
+                writeDate != null ? writeDate.toLocalDateTime() : null, now));
+        }));
+
+        TransactionTemplate processedTx = new TransactionTemplate(processedTransactionManager);
+        int updated = processedTx.execute(status -> {
+            int rows = 0;
+            for (int i = 0; i < ids.size(); i += APPLY_CHUNK_SIZE) {
+                int from = i;
+                int to = Math.min(i + APPLY_CHUNK_SIZE, ids.size());
+                rows += processedJdbc.update(con -> {
+                    PreparedStatement ps = con.prepareStatement("""
+                        UPDATE public.slide_processing_status t
+                        SET priority_score = v.score, view_weight = v.views
+                        FROM unnest(?::int[], ?::float8[], ?::bigint[]) AS v(id, score, views)
+                        WHERE t.slide_id = v.id
+                          AND (t.priority_score IS DISTINCT FROM v.score OR t.view_weight IS DISTINCT FROM v.views)
+                        """);
+                    ps.setArray(1, con.createArrayOf("integer", ids.subList(from, to).toArray()));
+                    ps.setArray(2, con.createArrayOf("float8", scores.subList(from, to).toArray()));
+                    ps.setArray(3, con.createArrayOf("bigint", views.subList(from, to).toArray()));
+                    return ps;
+                });
+            }
+            return rows;
+        });
+
+        log.info("Prioridades: {} slides evaluados, {} actualizados ({} ms)",
+            ids.size(), updated, System.currentTimeMillis() - startMs);
+        return updated;
+    }
+
+    /**
+     * Puntuación base: log(1 + vistas) y log(1 + vistas del canal) ponderados, más un bono
+     * por recencia que decae exponencialmente con la antigüedad de write_date.
+     */
+    double score(long slideViews, long channelViews, LocalDateTime writeDate, LocalDateTime now) {
+        double score = viewsWeight * Math.log1p(Math.max(0, slideViews))
+                     + channelWeight * Math.log1p(Math.max(0, channelViews));
+        if (writeDate != null && recencyHalfLifeDays > 0) {
+            double ageDays = Math.max(0, Duration.between(writeDate, now).toHours() / 24.0);
+            score += recencyWeight * Math.pow(0.5, ageDays / recencyHalfLifeDays);
+        }
+        // Redondeo: evita reescribir filas por variaciones mínimas del bono entre ejecuciones
+        return Math.round(score * 1000) / 1000.0;
+    }
+}
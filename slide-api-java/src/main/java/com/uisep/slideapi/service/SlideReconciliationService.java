@@ -0,0 +1,374 @@
+package com.uisep.slideapi.service;
+
+import com.uisep.slideapi.dto.SlideDTO.ExcludedSlidesSyncResult;
+import com.uisep.slideapi.dto.SlideDTO.PurgeResult;
+import com.uisep.slideapi.dto.SlideDTO.ReconciliationResult;
+import com.uisep.slideapi.repository.replica.SlideSlideReplicaRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Reconciliación set-based entre la réplica y la BD procesada.
+ * Recorre en una sola pasada (merge-join por id) el conjunto relevante de la réplica
+ * y el tracking + slides procesados, ambos ordenados por id y leídos con cursor,
+ * y produce los conjuntos de altas, cambios y bajas que se aplican con sentencias masivas.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class SlideReconciliationService {
+
+    // Filas por sentencia masiva (arrays de ids)
+    private static final int APPLY_CHUNK_SIZE = 5000;
+    // Filas por viaje del cursor
+    private static final int FETCH_SIZE = 2000;
+    // Slides por transacción de la purga (imágenes incluidas)
+    private static final int PURGE_CHUNK_SIZE = 1000;
+
+    // Conjunto relevante: activos, publicados y en canal activo y publicado
+    private static final String RELEVANT_SLIDES_SQL = """
+        SELECT s.id, s.write_date FROM slide_slide s
+        WHERE s.active = true
+          AND s.is_published = true
+          AND EXISTS (
+              SELECT 1 FROM slide_channel sc
+              WHERE sc.id = s.channel_id
+                AND sc.active = true
+                AND sc.is_published = true
+          )
+        ORDER BY s.id
+        """;
+
+    // Slides procesados o con tracking fuera del conjunto relevante (anti-join por hash)
+    private static final String STALE_IDS_SQL = """
+        SELECT x.id
+        FROM (SELECT id FROM slide_api.slides
+              UNION
+              SELECT slide_id FROM public.slide_processing_status) x
+        LEFT JOIN unnest(?::int[]) AS r(id) ON r.id = x.id
+        WHERE r.id IS NULL
+        ORDER BY x.id
+        """;
+
+    @Qualifier("replicaJdbcTemplate")
+    private final JdbcTemplate replicaJdbc;
+
+    @Qualifier("processedJdbcTemplate")
+    private final JdbcTemplate processedJdbc;
+
+    @Qualifier("replicaTransactionManager")
+    private final PlatformTransactionManager replicaTransactionManager;
+
+    @Qualifier("processedTransactionManager")
+    private final PlatformTransactionManager processedTransactionManager;
+
+    private final BulkUpsertWriter bulkUpsertWriter;
+
+    // Destino de la sincronización de excluidos; synced_at solo cambia con la fila
+    private static final BulkUpsertWriter.Target EXCLUDED_SLIDES_TARGET = new BulkUpsertWriter.Target(
+        "slide_api.excluded_slides",
+        List.of(BulkUpsertWriter.Column.of("id", "integer"),
+                BulkUpsertWriter.Column.of("channel_id", "integer"),
+                BulkUpsertWriter.Column.of("create_date", "timestamp"),
+                BulkUpsertWriter.Column.of("reason", "text"),
+                BulkUpsertWriter.Column.touch("synced_at", "timestamp")),
+        APPLY_CHUNK_SIZE);
+
+    /**
+     * Compara ambos lados y aplica:
+     * <ul>
+     *   <li>altas: slides relevantes sin tracking → PENDING</li>
+     *   <li>cambios: write_date de la réplica más reciente que el procesado → PENDING</li>
+     *   <li>bajas: slides procesados que ya no son relevantes (archivados, despublicados,
+     *       canal no apto) → se eliminan imágenes, slide y tracking</li>
+     * </ul>
+     * La huella de contenido no se calcula aquí (exigiría leer todo html_content): los
+     * slides del conjunto de cambios pasan por la ruta rápida de huella al procesarse.
+     *
+     * @param applyChanges Si false, las altas y cambios solo se cuentan
+     * @param applyDeletes Si false, las bajas solo se cuentan
+     */
+    public ReconciliationResult reconcile(boolean applyChanges, boolean applyDeletes) {
+        long startMs = System.currentTimeMillis();
+        ReconciliationPlan plan = buildPlan();
+
+        boolean deletesApplied = applyDeletes && !plan.toDelete.isEmpty();
+        if (deletesApplied && plan.replicaRows == 0) {
+            // Réplica vacía o inaccesible: nunca vaciar la BD procesada por ello
+            log.warn("Reconciliación: la réplica no devolvió slides relevantes, se omiten {} bajas",
+                plan.toDelete.size());
+            deletesApplied = false;
+        }
+        final boolean applyDeleteSet = deletesApplied;
+
+        TransactionTemplate tx = new TransactionTemplate(processedTransactionManager);
+        tx.executeWithoutResult(status -> {
+            if (!applyChanges) {
+                if (applyDeleteSet) forEachChunk(plan.toDelete, this::deleteSlides);
+                return;
+            }
+            forEachChunk(plan.toAdd, chunk -> updateWithIds("""
+                INSERT INTO public.slide_processing_status (slide_id, status, retry_count)
+                SELECT id, 'PENDING', 0 FROM unnest(?::int[]) AS id
+                ON CONFLICT (slide_id) DO NOTHING
+                """, chunk));
+            forEachChunk(plan.toUpdate, chunk -> updateWithIds("""
+                UPDATE public.slide_processing_status SET status = 'PENDING'
+                WHERE slide_id = ANY(?::int[]) AND status = 'COMPLETED'
+                """, chunk));
+            if (applyDeleteSet) {
+                forEachChunk(plan.toDelete, this::deleteSlides);
+            }
+        });
+
+        ReconciliationResult result = ReconciliationResult.builder()
+            .reconciledAt(LocalDateTime.now())
+            .durationMs(System.currentTimeMillis() - startMs)
+            .replicaRows(plan.replicaRows)
+            .processedRows(plan.processedRows)
+            .added(applyChanges ? plan.toAdd.size() : 0)
+            .updated(applyChanges ? plan.toUpdate.size() : 0)
+            .deleted(applyDeleteSet ? plan.toDelete.size() : 0)
+            .staleDetected(plan.toDelete.size())
+            .build();
+
+        log.info("Reconciliación: réplica={} procesados={} → {} altas, {} cambios, {} bajas ({} ms)",
+            result.getReplicaRows(), result.getProcessedRows(), result.getAdded(),
+            result.getUpdated(), result.getDeleted(), result.getDurationMs());
+        return result;
+    }
+
+    /**
+     * Elimina de la BD procesada los slides que ya no están en el conjunto relevante.
+     * Los IDs relevantes de la réplica se envían como un único array a la BD procesada, que
+     * calcula los excluidos con un anti-join; después se borran por bloques, cada uno en su
+     * transacción, con tres DELETE masivos (imágenes, slides, tracking). Los bytes liberados
+     * salen de pg_column_size en el RETURNING: las imágenes nunca llegan a la JVM.
+     */
+    public PurgeResult purgeExcluded() {
+        long startMs = System.currentTimeMillis();
+
+        StringBuilder relevant = new StringBuilder("{");
+        int[] relevantCount = {0};
+        TransactionTemplate replicaTx = new TransactionTemplate(replicaTransactionManager);
+        replicaTx.setReadOnly(true);
+        replicaTx.executeWithoutResult(status -> replicaJdbc.query(con -> {
+            PreparedStatement ps = con.prepareStatement(RELEVANT_SLIDES_SQL);
+            ps.setFetchSize(FETCH_SIZE);
+            return ps;
+        }, (RowCallbackHandler) rs -> {
+            if (relevantCount[0]++ > 0) relevant.append(',');
+            relevant.append(rs.getInt(1));
+        }));
+        relevant.append('}');
+
+        PurgeResult.PurgeResultBuilder result = PurgeResult.builder().relevantSlides(relevantCount[0]);
+        if (relevantCount[0] == 0) {
+            // Réplica vacía o inaccesible: nunca vaciar la BD procesada por ello
+            log.warn("Purga de excluidos: la réplica no devolvió slides relevantes, no se elimina nada");
+            return result.deleted(0).imagesDeleted(0L).reclaimedBytes(0L)
+                .durationMs(System.currentTimeMillis() - startMs).build();
+        }
+
+        List<Integer> stale = processedJdbc.queryForList(STALE_IDS_SQL, Integer.class, relevant.toString());
+
+        long[] totals = new long[3];  // slides, imágenes, bytes
+        TransactionTemplate tx = new TransactionTemplate(processedTransactionManager);
+        for (int i = 0; i < stale.size(); i += PURGE_CHUNK_SIZE) {
+            List<Integer> chunk = stale.subList(i, Math.min(i + PURGE_CHUNK_SIZE, stale.size()));
+            tx.executeWithoutResult(status -> {
+                long[] images = deleteReturningSizes("slide_api.slide_images", "slide_id", "image_data", chunk);
+                long[] slides = deleteReturningSizes("slide_api.slides", "id", "html_content", chunk);
+                updateWithIds("DELETE FROM public.slide_processing_status WHERE slide_id = ANY(?::int[])", chunk);
+                totals[0] += chunk.size();
+                totals[1] += images[0];
+                totals[2] += images[1] + slides[1];
+            });
+        }
+
+        PurgeResult purge = result
+            .deleted((int) totals[0])
+            .imagesDeleted(totals[1])
+            .reclaimedBytes(totals[2])
+            .durationMs(System.currentTimeMillis() - startMs)
+            .build();
+        log.info("Purga de excluidos: {} relevantes en la réplica → {} slides y {} imágenes eliminados, {} bytes liberados ({} ms)",
+            purge.getRelevantSlides(), purge.getDeleted(), purge.getImagesDeleted(),
+            purge.getReclaimedBytes(), purge.getDurationMs());
+        return purge;
+    }
+
+    /**
+     * Refleja en slide_api.excluded_slides los slides de la réplica que no entran al sync
+     * (inactivos, no publicados, canal no apto): upsert masivo de los que cambiaron y borrado de
+     * los que volvieron a ser relevantes o ya no existen, en una pasada con cursor.
+     */
+    public ExcludedSlidesSyncResult syncExcludedSlides() {
+        long startMs = System.currentTimeMillis();
+        Timestamp syncedAt = Timestamp.valueOf(LocalDateTime.now());
+        BulkUpsertWriter.Result written = bulkUpsertWriter.sync(new BulkUpsertWriter.Source(
+            replicaJdbc, replicaTransactionManager, SlideSlideReplicaRepository.EXCLUDED_SLIDES_SQL,
+            (row, i) -> new Object[] {
+                row.getInt(1), row.getObject(2), row.getTimestamp(3), row.getString(4), syncedAt
+            }), EXCLUDED_SLIDES_TARGET);
+
+        Map<String, Long> byReason = new LinkedHashMap<>();
+        processedJdbc.query("SELECT reason, COUNT(*) FROM slide_api.excluded_slides GROUP BY reason ORDER BY reason",
+            (RowCallbackHandler) rs -> byReason.put(rs.getString(1), rs.getLong(2)));
+
+        ExcludedSlidesSyncResult result = ExcludedSlidesSyncResult.builder()
+            .synced(written.scanned())
+            .written(written.written())
+            .deleted(written.deleted())
+            .byReason(byReason)
+            .durationMs(System.currentTimeMillis() - startMs)
+            .build();
+        log.info("Slides excluidos: {} en la réplica, {} escritos, {} eliminados ({} ms)",
+            result.getSynced(), result.getWritten(), result.getDeleted(), result.getDurationMs());
+        return result;
+    }
+
+    /**
+     * Merge-join de los dos cursores ordenados por id.
+     * Los cursores de PostgreSQL solo respetan fetchSize dentro de una transacción,
+     * por eso cada lado se lee en una transacción de solo lectura.
+     */
+    private ReconciliationPlan buildPlan() {
+        TransactionTemplate replicaTx = new TransactionTemplate(replicaTransactionManager);
+        replicaTx.setReadOnly(true);
+        TransactionTemplate processedTx = new TransactionTemplate(processedTransactionManager);
+        processedTx.setReadOnly(true);
+
+        return replicaTx.execute(rs -> processedTx.execute(ps -> {
+            try (Stream<ReplicaRow> replica = replicaJdbc.queryForStream(con -> {
+                     PreparedStatement stmt = con.prepareStatement(RELEVANT_SLIDES_SQL);
+                     stmt.setFetchSize(FETCH_SIZE);
+                     return stmt;
+                 }, (row, i) -> new ReplicaRow(row.getInt(1), row.getTimestamp(2)));
+                 Stream<ProcessedRow> processed = processedJdbc.queryForStream(con -> {
+                     PreparedStatement stmt = con.prepareStatement("""
+                         SELECT COALESCE(t.slide_id, p.id) AS id, p.id IS NOT NULL AS has_slide,
+                                p.odoo_write_date, t.status
+                         FROM public.slide_processing_status t
+                         FULL JOIN slide_api.slides p ON p.id = t.slide_id
+                         ORDER BY 1
+                         """);
+                     stmt.setFetchSize(FETCH_SIZE);
+                     return stmt;
+                 }, (row, i) -> new ProcessedRow(row.getInt(1), row.getBoolean(2),
+                                                 row.getTimestamp(3), row.getString(4)))) {
+                return mergeJoin(replica.iterator(), processed.iterator());
+            }
+        }));
+    }
+
+    private ReconciliationPlan mergeJoin(Iterator<ReplicaRow> replica, Iterator<ProcessedRow> processed) {
+        ReconciliationPlan plan = new ReconciliationPlan();
+        ReplicaRow r = replica.hasNext() ? replica.next() : null;
+        ProcessedRow p = processed.hasNext() ? processed.next() : null;
+
+        while (r != null || p != null) {
+            int cmp = r == null ? 1 : p == null ? -1 : Integer.compare(r.id(), p.id());
+            if (cmp < 0) {
+                // Solo en réplica: slide nuevo o re-publicado
+                plan.toAdd.add(r.id());
+                plan.replicaRows++;
+                r = replica.hasNext() ? replica.next() : null;
+            } else if (cmp > 0) {
+                // Solo en procesados: archivado, despublicado o canal no apto
+                plan.toDelete.add(p.id());
+                plan.processedRows++;
+                p = processed.hasNext() ? processed.next() : null;
+            } else {
+                if (p.status() == null) {
+                    // Slide procesado sin tracking (p.ej. sincronización manual)
+                    plan.toAdd.add(r.id());
+                } else if ("COMPLETED".equals(p.status()) && isOutdated(r, p)) {
+                    plan.toUpdate.add(r.id());
+                }
+                plan.replicaRows++;
+                plan.processedRows++;
+                r = replica.hasNext() ? replica.next() : null;
+                p = processed.hasNext() ? processed.next() : null;
+            }
+        }
+        return plan;
+    }
+
+    private static boolean isOutdated(ReplicaRow r, ProcessedRow p) {
+        // COMPLETED sin fila en slides: el contenido se perdió, re-procesar
+        if (!p.hasSlide()) return true;
+        return r.writeDate() != null && (p.odooWriteDate() == null || r.writeDate().after(p.odooWriteDate()));
+    }
+
+    /**
+     * Elimina un bloque de slides de la BD procesada: imágenes, slide y tracking.
+     */
+    private void deleteSlides(List<Integer> slideIds) {
+        updateWithIds("DELETE FROM slide_api.slide_images WHERE slide_id = ANY(?::int[])", slideIds);
+        updateWithIds("DELETE FROM slide_api.slides WHERE id = ANY(?::int[])", slideIds);
+        updateWithIds("DELETE FROM public.slide_processing_status WHERE slide_id = ANY(?::int[])", slideIds);
+    }
+
+    /**
+     * DELETE masivo por IDs que devuelve {filas, bytes}: bytes almacenados de la columna
+     * indicada (pg_column_size lee el tamaño del valor TOAST sin descomprimirlo).
+     */
+    private long[] deleteReturningSizes(String table, String idColumn, String sizeColumn, List<Integer> ids) {
+        return processedJdbc.query(con -> {
+            PreparedStatement ps = con.prepareStatement("WITH d AS (DELETE FROM " + table
+                + " WHERE " + idColumn + " = ANY(?::int[]) RETURNING pg_column_size(" + sizeColumn + ") AS bytes)"
+                + " SELECT COUNT(*), COALESCE(SUM(bytes), 0) FROM d");
+            ps.setArray(1, con.createArrayOf("integer", ids.toArray()));
+            return ps;
+        }, rs -> {
+            rs.next();
+            return new long[] { rs.getLong(1), rs.getLong(2) };
+        });
+    }
+
+    private int updateWithIds(String sql, List<Integer> ids) {
+        return processedJdbc.update(con -> {
+            PreparedStatement ps = con.prepareStatement(sql);
+            ps.setArray(1, con.createArrayOf("integer", ids.toArray()));
+            return ps;
+        });
+    }
+
+    private static void forEachChunk(List<Integer> ids, java.util.function.Consumer<List<Integer>> action) {
+        for (int i = 0; i < ids.size(); i += APPLY_CHUNK_SIZE) {
+            action.accept(ids.subList(i, Math.min(i + APPLY_CHUNK_SIZE, ids.size())));
+        }
+    }
+
+    private record ReplicaRow(int id, Timestamp writeDate) {}
+
+    private record ProcessedRow(int id, boolean hasSlide, Timestamp odooWriteDate, String status) {}
+
+    /**
+     * Conjuntos resultantes del merge-join.
+     */
+    private static class ReconciliationPlan {
+        final List<Integer> toAdd = new ArrayList<>();
+        final List<Integer> toUpdate = new ArrayList<>();
+        final List<Integer> toDelete = new ArrayList<>();
+        int replicaRows;
+        int processedRows;
+    }
+}
@@ -0,0 +1,193 @@
+package com.uisep.slideapi.service;
+
+import com.uisep.slideapi.repository.replica.SlideSlideReplicaRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Regulador AIMD de las lecturas de la sincronización contra la réplica.
+ * Cada lectura por slide (metadatos y carga del jsonb) toma un permiso de concurrencia y un turno
+ * de ritmo. Un muestreo periódico mide el retraso de replicación y la latencia media de esas
+ * lecturas: si alguno supera su umbral el nivel se multiplica por {@code decrease-factor};
+ * si no, sube {@code increase-step}. El nivel fija los permisos de concurrencia (redondeado)
+ * y el ritmo máximo (nivel × {@code rate-per-permit} lecturas/s).
+ * Así la sincronización no empuja a la réplica más atrás de producción.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class SlideReplicaThrottle {
+
+    private final SlideSlideReplicaRepository replicaSlideRepo;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${migration.sync.throttle.enabled:true}")
+    private boolean enabled;
+
+    // Lecturas concurrentes máximas (el pool de la réplica tiene 5 conexiones)
+    @Value("${migration.sync.throttle.max-concurrency:4}")
+    private int maxConcurrency;
+
+    // Lecturas por segundo permitidas por cada unidad de nivel
+    @Value("${migration.sync.throttle.rate-per-permit:10}")
+    private double ratePerPermit;
+
+    // Retraso de replicación a partir del cual se frena
+    @Value("${migration.sync.throttle.lag-threshold-seconds:30}")
+    private double lagThresholdSeconds;
+
+    // Latencia media de lectura a partir de la cual se frena
+    @Value("${migration.sync.throttle.latency-threshold-ms:2000}")
+    private double latencyThresholdMs;
+
+    @Value("${migration.sync.throttle.increase-step:1.0}")
+    private double increaseStep;
+
+    @Value("${migration.sync.throttle.decrease-factor:0.5}")
+    private double decreaseFactor;
+
+    private AdjustableSemaphore permits;
+    private volatile double level;
+    private int grantedPermits;
+    private volatile double lagSeconds;
+    private volatile double latencyEwmaMs;
+    private final LongAdder readsSinceSample = new LongAdder();
+    private final AtomicLong nextSlotNanos = new AtomicLong(System.nanoTime());
+
+    @PostConstruct
+    void init() {
+        level = maxConcurrency;
+        grantedPermits = maxConcurrency;
+        permits = new AdjustableSemaphore(maxConcurrency);
+
+        Gauge.builder("slide.sync.replica.throttle.level", () -> level)
+            .description("Nivel AIMD actual de las lecturas de sincronización contra la réplica")
+            .register(meterRegistry);
+        Gauge.builder("slide.sync.replica.throttle.rate", this::currentRate)
+            .description("Lecturas por segundo permitidas contra la réplica")
+            .register(meterRegistry);
+        Gauge.builder("slide.sync.replica.lag.seconds", () -> lagSeconds)
+            .description("Último retraso de replicación medido")
+            .register(meterRegistry);
+        Gauge.builder("slide.sync.replica.read.latency.ms", () -> latencyEwmaMs)
+            .description("Latencia media móvil de las lecturas de sincronización")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Ejecuta una lectura de la réplica bajo el regulador y registra su latencia.
+     * La espera es interrumpible: el watchdog de plazo por slide puede cortarla.
+     */
+    public <T> T read(Supplier<T> read) {
+        if (!enabled) return read.get();
+        try {
+            permits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CancellationException("Espera del regulador de réplica interrumpida");
+        }
+        try {
+            awaitRateSlot();
+            long startNanos = System.nanoTime();
+            T result = read.get();
+            recordLatency(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos));
+            return result;
+        } finally {
+            permits.release();
+        }
+    }
+
+    /**
+     * Muestreo del retraso de replicación y ajuste AIMD. Solo consulta la réplica si hubo
+     * lecturas desde la muestra anterior.
+     */
+    @Scheduled(fixedDelayString = "${migration.sync.throttle.sample-interval-ms:5000}")
+    void sample() {
+        if (!enabled || readsSinceSample.sumThenReset() == 0) return;
+        try {
+            Double lag = replicaSlideRepo.getReplicationLagSeconds();
+            lagSeconds = lag != null ? lag : 0;
+        } catch (Exception e) {
+            log.warn("Regulador de réplica: no se pudo medir el retraso: {}", e.getMessage());
+        }
+        adjust(lagSeconds > lagThresholdSeconds || latencyEwmaMs > latencyThresholdMs);
+    }
+
+    private synchronized void adjust(boolean congested) {
+        double previous = level;
+        level = congested
+            ? Math.max(1, level * decreaseFactor)
+            : Math.min(maxConcurrency, level + increaseStep);
+
+        int target = (int) Math.round(level);
+        if (target > grantedPermits) {
+            permits.release(target - grantedPermits);
+        } else if (target < grantedPermits) {
+            permits.reducePermits(grantedPermits - target);
+        }
+        grantedPermits = target;
+
+        if (congested && level < previous) {
+            log.warn("Regulador de réplica: retraso {} s, latencia {} ms → nivel {} ({} lecturas/s)",
+                String.format("%.1f", lagSeconds), Math.round(latencyEwmaMs),
+                String.format("%.1f", level), Math.round(currentRate()));
+        } else if (level != previous) {
+            log.debug("Regulador de réplica: nivel {} → {}", previous, level);
+        }
+    }
+
+    /**
+     * Espaciado de las lecturas según el ritmo permitido (turnos consecutivos sin bloqueo).
+     */
+    private void awaitRateSlot() {
+        long intervalNanos = (long) (1_000_000_000L / Math.max(0.1, currentRate()));
+        long now = System.nanoTime();
+        long slot = nextSlotNanos.getAndAccumulate(now, (next, current) -> Math.max(next, current) + intervalNanos);
+        long waitNanos = Math.max(slot, now) - now;
+        if (waitNanos > 0) {
+            try {
+                TimeUnit.NANOSECONDS.sleep(waitNanos);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new CancellationException("Espera del regulador de réplica interrumpida");
+            }
+        }
+    }
+
+    private void recordLatency(long elapsedMs) {
+        readsSinceSample.increment();
+        // Media móvil exponencial (α = 0.2); las carreras entre hilos solo pierden alguna muestra
+        latencyEwmaMs = latencyEwmaMs == 0 ? elapsedMs : latencyEwmaMs * 0.8 + elapsedMs * 0.2;
+    }
+
+    private double currentRate() {
+        return level * ratePerPermit;
+    }
+
+    /**
+     * Semaphore con reducción de permisos pública para redimensionar la concurrencia en caliente.
+     */
+    private static final class AdjustableSemaphore extends Semaphore {
+        AdjustableSemaphore(int permits) {
+            super(permits, true);
+        }
+
+        @Override
+        protected void reducePermits(int reduction) {
+            super.reducePermits(reduction);
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package com.uisep.slideapi.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.PreparedStatement;
+import java.util.List;
+
+/**
+ * Política de reintentos de slides fallidos.
+ * Cada fallo incrementa retry_count y programa next_attempt_at con backoff exponencial
+ * (base × 2^fallos previos, con tope); al alcanzar el máximo de intentos el slide pasa a
+ * DEAD_LETTER y deja de entrar en la cola hasta que un administrador lo re-encole.
+ * Se aplica en SQL sobre el tracking para servir igual a la ruta JPA y a las escrituras batch.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class SlideRetryPolicy {
+
+    @Qualifier("processedJdbcTemplate")
+    private final JdbcTemplate processedJdbc;
+
+    // Intentos fallidos tras los que el slide pasa a DEAD_LETTER
+    @Value("${migration.sync.retry.max-attempts:5}")
+    private int maxAttempts;
+
+    // Espera tras el primer fallo; se duplica con cada fallo siguiente
+    @Value("${migration.sync.retry.base-delay-minutes:15}")
+    private long baseDelayMinutes;
+
+    // Tope de la espera entre reintentos
+    @Value("${migration.sync.retry.max-delay-hours:24}")
+    private long maxDelayHours;
+
+    /**
+     * Registra un fallo más para los slides indicados (ya marcados FAILED en el tracking)
+     * y programa su próximo intento o los mueve a DEAD_LETTER.
+     *
+     * @return Slides que pasaron a DEAD_LETTER
+     */
+    public int recordFailure(List<Integer> slideIds) {
+        if (slideIds.isEmpty()) return 0;
+        List<String> statuses = processedJdbc.query(con -> {
+            PreparedStatement ps = con.prepareStatement("""
+                UPDATE public.slide_processing_status SET
+                    retry_count = COALESCE(retry_count, 0) + 1,
+                    status = CASE WHEN COALESCE(retry_count, 0) + 1 >= ? THEN 'DEAD_LETTER' ELSE 'FAILED' END,
+                    next_attempt_at = CASE WHEN COALESCE(retry_count, 0) + 1 >= ? THEN NULL
+                        ELSE LOCALTIMESTAMP
+                             + LEAST(? * power(2, COALESCE(retry_count, 0)), ?) * INTERVAL '1 minute' END
+                WHERE slide_id = ANY(?::int[])
+                RETURNING status
+                """);
+            ps.setInt(1, maxAttempts);
+            ps.setInt(2, maxAttempts);
+            ps.setLong(3, baseDelayMinutes);
+            ps.setLong(4, maxDelayHours * 60);
+            ps.setArray(5, con.createArrayOf("integer", slideIds.toArray()));
+            return ps;
+        }, (rs, i) -> rs.getString(1));
+
+        int deadLettered = (int) statuses.stream().filter("DEAD_LETTER"::equals).count();
+        if (deadLettered > 0) {
+            log.warn("{} slides agotaron {} intentos → DEAD_LETTER", deadLettered, maxAttempts);
+        }
+        return deadLettered;
+    }
+
+    /**
+     * Devuelve slides DEAD_LETTER a la cola (PENDING, contador a cero).
+     *
+     * @param slideIds IDs concretos, o null para re-encolar todos
+     * @return Slides re-encolados
+     */
+    public int requeueDeadLetters(List<Integer> slideIds) {
+        String sql = """
+            UPDATE public.slide_processing_status
+            SET status = 'PENDING', retry_count = 0, next_attempt_at = NULL
+            WHERE status = 'DEAD_LETTER'
+            """;
+        int requeued = slideIds == null
+            ? processedJdbc.update(sql)
+            : processedJdbc.update(con -> {
+                PreparedStatement ps = con.prepareStatement(sql + " AND slide_id = ANY(?::int[])");
+                ps.setArray(1, con.createArrayOf("integer", slideIds.toArray()));
+                return ps;
+            });
+        log.info("Re-encolados {} slides desde DEAD_LETTER", requeued);
+        return requeued;
+    }
+}
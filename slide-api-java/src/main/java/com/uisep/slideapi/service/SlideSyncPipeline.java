@@ -0,0 +1,378 @@
+package com.uisep.slideapi.service;
+
+import com.uisep.slideapi.dto.SlideDTO.MigrationResult;
+import com.uisep.slideapi.entity.processed.SlideImage;
+import com.uisep.slideapi.entity.replica.SlideSlideReplica;
+import com.uisep.slideapi.service.SlideDeadlineWatchdog.SlideTimeoutException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+
+/**
+ * Pipeline por etapas para la sincronización de slides:
+ * <ul>
+ *   <li>fetch (E/S): metadatos, slide completo de la réplica y descarga de archivos de Odoo</li>
+ *   <li>extract (CPU): decodificación Base64 y reescritura del HTML, un hilo por núcleo</li>
+ *   <li>persist: un único escritor que agrupa batch-size slides por transacción</li>
+ * </ul>
+ * Las etapas se comunican por colas acotadas: si una etapa se satura, la anterior se bloquea
+ * (backpressure) en lugar de acumular slides en memoria.
+ * Antes de cargar un slide se adquieren permisos de memoria por su tamaño
+ * ({@link SlideAdmissionController}); los slides sobredimensionados van a un carril exclusivo
+ * de un solo hilo que hace fetch y extract sin competir con otros slides grandes.
+ * Cada etapa de un slide corre bajo el plazo de {@link SlideDeadlineWatchdog}.
+ * Se crea una instancia por ejecución desde {@link SlideSyncService}.
+ */
+@Slf4j
+final class SlideSyncPipeline {
+
+    static final String STAGE_FETCH = "fetch";
+    static final String STAGE_EXTRACT = "extract";
+    static final String STAGE_PERSIST = "persist";
+    static final String STAGE_OVERSIZE = "oversize";
+
+    // Marca de fin de la etapa persist (siempre es el último elemento de la cola)
+    private static final StagedSlide END = new StagedSlide(-1);
+
+    private final SlideSyncService sync;
+    private final SlidePipelineMetrics metrics;
+    private final SlideAdmissionController admission;
+    private final int fetchThreads;
+    private final int extractThreads;
+    private final int batchSize;
+    private final int queueCapacity;
+
+    private final BlockingQueue<Runnable> fetchQueue;
+    private final BlockingQueue<Runnable> extractQueue;
+    private final BlockingQueue<StagedSlide> persistQueue;
+    // Solo IDs en espera: el contenido se carga al entrar al carril
+    private final BlockingQueue<Runnable> oversizeQueue = new LinkedBlockingQueue<>();
+    // Slides con permisos de memoria aún no liberados
+    private final Set<StagedSlide> admitted = ConcurrentHashMap.newKeySet();
+
+    private final StageStats fetchStats;
+    private final StageStats extractStats;
+    private final StageStats persistStats;
+
+    SlideSyncPipeline(SlideSyncService sync, SlidePipelineMetrics metrics, SlideAdmissionController admission,
+                      int fetchThreads, int extractThreads, int queueCapacity, int batchSize) {
+        this.sync = sync;
+        this.metrics = metrics;
+        this.admission = admission;
+        this.fetchThreads = Math.max(1, fetchThreads);
+        this.extractThreads = extractThreads > 0 ? extractThreads : Runtime.getRuntime().availableProcessors();
+        this.batchSize = batchSize;
+        this.queueCapacity = queueCapacity;
+        this.fetchQueue = new ArrayBlockingQueue<>(queueCapacity);
+        this.extractQueue = new ArrayBlockingQueue<>(queueCapacity);
+        this.persistQueue = new ArrayBlockingQueue<>(queueCapacity);
+        this.fetchStats = new StageStats(STAGE_FETCH);
+        this.extractStats = new StageStats(STAGE_EXTRACT);
+        this.persistStats = new StageStats(STAGE_PERSIST);
+    }
+
+    /**
+     * Procesa los slides y entrega cada resultado a {@code onResult} desde el hilo llamador,
+     * que actúa como escritor de la etapa persist. Bloquea hasta terminar.
+     * Si {@code cancelRequested} se activa deja de alimentar el pipeline y vacía lo que ya está en curso.
+     */
+    void run(List<Integer> slideIds, Map<Integer, String> channelNames, String syncRunId,
+             BooleanSupplier cancelRequested, Consumer<MigrationResult> onResult) {
+        long startMs = System.currentTimeMillis();
+        ConcurrentMap<String, String> urlsByHash = sync.loadImageUrlsByHash();
+        Map<Integer, Long> contentSizes = sync.loadContentSizes(slideIds);
+        ThreadPoolExecutor fetchPool = boundedPool("sync-fetch", fetchThreads, fetchQueue);
+        ThreadPoolExecutor extractPool = boundedPool("sync-extract", extractThreads, extractQueue);
+        ThreadPoolExecutor oversizePool = boundedPool("sync-oversize", 1, oversizeQueue);
+        metrics.bindQueue(STAGE_FETCH, fetchQueue);
+        metrics.bindQueue(STAGE_OVERSIZE, oversizeQueue);
+        metrics.bindQueue(STAGE_EXTRACT, extractQueue);
+        metrics.bindQueue(STAGE_PERSIST, persistQueue);
+
+        log.info("Pipeline: {} hilos fetch, {} hilos extract, lotes de {} slides, colas de {}",
+            fetchThreads, extractThreads, batchSize, queueCapacity);
+
+        // Fallo del alimentador (p.ej. la consulta de cancelación): el escritor lo relanza al terminar
+        AtomicReference<Throwable> feederFailure = new AtomicReference<>();
+        Thread feeder = new Thread(() -> {
+            try {
+                for (Integer slideId : slideIds) {
+                    if (cancelRequested.getAsBoolean()) {
+                        log.info("Pipeline: cancelación solicitada → sin alimentar más slides");
+                        break;
+                    }
+                    StagedSlide staged = new StagedSlide(slideId);
+                    staged.weight = admission.weigh(contentSizes.get(slideId));
+                    if (admission.isOversize(staged.weight)) {
+                        admission.countOversize();
+                        oversizePool.execute(() -> fetch(staged, channelNames, null, urlsByHash));
+                    } else {
+                        fetchPool.execute(() -> fetch(staged, channelNames, extractPool, urlsByHash));
+                    }
+                }
+            } catch (RejectedExecutionException e) {
+                // El escritor abortó y cerró los pools: no esperar a nadie más
+                Thread.currentThread().interrupt();
+                log.warn("Pipeline: alimentación interrumpida: {}", e.getMessage());
+            } catch (Throwable e) {
+                feederFailure.set(e);
+                log.error("Pipeline: fallo alimentando slides, se vacía lo que ya está en curso", e);
+            } finally {
+                // Siempre se cierran las etapas y se publica END, o el escritor esperaría para siempre
+                try {
+                    // Cierre en orden: cada etapa termina antes de cerrar la siguiente
+                    fetchPool.shutdown();
+                    oversizePool.shutdown();
+                    fetchPool.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+                    oversizePool.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+                    extractPool.shutdown();
+                    extractPool.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+                    persistQueue.put(END);
+                } catch (InterruptedException e) {
+                    fetchPool.shutdownNow();
+                    oversizePool.shutdownNow();
+                    extractPool.shutdownNow();
+                }
+            }
+        }, "sync-pipeline-feeder");
+        feeder.start();
+
+        boolean completed = false;
+        try {
+            List<StagedSlide> batch = new ArrayList<>(batchSize);
+            while (!completed) {
+                batch.add(persistQueue.take());
+                persistQueue.drainTo(batch, batchSize - 1);
+                if (batch.get(batch.size() - 1) == END) {
+                    batch.remove(batch.size() - 1);
+                    completed = true;
+                }
+                if (!batch.isEmpty()) {
+                    persist(batch, channelNames, syncRunId).forEach(onResult);
+                }
+                batch.clear();
+            }
+            if (feederFailure.get() != null) {
+                throw new IllegalStateException("Pipeline de sincronización: fallo al alimentar slides",
+                    feederFailure.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Pipeline de sincronización interrumpido", e);
+        } finally {
+            if (!completed) {
+                fetchPool.shutdownNow();
+                oversizePool.shutdownNow();
+                extractPool.shutdownNow();
+                feeder.interrupt();
+            }
+            // El presupuesto es global: no dejar permisos retenidos por una ejecución abortada
+            admitted.forEach(this::release);
+            metrics.unbindQueues();
+            long elapsedMs = System.currentTimeMillis() - startMs;
+            fetchStats.log(elapsedMs);
+            extractStats.log(elapsedMs);
+            persistStats.log(elapsedMs);
+        }
+    }
+
+    /**
+     * Etapa fetch. Con {@code extractPool} null (carril exclusivo) la extracción se hace en el mismo hilo.
+     */
+    private void fetch(StagedSlide staged, Map<Integer, String> channelNames, ThreadPoolExecutor extractPool,
+                       ConcurrentMap<String, String> urlsByHash) {
+        try {
+            staged.permit = admission.acquire(staged.weight);
+            admitted.add(staged);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        long start = System.nanoTime();
+        try {
+            sync.fetchStage(staged, channelNames);
+        } catch (Exception | OutOfMemoryError e) {
+            staged.error = e;
+        }
+        staged.workNanos += fetchStats.record(start, 1);
+
+        if (staged.result != null || staged.error != null) {
+            handOff(staged);
+        } else if (extractPool == null) {
+            extract(staged, urlsByHash);
+        } else {
+            extractPool.execute(() -> extract(staged, urlsByHash));
+        }
+    }
+
+    private void extract(StagedSlide staged, ConcurrentMap<String, String> urlsByHash) {
+        long start = System.nanoTime();
+        try {
+            sync.extractStage(staged, urlsByHash);
+        } catch (Exception | OutOfMemoryError e) {
+            staged.error = e;
+        }
+        staged.workNanos += extractStats.record(start, 1);
+        handOff(staged);
+    }
+
+    private void handOff(StagedSlide staged) {
+        try {
+            persistQueue.put(staged);
+        } catch (InterruptedException e) {
+            release(staged);
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void release(StagedSlide staged) {
+        if (admitted.remove(staged)) {
+            staged.permit.release();
+        }
+    }
+
+    /**
+     * Escribe un lote en una transacción. Si falla, o si el slide falló en una etapa anterior,
+     * cada slide pasa por la ruta individual y queda FAILED con el mismo detalle que en per-slide.
+     */
+    private List<MigrationResult> persist(List<StagedSlide> batch, Map<Integer, String> channelNames,
+                                          String syncRunId) {
+        long start = System.nanoTime();
+        List<MigrationResult> results = new ArrayList<>(batch.size());
+        List<StagedSlide> ready = new ArrayList<>(batch.size());
+        List<StagedSlide> failed = new ArrayList<>();
+        for (StagedSlide staged : batch) {
+            (staged.error == null ? ready : failed).add(staged);
+        }
+
+        if (!ready.isEmpty()) {
+            try {
+                results.addAll(sync.persistStage(ready, channelNames, syncRunId));
+            } catch (Exception | OutOfMemoryError e) {
+                log.warn("Lote de {} slides revertido en persist: {} → ruta individual", ready.size(), e.getMessage());
+                sync.saveStagedImages(ready);
+                for (StagedSlide staged : ready) {
+                    results.add(sync.processSlideIsolated(staged.slideId, channelNames, syncRunId));
+                }
+            }
+        }
+        if (!failed.isEmpty()) {
+            // Las imágenes ya asignadas por hash pueden estar referenciadas desde otros slides
+            sync.saveStagedImages(failed);
+        }
+        for (StagedSlide staged : failed) {
+            if (staged.error instanceof SlideTimeoutException timeout) {
+                // Superó su plazo: reintentarlo solo repetiría la espera
+                results.add(sync.recordTimeout(staged.slideId, syncRunId, timeout));
+                continue;
+            }
+            log.warn("Slide {} falló antes de persist: {} → ruta individual", staged.slideId, staged.error.getMessage());
+            results.add(sync.processSlideIsolated(staged.slideId, channelNames, syncRunId));
+        }
+        // Contenido ya escrito: devolver su memoria al presupuesto
+        batch.forEach(this::release);
+        persistStats.record(start, batch.size());
+        return results;
+    }
+
+    /**
+     * Pool de tamaño fijo cuya cola acotada bloquea al productor cuando está llena.
+     */
+    private static ThreadPoolExecutor boundedPool(String name, int threads, BlockingQueue<Runnable> queue) {
+        AtomicInteger counter = new AtomicInteger();
+        return new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS, queue,
+            runnable -> {
+                Thread thread = new Thread(runnable, name + "-" + counter.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            },
+            (runnable, executor) -> {
+                if (executor.isShutdown()) throw new RejectedExecutionException(name + " cerrado");
+                try {
+                    executor.getQueue().put(runnable);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new RejectedExecutionException(name + " interrumpido", e);
+                }
+            });
+    }
+
+    /**
+     * Slide en tránsito entre etapas. Cada etapa escribe sus campos antes de pasarlo a la
+     * siguiente cola (la cola establece el happens-before entre hilos).
+     */
+    static final class StagedSlide {
+        final Integer slideId;
+        // Peso estimado en heap y permisos de memoria adquiridos en fetch
+        long weight;
+        SlideAdmissionController.Permit permit;
+        // Tiempo de trabajo en fetch + extract (sin esperas en cola)
+        long workNanos;
+        SlideSlideReplica replica;
+        String fingerprint;
+        boolean fileDownloaded;
+        SlideSyncService.SlideContent content;
+        String processedHtml;
+        int imagesExtracted;
+        final List<SlideImage> newImages = new ArrayList<>();
+        // Resultado ya resuelto en fetch (ruta rápida, sin cambios o no encontrado)
+        MigrationResult result;
+        // Fallo en fetch o extract: el slide se re-procesa por la ruta individual
+        Throwable error;
+
+        StagedSlide(Integer slideId) {
+            this.slideId = slideId;
+        }
+    }
+
+    /**
+     * Throughput y tiempo de trabajo acumulado de una etapa, con su réplica en Micrometer.
+     */
+    private final class StageStats {
+        private final String stage;
+        private final LongAdder items = new LongAdder();
+        private final LongAdder busyNanos = new LongAdder();
+        private final Timer timer;
+        private final Counter counter;
+
+        StageStats(String stage) {
+            this.stage = stage;
+            this.timer = metrics.stageTimer(stage);
+            this.counter = metrics.stageCounter(stage);
+        }
+
+        long record(long startNanos, int count) {
+            long nanos = System.nanoTime() - startNanos;
+            items.add(count);
+            busyNanos.add(nanos);
+            timer.record(nanos, TimeUnit.NANOSECONDS);
+            counter.increment(count);
+            return nanos;
+        }
+
+        void log(long elapsedMs) {
+            long total = items.sum();
+            double rate = elapsedMs > 0 ? total * 1000.0 / elapsedMs : 0;
+            log.info("Pipeline [{}]: {} slides, {} ms de trabajo, {} slides/seg",
+                stage, total, TimeUnit.NANOSECONDS.toMillis(busyNanos.sum()), String.format("%.1f", rate));
+        }
+    }
+}
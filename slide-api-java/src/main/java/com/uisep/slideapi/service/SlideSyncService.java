@@ -1,31 +1,45 @@
 package com.uisep.slideapi.service;
 
 import com.uisep.slideapi.dto.SlideDTO.*;
-import com.uisep.slideapi.entity.processed.ProcessedChannel;
 import com.uisep.slideapi.entity.processed.ProcessedSlide;
+import com.uisep.slideapi.entity.processed.SlideImage;
 import com.uisep.slideapi.entity.processed.SlideProcessingStatus;
 import com.uisep.slideapi.entity.replica.SlideChannelReplica;
 import com.uisep.slideapi.entity.replica.SlideSlideReplica;
 import com.uisep.slideapi.entity.processed.SlideSyncLog;
-import com.uisep.slideapi.repository.processed.ProcessedChannelRepository;
 import com.uisep.slideapi.repository.processed.ProcessedSlideRepository;
 import com.uisep.slideapi.repository.processed.SlideImageRepository;
-import com.uisep.slideapi.repository.processed.SlideSyncLogRepository;
 import com.uisep.slideapi.repository.processed.SlideProcessingStatusRepository;
 import com.uisep.slideapi.repository.replica.SlideChannelReplicaRepository;
 import com.uisep.slideapi.repository.replica.SlideSlideReplicaRepository;
 import com.uisep.slideapi.service.OdooFileService;
+import com.uisep.slideapi.service.SlideDeadlineWatchdog.SlideDeadline;
+import com.uisep.slideapi.service.SlideDeadlineWatchdog.SlideTimeoutException;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.nio.file.Path;
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.sql.Types;
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+import java.util.function.BooleanSupplier;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
 /**
  * Servicio principal para sincronizar datos desde la réplica y procesarlos.
@@ -38,173 +52,503 @@ public class SlideSyncService {
     private final SlideSlideReplicaRepository replicaSlideRepo;
     private final SlideChannelReplicaRepository replicaChannelRepo;
     private final ProcessedSlideRepository processedSlideRepo;
-    private final ProcessedChannelRepository processedChannelRepo;
     private final SlideImageRepository imageRepo;
     private final SlideProcessingStatusRepository processingStatusRepo;
     private final Base64ImageExtractor imageExtractor;
     private final OdooFileService odooFileService;
-    private final SlideSyncLogRepository syncLogRepo;
-    
+    private final SyncLogWriter syncLogWriter;
+    private final SlideReconciliationService reconciliationService;
+    private final SlidePipelineMetrics pipelineMetrics;
+    private final SlideAdmissionController admissionController;
+    private final SlideDeadlineWatchdog deadlineWatchdog;
+    private final SlideRetryPolicy retryPolicy;
+    private final SlidePriorityService priorityService;
+    private final SlideClaimService claimService;
+    private final SlideReplicaThrottle replicaThrottle;
+    private final SyncProgressTracker progressTracker;
+    private final ReplicaScanService replicaScanService;
+    private final SlideBase64InventoryService base64Inventory;
+    private final DepurationStatsService depurationStats;
+
+    @Qualifier("processedJdbcTemplate")
+    private final JdbcTemplate processedJdbc;
+
+    @Qualifier("processedTransactionManager")
+    private final PlatformTransactionManager processedTransactionManager;
+
+    @Qualifier("replicaTransactionManager")
+    private final PlatformTransactionManager replicaTransactionManager;
+
+    // Slides por transacción en modo chunked
     @Value("${migration.base64.batch-size:10}")
     private int batchSize;
+
+    // per-slide: una transacción por slide (comportamiento original)
+    // chunked: batch-size slides por transacción, escrituras agrupadas en batch JDBC
+    // pipeline: etapas fetch → extract → persist en paralelo, lotes de batch-size slides
+    @Value("${migration.sync.commit-mode:chunked}")
+    private String commitMode;
+
+    // Hilos de E/S contra la réplica (no superar el pool ReplicaPool)
+    @Value("${migration.sync.pipeline.fetch-threads:4}")
+    private int pipelineFetchThreads;
+
+    // Hilos de extracción Base64 (0 = núcleos disponibles)
+    @Value("${migration.sync.pipeline.extract-threads:0}")
+    private int pipelineExtractThreads;
+
+    // Capacidad de cada cola entre etapas
+    @Value("${migration.sync.pipeline.queue-capacity:32}")
+    private int pipelineQueueCapacity;
     
     @Value("${api.base-url:http://localhost:8080}")
     private String apiBaseUrl;
 
+    // Eliminar en la sincronización completa los slides que dejaron de ser relevantes
+    @Value("${migration.sync.reconcile-deletes:true}")
+    private boolean reconcileDeletes;
+
+    // URL pública de los archivos servidos por FileController (descarga diferida desde Odoo)
+    static final String FILES_BASE_URL = "https://slides.universidadisep.com/api/v1/files/";
+
     private String getBaseUrl() {
         return apiBaseUrl;
     }
     
-    /**
-     * Sincronización programada automática.
-     * Se ejecuta según el cron definido en application.yml
-     */
-    @Scheduled(cron = "${migration.sync.cron:0 0 */6 * * *}")
-    public void scheduledSync() {
-        log.info("Iniciando sincronización programada...");
-        try {
-            SyncResult result = syncAllSlides(true);
-            log.info("Sincronización completada: {} slides procesados, {} creados, {} actualizados",
-                result.getSlidesProcessed(), result.getSlidesCreated(), result.getSlidesUpdated());
-        } catch (Exception e) {
-            log.error("Error en sincronización programada", e);
-        }
-    }
-    
     /**
      * Inicializa tabla de tracking con todos los slides activos.
-     * Solo crea registros para slides que no existen en el tracking.
+     * Solo crea registros para slides que no existen en el tracking (reconciliación sin bajas).
      */
-    @Transactional("processedTransactionManager")
     public void initializeTracking() {
-        List<Integer> activeSlideIds = replicaSlideRepo.findActiveSlideIds();
-        int initialized = 0;
-        
-        log.info("Inicializando tracking para {} slides activos...", activeSlideIds.size());
-        
-        for (Integer slideId : activeSlideIds) {
-            if (!processingStatusRepo.existsById(slideId)) {
-                SlideProcessingStatus status = SlideProcessingStatus.builder()
-                    .slideId(slideId)
-                    .status(SlideProcessingStatus.ProcessingStatus.PENDING)
-                    .retryCount(0)
-                    .build();
-                processingStatusRepo.save(status);
-                initialized++;
-            }
-        }
-        
-        log.info("Tracking inicializado: {} nuevos registros", initialized);
+        ReconciliationResult result = reconciliationService.reconcile(true, false);
+        log.info("Tracking inicializado: {} nuevos registros", result.getAdded());
     }
     
     /**
      * Sincroniza todos los slides activos desde la réplica.
      * Usa tracking para procesar slide por slide y permitir reanudar.
-     * SIN @Transactional aquí - cada slide tiene su propia transacción.
+     * SIN @Transactional aquí - cada bloque (o slide) tiene su propia transacción.
+     * 
+     * Admite cancelación cooperativa: deja de tomar slides de la cola y termina los que están en
+     * curso; los no procesados siguen PENDING para la próxima ejecución.
+     * La exclusión mutua entre ejecuciones la aplica {@link SyncJobService}.
      * 
      * @param activeOnly Si true, solo procesa slides activos
+     * @param syncRunId ID de la ejecución para el log de sincronización
+     * @param cancelRequested Consultado entre bloques (o slides) para detener la ejecución
      * @return Resultado de la sincronización
      */
-    public SyncResult syncAllSlides(boolean activeOnly) {
-        String syncRunId = java.util.UUID.randomUUID().toString();
+    public SyncResult syncAllSlides(boolean activeOnly, String syncRunId, BooleanSupplier cancelRequested) {
         LocalDateTime startTime = LocalDateTime.now();
         long startMs = System.currentTimeMillis();
         
-        List<MigrationResult> migrationResults = new ArrayList<>();
-        int created = 0, updated = 0, failed = 0, totalProcessed = 0;
-        long totalOriginalSize = 0, totalProcessedSize = 0;
-        
-        // Cargar canales para enriquecer nombres
-        Map<Integer, String> channelNames = loadChannelNames();
-        
-        // 1. Resetear slides que cambiaron en Odoo desde la última sincronización
-        int outdatedReset = resetOutdatedSlides();
-        if (outdatedReset > 0) {
-            log.info("Detectados {} slides modificados en Odoo → reseteados a PENDING", outdatedReset);
+        // 1-2. Reconciliar en una pasada: altas (tracking nuevo), cambios en Odoo → PENDING
+        //      y bajas de slides que dejaron de ser relevantes
+        ReconciliationResult reconciliation = reconciliationService.reconcile(true, reconcileDeletes);
+        if (reconciliation.getUpdated() > 0) {
+            log.info("Detectados {} slides modificados en Odoo → reseteados a PENDING", reconciliation.getUpdated());
         }
-
-        // 2. Inicializar tracking si es necesario
-        initializeTracking();
         
-        // 3. Resetear slides que quedaron en PROCESSING (por interrupciones previas)
-        List<SlideProcessingStatus> stuckInProcessing = processingStatusRepo.findByStatus(
-            SlideProcessingStatus.ProcessingStatus.PROCESSING);
-        for (SlideProcessingStatus stuck : stuckInProcessing) {
-            stuck.setStatus(SlideProcessingStatus.ProcessingStatus.PENDING);
-            processingStatusRepo.save(stuck);
-        }
+        // 3. Recalcular prioridades (vistas, canal, recencia)
+        priorityService.refreshPriorities();
         
-        // 4. Obtener slides pendientes o fallidos
-        List<Integer> slideIds = processingStatusRepo.findPendingSlideIds();
-        int totalSlides = slideIds.size();
+        // 4. Drenar la cola por lotes reclamados en orden de puntuación. Otros nodos pueden reclamar
+        //    lotes de la misma cola; los PROCESSING de ejecuciones caídas se recuperan al vencer su lease
+        SyncResult result = syncClaimed(syncRunId, cancelRequested);
         
-        log.info("Iniciando sincronización: {} slides pendientes...", totalSlides);
+        // Sincronizar canales
+        int channelsProcessed = syncChannels();
         
-        for (Integer slideId : slideIds) {
-            try {
-                // Procesar en transacción individual
-                MigrationResult result = processSingleSlideWithTracking(slideId, channelNames, syncRunId);
-                
-                migrationResults.add(result);
-                
-                if ("CREATED".equals(result.getStatus())) created++;
-                else if ("UPDATED".equals(result.getStatus())) updated++;
-                else if ("FAILED".equals(result.getStatus())) failed++;
-                
-                totalOriginalSize += result.getOriginalSize() != null ? result.getOriginalSize() : 0;
-                totalProcessedSize += result.getNewSize() != null ? result.getNewSize() : 0;
-                
-            } catch (Exception e) {
-                log.error("Error crítico procesando slide {}: {}", slideId, e.getMessage());
-                failed++;
-                migrationResults.add(MigrationResult.builder()
-                    .slideId(slideId)
-                    .slideName("Unknown")
-                    .status("FAILED")
-                    .message("Error crítico: " + e.getMessage())
-                    .processedAt(LocalDateTime.now())
-                    .build());
-            }
-            
-            totalProcessed++;
-            
-            // Log progreso cada 50 slides (más frecuente para mejor visibilidad)
-            if (totalProcessed % 50 == 0) {
-                long elapsed = System.currentTimeMillis() - startMs;
-                double rate = totalProcessed / (elapsed / 1000.0);
-                int remaining = totalSlides - totalProcessed;
-                int etaSeconds = (int) (remaining / rate);
-                
-                log.info("Progreso: {}/{} slides ({} creados, {} actualizados, {} fallidos) - {:.1f} slides/seg - ETA: {}s",
-                    totalProcessed, totalSlides, created, updated, failed, rate, etaSeconds);
-            }
-            
-            // Limitar resultados en memoria
-            if (migrationResults.size() > 1000) {
-                migrationResults = migrationResults.subList(migrationResults.size() - 100, migrationResults.size());
-            }
+        result.setStartedAt(startTime);
+        result.setCompletedAt(LocalDateTime.now());
+        result.setDurationMs(System.currentTimeMillis() - startMs);
+        result.setChannelsProcessed(channelsProcessed);
+        return result;
+    }
+    
+    /**
+     * Procesa una lista concreta de slides con tracking, en bloques de batch-size slides por
+     * transacción (commit-mode chunked) o una transacción por slide (per-slide).
+     * Usado por la sincronización completa y por la incremental (solo slides cambiados).
+     * No sincroniza canales.
+     * 
+     * @param slideIds IDs de slides a procesar
+     * @param syncRunId ID de la ejecución para el log de sincronización
+     * @return Resultado de la sincronización
+     */
+    public SyncResult syncSlideIds(List<Integer> slideIds, String syncRunId) {
+        return syncSlideIds(slideIds, syncRunId, resolveCommitMode(), () -> false);
+    }
+    
+    /**
+     * Igual que {@link #syncSlideIds(List, String)} con un modo de commit explícito y cancelación.
+     */
+    private SyncResult syncSlideIds(List<Integer> slideIds, String syncRunId, String mode,
+                                    BooleanSupplier cancelRequested) {
+        log.info("Iniciando sincronización: {} slides pendientes...", slideIds.size());
+        return runTallied(slideIds.size(), mode, (channelNames, tally) ->
+            processIds(slideIds, channelNames, syncRunId, mode, cancelRequested, tally));
+    }
+    
+    /**
+     * Drena la cola compartida de tracking por lotes reclamados con {@link SlideClaimService}
+     * hasta que no quede trabajo libre o se cancele. Varios nodos pueden ejecutarlo a la vez
+     * sobre la misma cola sin procesar dos veces un slide.
+     * No sincroniza canales.
+     *
+     * @param syncRunId ID de la ejecución para el log de sincronización
+     * @param cancelRequested Consultado entre lotes para detener la ejecución
+     * @return Resultado de los slides procesados por este worker
+     */
+    public SyncResult syncClaimed(String syncRunId, BooleanSupplier cancelRequested) {
+        String mode = resolveCommitMode();
+        int claimable = claimService.countClaimable();
+        try (SlideClaimService.Worker worker = claimService.openWorker()) {
+            log.info("Iniciando sincronización por lotes reclamados (worker {}): {} slides en cola...",
+                worker.getWorkerId(), claimable);
+            return runTallied(claimable, mode, (channelNames, tally) -> {
+                while (!cancelRequested.getAsBoolean()) {
+                    List<Integer> claimed = worker.claimBatch();
+                    if (claimed.isEmpty()) break;
+                    processIds(claimed, channelNames, syncRunId, mode, cancelRequested, tally);
+                }
+            });
         }
+    }
+    
+    /**
+     * Ejecuta {@code work} con el acumulador, el progreso en vivo y las métricas de la ejecución.
+     *
+     * @param expectedSlides Slides previstos (progreso y ETA)
+     */
+    private SyncResult runTallied(int expectedSlides, String mode,
+                                  BiConsumer<Map<Integer, String>, SyncTally> work) {
+        LocalDateTime startTime = LocalDateTime.now();
+        long startMs = System.currentTimeMillis();
         
-        // Sincronizar canales
-        int channelsProcessed = syncChannels();
+        // Cargar canales para enriquecer nombres
+        Map<Integer, String> channelNames = loadChannelNames();
+        SyncTally tally = new SyncTally(expectedSlides, startMs, progressTracker);
         
+        Long commitsBefore = countCommittedTransactions();
+
+        progressTracker.runStarted(expectedSlides);
+        try {
+            work.accept(channelNames, tally);
+        } finally {
+            progressTracker.runFinished();
+        }
+
         long duration = System.currentTimeMillis() - startMs;
+
+        // Comparación de modos: commits y tiempo total de la ejecución
+        Long commitsAfter = countCommittedTransactions();
+        Long commits = commitsBefore != null && commitsAfter != null ? commitsAfter - commitsBefore : null;
+        log.info("Sincronización [{}]: {} slides en {} ms, {} commits en BD procesada",
+            "per-slide".equals(mode) ? mode : mode + "/" + batchSize, tally.processed, duration,
+            commits != null ? commits : "?");
+        Map<String, Long> latency = tally.latencyPercentiles();
+        if (!latency.isEmpty()) {
+            log.info("Latencia por slide (ms): {}", latency);
+        }
         
         return SyncResult.builder()
             .startedAt(startTime)
             .completedAt(LocalDateTime.now())
             .durationMs(duration)
-            .slidesProcessed(totalProcessed)
-            .slidesCreated(created)
-            .slidesUpdated(updated)
-            .slidesFailed(failed)
-            .channelsProcessed(channelsProcessed)
-            .totalOriginalSize(totalOriginalSize)
-            .totalProcessedSize(totalProcessedSize)
-            .migrationResults(migrationResults)
+            .slidesProcessed(tally.processed)
+            .slidesCreated(tally.created)
+            .slidesUpdated(tally.updated)
+            .slidesFailed(tally.failed)
+            .channelsProcessed(0)
+            .totalOriginalSize(tally.totalOriginalSize)
+            .totalProcessedSize(tally.totalProcessedSize)
+            .commitMode(mode)
+            .transactionsCommitted(commits)
+            .slideLatencyMs(latency)
+            .migrationResults(tally.results)
             .build();
     }
-    
+
+    /**
+     * Procesa una lista de slides con el modo de commit indicado.
+     */
+    private void processIds(List<Integer> slideIds, Map<Integer, String> channelNames, String syncRunId,
+                            String mode, BooleanSupplier cancelRequested, SyncTally tally) {
+        switch (mode) {
+            case "pipeline" -> new SlideSyncPipeline(this, pipelineMetrics, admissionController, pipelineFetchThreads,
+                    pipelineExtractThreads, pipelineQueueCapacity, batchSize)
+                .run(slideIds, channelNames, syncRunId, cancelRequested, tally::add);
+            case "chunked" -> {
+                for (int i = 0; i < slideIds.size() && !cancelRequested.getAsBoolean(); i += batchSize) {
+                    List<Integer> chunk = slideIds.subList(i, Math.min(i + batchSize, slideIds.size()));
+                    processChunk(chunk, channelNames, syncRunId).forEach(tally::add);
+                }
+            }
+            default -> {
+                for (Integer slideId : slideIds) {
+                    if (cancelRequested.getAsBoolean()) break;
+                    tally.add(processSlideIsolated(slideId, channelNames, syncRunId));
+                }
+            }
+        }
+    }
+
+    /**
+     * Acumulador de resultados de una sincronización con log de progreso.
+     * Solo se usa desde el hilo que ejecuta {@link #syncSlideIds}.
+     */
+    private static final class SyncTally {
+        private final int totalSlides;
+        private final long startMs;
+        private final SyncProgressTracker progressTracker;
+        private List<MigrationResult> results = new ArrayList<>();
+        private int created, updated, failed, processed;
+        private long totalOriginalSize, totalProcessedSize;
+        private long[] durations = new long[256];
+        private int durationCount;
+
+        SyncTally(int totalSlides, long startMs, SyncProgressTracker progressTracker) {
+            this.totalSlides = totalSlides;
+            this.startMs = startMs;
+            this.progressTracker = progressTracker;
+        }
+
+        void add(MigrationResult result) {
+            results.add(result);
+            progressTracker.record(result);
+
+            if ("CREATED".equals(result.getStatus())) created++;
+            else if ("UPDATED".equals(result.getStatus())) updated++;
+            else if ("FAILED".equals(result.getStatus())) failed++;
+
+            totalOriginalSize += result.getOriginalSize() != null ? result.getOriginalSize() : 0;
+            totalProcessedSize += result.getNewSize() != null ? result.getNewSize() : 0;
+
+            processed++;
+
+            if (result.getDurationMs() != null) {
+                if (durationCount == durations.length) durations = Arrays.copyOf(durations, durationCount * 2);
+                durations[durationCount++] = result.getDurationMs();
+            }
+
+            // Log progreso cada 50 slides (más frecuente para mejor visibilidad)
+            if (processed % 50 == 0) {
+                long elapsed = Math.max(1, System.currentTimeMillis() - startMs);
+                double rate = processed / (elapsed / 1000.0);
+                int remaining = totalSlides - processed;
+                int etaSeconds = (int) (remaining / rate);
+
+                // SLF4J no formatea decimales: el ritmo se formatea antes
+                log.info("Progreso: {}/{} slides ({} creados, {} actualizados, {} fallidos) - {} slides/seg - ETA: {}s",
+                    processed, totalSlides, created, updated, failed, String.format("%.1f", rate), etaSeconds);
+            }
+
+            // Limitar resultados en memoria
+            if (results.size() > 1000) {
+                results = new ArrayList<>(results.subList(results.size() - 100, results.size()));
+            }
+        }
+
+        /**
+         * Distribución del tiempo de procesamiento por slide (percentiles por rango más cercano).
+         */
+        Map<String, Long> latencyPercentiles() {
+            Map<String, Long> percentiles = new LinkedHashMap<>();
+            if (durationCount == 0) return percentiles;
+            long[] sorted = Arrays.copyOf(durations, durationCount);
+            Arrays.sort(sorted);
+            percentiles.put("p50", percentile(sorted, 0.50));
+            percentiles.put("p90", percentile(sorted, 0.90));
+            percentiles.put("p99", percentile(sorted, 0.99));
+            percentiles.put("p999", percentile(sorted, 0.999));
+            percentiles.put("max", sorted[sorted.length - 1]);
+            return percentiles;
+        }
+
+        private static long percentile(long[] sorted, double quantile) {
+            int rank = (int) Math.ceil(quantile * sorted.length);
+            return sorted[Math.max(0, rank - 1)];
+        }
+    }
+
+    /**
+     * Procesa un slide con {@link #processSingleSlideWithTracking}; cualquier error no
+     * capturado allí se devuelve como resultado FAILED.
+     */
+    MigrationResult processSlideIsolated(Integer slideId, Map<Integer, String> channelNames, String syncRunId) {
+        long startNanos = System.nanoTime();
+        try {
+            MigrationResult result = processSingleSlideWithTracking(slideId, channelNames, syncRunId);
+            if (result.getDurationMs() == null) {
+                result.setDurationMs(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos));
+            }
+            return result;
+        } catch (Exception e) {
+            log.error("Error crítico procesando slide {}: {}", slideId, e.getMessage());
+            return MigrationResult.builder()
+                .slideId(slideId)
+                .slideName("Unknown")
+                .status("FAILED")
+                .message("Error crítico: " + e.getMessage())
+                .processedAt(LocalDateTime.now())
+                .build();
+        }
+    }
+
+    /**
+     * Procesa un bloque de slides en una sola transacción.
+     * Si la transacción falla se revierte el bloque completo y se divide en dos mitades
+     * (bisección) hasta aislar el slide problemático, que pasa por la ruta individual
+     * y queda FAILED con el mismo detalle que en modo per-slide.
+     */
+    private List<MigrationResult> processChunk(List<Integer> slideIds, Map<Integer, String> channelNames,
+                                               String syncRunId) {
+        if (slideIds.size() == 1) {
+            return List.of(processSlideIsolated(slideIds.get(0), channelNames, syncRunId));
+        }
+        try {
+            TransactionTemplate tx = new TransactionTemplate(processedTransactionManager);
+            if (deadlineWatchdog.getSlideTimeoutSeconds() > 0) {
+                // Cota del bloque: el plazo de cada slide por el número de slides
+                tx.setTimeout((int) Math.min(Integer.MAX_VALUE,
+                    deadlineWatchdog.getSlideTimeoutSeconds() * slideIds.size()));
+            }
+            return tx.execute(status -> processChunkInTransaction(slideIds, channelNames, syncRunId));
+        } catch (SlideTimeoutException e) {
+            // El culpable es conocido: FAILED directo y el resto del bloque se reintenta sin él
+            log.warn("Bloque de {} slides revertido: slide {} superó su plazo", slideIds.size(), e.getSlideId());
+            List<Integer> rest = new ArrayList<>(slideIds);
+            rest.remove(e.getSlideId());
+            List<MigrationResult> results = new ArrayList<>();
+            results.add(recordTimeout(e.getSlideId(), syncRunId, e));
+            if (!rest.isEmpty()) {
+                results.addAll(processChunk(rest, channelNames, syncRunId));
+            }
+            return results;
+        } catch (Exception | OutOfMemoryError e) {
+            int mid = slideIds.size() / 2;
+            log.warn("Bloque de {} slides ({}..{}) revertido: {} → bisección",
+                slideIds.size(), slideIds.get(0), slideIds.get(slideIds.size() - 1), e.getMessage());
+            List<MigrationResult> results = new ArrayList<>(
+                processChunk(slideIds.subList(0, mid), channelNames, syncRunId));
+            results.addAll(processChunk(slideIds.subList(mid, slideIds.size()), channelNames, syncRunId));
+            return results;
+        }
+    }
+
+    /**
+     * Cuerpo transaccional de un bloque: procesa cada slide y escribe tracking y log de
+     * sincronización con un único batch JDBC por tabla (el estado intermedio PROCESSING
+     * no se persiste: el bloque es atómico). Cualquier excepción revierte el bloque.
+     */
+    private List<MigrationResult> processChunkInTransaction(List<Integer> slideIds, Map<Integer, String> channelNames,
+                                                            String syncRunId) {
+        Timestamp startedAt = Timestamp.valueOf(LocalDateTime.now());
+        List<MigrationResult> results = new ArrayList<>(slideIds.size());
+        List<Object[]> trackingRows = new ArrayList<>(slideIds.size());
+        List<Object[]> logRows = new ArrayList<>();
+
+        for (Integer slideId : slideIds) {
+            SlideOutcome outcome = resolveAndProcess(slideId, channelNames);
+            MigrationResult result = outcome.result();
+            results.add(result);
+            addOutcomeRows(slideId, outcome.replica(), result, startedAt, channelNames, syncRunId,
+                trackingRows, logRows);
+        }
+
+        writeTrackingRows(trackingRows);
+        writeSyncLogRows(logRows);
+        return results;
+    }
+
+    /**
+     * Añade las filas de tracking y de log de sincronización que corresponden al resultado
+     * de un slide (replica null = no encontrado en la réplica).
+     */
+    static void addOutcomeRows(Integer slideId, SlideSlideReplica replica, MigrationResult result,
+                               Timestamp startedAt, Map<Integer, String> channelNames, String syncRunId,
+                               List<Object[]> trackingRows, List<Object[]> logRows) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        if (replica == null) {
+            trackingRows.add(new Object[] {slideId, SlideProcessingStatus.ProcessingStatus.FAILED.name(),
+                startedAt, null, now, "Slide no encontrado en réplica", null, null, null});
+            return;
+        }
+        trackingRows.add(new Object[] {slideId, SlideProcessingStatus.ProcessingStatus.COMPLETED.name(),
+            startedAt, now, null, null, result.getOriginalSize(), result.getNewSize(), result.getImagesExtracted()});
+        if (!"SKIPPED".equals(result.getStatus())) {
+            logRows.add(new Object[] {syncRunId, now, replica.getId(), result.getSlideName(),
+                toSyncAction(result).name(), replica.getSlideType(), replica.getChannelId(),
+                channelNames.get(replica.getChannelId()),
+                replica.getWriteDate() != null ? Timestamp.valueOf(replica.getWriteDate()) : null,
+                result.getOriginalSize(), result.getNewSize(), result.getImagesExtracted(), result.getMessage()});
+        }
+    }
+
+    /**
+     * Upsert del tracking en un único batch JDBC (filas de {@link #addOutcomeRows}).
+     * Completar reinicia el contador de reintentos; los fallos pasan por {@link SlideRetryPolicy}.
+     */
+    void writeTrackingRows(List<Object[]> trackingRows) {
+        if (trackingRows.isEmpty()) return;
+        processedJdbc.batchUpdate("""
+            INSERT INTO public.slide_processing_status AS t
+                (slide_id, status, started_at, completed_at, failed_at, error_message, retry_count,
+                 original_size_bytes, processed_size_bytes, images_extracted)
+            VALUES (?, ?, ?, ?, ?, ?, 0, ?, ?, ?)
+            ON CONFLICT (slide_id) DO UPDATE SET
+                status               = EXCLUDED.status,
+                started_at           = EXCLUDED.started_at,
+                completed_at         = COALESCE(EXCLUDED.completed_at, t.completed_at),
+                failed_at            = COALESCE(EXCLUDED.failed_at, t.failed_at),
+                error_message        = COALESCE(EXCLUDED.error_message, t.error_message),
+                original_size_bytes  = COALESCE(EXCLUDED.original_size_bytes, t.original_size_bytes),
+                processed_size_bytes = COALESCE(EXCLUDED.processed_size_bytes, t.processed_size_bytes),
+                images_extracted     = COALESCE(EXCLUDED.images_extracted, t.images_extracted),
+                retry_count          = CASE WHEN EXCLUDED.status = 'COMPLETED' THEN 0 ELSE t.retry_count END,
+                next_attempt_at      = CASE WHEN EXCLUDED.status = 'COMPLETED' THEN NULL ELSE t.next_attempt_at END
+            """, trackingRows, new int[] {Types.INTEGER, Types.VARCHAR, Types.TIMESTAMP, Types.TIMESTAMP,
+                Types.TIMESTAMP, Types.VARCHAR, Types.BIGINT, Types.BIGINT, Types.INTEGER});
+
+        List<Integer> failedIds = trackingRows.stream()
+            .filter(row -> SlideProcessingStatus.ProcessingStatus.FAILED.name().equals(row[1]))
+            .map(row -> (Integer) row[0])
+            .toList();
+        retryPolicy.recordFailure(failedIds);
+    }
+
+    /**
+     * Entrega el log de sincronización al escritor (filas de {@link #addOutcomeRows}): en modo async
+     * se escribe tras el commit del bloque, fuera de su transacción; en modo durable, dentro de ella.
+     */
+    void writeSyncLogRows(List<Object[]> logRows) {
+        syncLogWriter.submit(logRows);
+    }
+
+    /**
+     * Modo efectivo: pipeline y chunked requieren batch-size mayor que 1.
+     */
+    private String resolveCommitMode() {
+        String mode = commitMode.toLowerCase(Locale.ROOT);
+        if (("pipeline".equals(mode) || "chunked".equals(mode)) && batchSize > 1) return mode;
+        return "per-slide";
+    }
+
+    /**
+     * Transacciones confirmadas en la BD procesada según pg_stat_database.
+     * Incluye todas las sesiones de la base: la diferencia entre dos lecturas es aproximada.
+     */
+    private Long countCommittedTransactions() {
+        try {
+            return processedJdbc.queryForObject(
+                "SELECT xact_commit FROM pg_stat_database WHERE datname = current_database()", Long.class);
+        } catch (Exception e) {
+            log.debug("No se pudo leer pg_stat_database: {}", e.getMessage());
+            return null;
+        }
+    }
+
     /**
      * Procesa un slide individual con su propia transacción.
      * Cada slide se guarda independientemente - si falla, no afecta a los demás.
@@ -225,27 +569,18 @@ public class SlideSyncService {
             trackingStatus.setStartedAt(LocalDateTime.now());
             processingStatusRepo.saveAndFlush(trackingStatus);
             
-            // Cargar slide individualmente
-            SlideSlideReplica replica = replicaSlideRepo.findById(slideId).orElse(null);
+            SlideOutcome outcome = resolveAndProcess(slideId, channelNames);
+            MigrationResult result = outcome.result();
+            SlideSlideReplica replica = outcome.replica();
             if (replica == null) {
-                log.warn("Slide {} no encontrado en réplica", slideId);
                 trackingStatus.setStatus(SlideProcessingStatus.ProcessingStatus.FAILED);
                 trackingStatus.setFailedAt(LocalDateTime.now());
                 trackingStatus.setErrorMessage("Slide no encontrado en réplica");
                 processingStatusRepo.saveAndFlush(trackingStatus);
-                
-                return MigrationResult.builder()
-                    .slideId(slideId)
-                    .slideName("Unknown")
-                    .status("FAILED")
-                    .message("No encontrado en réplica")
-                    .processedAt(LocalDateTime.now())
-                    .build();
+                retryPolicy.recordFailure(List.of(slideId));
+                return result;
             }
-            
-            // Procesar slide
-            MigrationResult result = processSlide(replica, channelNames);
-            
+
             // Guardar en log de sincronización (CREATED / UPDATED solamente)
             if (!"SKIPPED".equals(result.getStatus())) {
                 saveSyncLogEntry(syncRunId, replica, result, channelNames);
@@ -254,6 +589,8 @@ public class SlideSyncService {
             // Actualizar tracking como completado
             trackingStatus.setStatus(SlideProcessingStatus.ProcessingStatus.COMPLETED);
             trackingStatus.setCompletedAt(LocalDateTime.now());
+            trackingStatus.setRetryCount(0);
+            trackingStatus.setNextAttemptAt(null);
             trackingStatus.setOriginalSizeBytes(result.getOriginalSize());
             trackingStatus.setProcessedSizeBytes(result.getNewSize());
             trackingStatus.setImagesExtracted(result.getImagesExtracted());
@@ -269,8 +606,8 @@ public class SlideSyncService {
             trackingStatus.setStatus(SlideProcessingStatus.ProcessingStatus.FAILED);
             trackingStatus.setFailedAt(LocalDateTime.now());
             trackingStatus.setErrorMessage("OutOfMemory - contenido muy grande");
-            trackingStatus.setRetryCount(trackingStatus.getRetryCount() + 1);
             processingStatusRepo.saveAndFlush(trackingStatus);
+            retryPolicy.recordFailure(List.of(slideId));
             
             // Forzar GC para recuperar memoria
             System.gc();
@@ -292,8 +629,8 @@ public class SlideSyncService {
             trackingStatus.setFailedAt(LocalDateTime.now());
             trackingStatus.setErrorMessage(e.getMessage() != null ? 
                 e.getMessage().substring(0, Math.min(1999, e.getMessage().length())) : "Error desconocido");
-            trackingStatus.setRetryCount(trackingStatus.getRetryCount() + 1);
             processingStatusRepo.saveAndFlush(trackingStatus);
+            retryPolicy.recordFailure(List.of(slideId));
             
             return MigrationResult.builder()
                 .slideId(slideId)
@@ -306,79 +643,469 @@ public class SlideSyncService {
     }
     
     /**
-     * Procesa un slide individual: extrae imágenes y guarda en BD procesada.
+     * Resuelve un slide contra la réplica y lo procesa (ruta rápida de metadatos o ruta
+     * completa). No escribe tracking ni log de sincronización.
+     * Si el slide no existe en la réplica devuelve un resultado FAILED sin réplica.
      */
-    private MigrationResult processSlide(SlideSlideReplica replica, Map<Integer, String> channelNames) {
-        String slideName = replica.getNameEs();
-        String slideType = replica.getSlideType();
-        
-        // Resolver htmlContent y contentUrl según tipo de slide
-        // Para artículos: use_html_embed=true → html_embed_code tiene precedencia sobre html_content
-        String htmlContent = "article".equals(slideType) || "certification".equals(slideType)
-            ? replica.resolveHtmlContent()
+    private SlideOutcome resolveAndProcess(Integer slideId, Map<Integer, String> channelNames) {
+        long startNanos = System.nanoTime();
+        SlideOutcome outcome = withDeadline(slideId, deadline -> resolveAndProcess(slideId, channelNames, deadline));
+        outcome.result().setDurationMs(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos));
+        return outcome;
+    }
+
+    private SlideOutcome resolveAndProcess(Integer slideId, Map<Integer, String> channelNames, SlideDeadline deadline) {
+        // Metadatos ligeros + huella: si el contenido no cambió se evita cargar html_content
+        SlideSyncMetadata metadata = replicaRead(deadline, () -> loadSyncMetadata(slideId));
+        MigrationResult result = metadata != null ? tryMetadataOnlySync(metadata, channelNames) : null;
+        SlideSlideReplica replica = metadata != null ? metadata.slide() : null;
+
+        // Cargar slide completo solo cuando hay que re-procesar el contenido
+        if (result == null && metadata != null) {
+            replica = replicaRead(deadline, () -> replicaSlideRepo.findById(slideId).orElse(null));
+        }
+        if (replica == null) {
+            return new SlideOutcome(null, notFoundResult(slideId));
+        }
+
+        // Procesar slide (ruta completa: extracción Base64 y reescritura)
+        if (result == null) {
+            result = processSlide(replica, channelNames, metadata.fingerprint());
+        }
+        return new SlideOutcome(replica, result);
+    }
+
+    /**
+     * Ejecuta el trabajo de un slide bajo su plazo: si el watchdog lo cancela, cualquier
+     * error derivado de la interrupción se convierte en {@link SlideTimeoutException}.
+     */
+    private <T> T withDeadline(Integer slideId, Function<SlideDeadline, T> work) {
+        try (SlideDeadline deadline = deadlineWatchdog.start(slideId)) {
+            try {
+                T value = work.apply(deadline);
+                deadline.check();
+                return value;
+            } catch (SlideTimeoutException e) {
+                throw e;
+            } catch (RuntimeException e) {
+                if (deadline.isExpired()) throw deadline.timeout(e);
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Lectura de la réplica acotada por el tiempo restante del plazo del slide: el timeout de
+     * transacción se aplica a cada sentencia y el driver la cancela en el servidor al vencer.
+     * Pasa por el regulador AIMD antes de tomar conexión, para no retenerla mientras espera turno.
+     */
+    private <T> T replicaRead(SlideDeadline deadline, Supplier<T> read) {
+        return replicaThrottle.read(() -> {
+            TransactionTemplate tx = new TransactionTemplate(replicaTransactionManager);
+            tx.setReadOnly(true);
+            tx.setTimeout(deadline.remainingSeconds());
+            return tx.execute(status -> read.get());
+        });
+    }
+
+    /**
+     * Marca un slide FAILED por superar su plazo, sin volver a procesarlo.
+     */
+    MigrationResult recordTimeout(Integer slideId, String syncRunId, SlideTimeoutException timeout) {
+        log.warn("Slide {}: {}", slideId, timeout.getMessage());
+        saveSyncLogEntryFailed(syncRunId, slideId, timeout.getMessage());
+        processedJdbc.update("""
+            INSERT INTO public.slide_processing_status AS t (slide_id, status, failed_at, error_message, retry_count)
+            VALUES (?, 'FAILED', ?, ?, 0)
+            ON CONFLICT (slide_id) DO UPDATE SET
+                status        = 'FAILED',
+                failed_at     = EXCLUDED.failed_at,
+                error_message = EXCLUDED.error_message
+            """, slideId, Timestamp.valueOf(LocalDateTime.now()), timeout.getMessage());
+        retryPolicy.recordFailure(List.of(slideId));
+        return MigrationResult.builder()
+            .slideId(slideId)
+            .slideName("Unknown")
+            .status("FAILED")
+            .message(timeout.getMessage())
+            .durationMs(timeout.getElapsedMs())
+            .processedAt(LocalDateTime.now())
+            .build();
+    }
+
+    private static MigrationResult notFoundResult(Integer slideId) {
+        log.warn("Slide {} no encontrado en réplica", slideId);
+        return MigrationResult.builder()
+            .slideId(slideId)
+            .slideName("Unknown")
+            .status("FAILED")
+            .message("No encontrado en réplica")
+            .processedAt(LocalDateTime.now())
+            .build();
+    }
+
+    // ==================== Etapas del pipeline (commit-mode: pipeline) ====================
+
+    /**
+     * Etapa fetch (E/S): metadatos y ruta rápida, slide completo, descarga de archivo y
+     * comprobación de cambios. Deja el slide resuelto ({@code result}) o listo para extraer.
+     */
+    void fetchStage(SlideSyncPipeline.StagedSlide staged, Map<Integer, String> channelNames) {
+        withDeadline(staged.slideId, deadline -> {
+            fetchStage(staged, channelNames, deadline);
+            return null;
+        });
+    }
+
+    private void fetchStage(SlideSyncPipeline.StagedSlide staged, Map<Integer, String> channelNames,
+                            SlideDeadline deadline) {
+        Integer slideId = staged.slideId;
+        SlideSyncMetadata metadata = replicaRead(deadline, () -> loadSyncMetadata(slideId));
+        MigrationResult fastPath = metadata != null ? tryMetadataOnlySync(metadata, channelNames) : null;
+        if (fastPath != null) {
+            staged.replica = metadata.slide();
+            staged.result = fastPath;
+            return;
+        }
+        SlideSlideReplica replica = metadata != null
+            ? replicaRead(deadline, () -> replicaSlideRepo.findById(slideId).orElse(null))
             : null;
-        String contentUrl = resolveContentUrl(replica);
-        String youtubeId = resolveYoutubeId(replica);
+        if (replica == null) {
+            staged.result = notFoundResult(slideId);
+            return;
+        }
+        staged.replica = replica;
+        staged.fingerprint = metadata.fingerprint();
+        staged.fileDownloaded = downloadSlideFile(replica);
 
-        // Descargar archivo local para slides tipo PDF/presentation/infographic/webpage
-        // Evita depender de credenciales Odoo en la app móvil
-        boolean isFileType = "pdf".equals(slideType) || "presentation".equals(slideType)
-            || "infographic".equals(slideType) || "webpage".equals(slideType);
-        boolean fileDownloaded = false;
-
-        if (isFileType) {
-            // Always use local API URL — FileController downloads on first request
-            contentUrl = "https://slides.universidadisep.com/api/v1/files/" + replica.getId();
-            // Pre-download if attachment exists in Odoo
-            if (odooFileService.hasRemoteFile(replica.getId())) {
-                Optional<Path> localFile = odooFileService.downloadAndSave(replica.getId());
-                fileDownloaded = localFile.isPresent();
+        List<Object[]> stateRows = processedSlideRepo.findSyncStateById(slideId);
+        if (!stateRows.isEmpty()) {
+            Object[] state = stateRows.get(0);
+            if (isUpToDate(replica, toLocalDateTime(state[0]), (String) state[5], staged.fileDownloaded)) {
+                staged.result = skippedResult(replica);
             }
         }
+    }
+
+    /**
+     * Etapa extract (CPU): resuelve el contenido y extrae las imágenes Base64 sin acceder a la BD.
+     * Las imágenes nuevas quedan en {@code newImages} para la etapa persist.
+     */
+    void extractStage(SlideSyncPipeline.StagedSlide staged, ConcurrentMap<String, String> urlsByHash) {
+        withDeadline(staged.slideId, deadline -> {
+            staged.content = resolveContent(staged.replica);
+            staged.processedHtml = staged.content.htmlContent();
+            if (imageExtractor.hasBase64Images(staged.processedHtml)) {
+                Base64ImageExtractor.ExtractionResult extraction = imageExtractor.extractDetached(
+                    staged.slideId, staged.processedHtml, getBaseUrl(), urlsByHash, staged.newImages::add);
+                staged.processedHtml = extraction.cleanedHtml();
+                staged.imagesExtracted = extraction.extractedImages().size();
+            }
+            return null;
+        });
+    }
 
+    /**
+     * Etapa persist: escribe un lote en una sola transacción — imágenes nuevas (batch JDBC),
+     * slides (saveAll), tracking y log de sincronización. Cualquier excepción revierte el lote.
+     */
+    List<MigrationResult> persistStage(List<SlideSyncPipeline.StagedSlide> batch, Map<Integer, String> channelNames,
+                                       String syncRunId) {
+        TransactionTemplate tx = new TransactionTemplate(processedTransactionManager);
+        return tx.execute(status -> {
+            Timestamp startedAt = Timestamp.valueOf(LocalDateTime.now());
+            writeImageRows(batch);
+
+            List<Integer> toWrite = batch.stream().filter(s -> s.result == null).map(s -> s.slideId).toList();
+            Map<Integer, ProcessedSlide> existing = new HashMap<>();
+            processedSlideRepo.findAllById(toWrite).forEach(p -> existing.put(p.getId(), p));
+
+            List<MigrationResult> results = new ArrayList<>(batch.size());
+            List<ProcessedSlide> slides = new ArrayList<>(toWrite.size());
+            List<Object[]> trackingRows = new ArrayList<>(batch.size());
+            List<Object[]> logRows = new ArrayList<>();
+            for (SlideSyncPipeline.StagedSlide staged : batch) {
+                MigrationResult result = staged.result;
+                if (result == null) {
+                    ProcessedSlide processed = existing.get(staged.slideId);
+                    boolean isNew = processed == null;
+                    if (isNew) processed = new ProcessedSlide();
+                    result = applyProcessedFields(processed, isNew, staged.replica, channelNames, staged.content,
+                        staged.processedHtml, staged.imagesExtracted, staged.fingerprint, staged.fileDownloaded);
+                    slides.add(processed);
+                }
+                result.setDurationMs(TimeUnit.NANOSECONDS.toMillis(staged.workNanos));
+                results.add(result);
+                addOutcomeRows(staged.slideId, staged.replica, result, startedAt, channelNames, syncRunId,
+                    trackingRows, logRows);
+            }
+
+            processedSlideRepo.saveAll(slides);
+            writeTrackingRows(trackingRows);
+            writeSyncLogRows(logRows);
+            return results;
+        });
+    }
+
+    /**
+     * Guarda las imágenes nuevas de un lote revertido en su propia transacción, para que la
+     * ruta individual las reutilice por hash (otros slides ya pueden apuntar a sus URLs).
+     */
+    void saveStagedImages(List<SlideSyncPipeline.StagedSlide> batch) {
+        if (batch.stream().allMatch(staged -> staged.newImages.isEmpty())) return;
+        try {
+            new TransactionTemplate(processedTransactionManager).executeWithoutResult(status -> writeImageRows(batch));
+        } catch (Exception e) {
+            log.warn("No se pudieron guardar las imágenes del lote revertido: {}", e.getMessage());
+        }
+    }
+
+    private void writeImageRows(List<SlideSyncPipeline.StagedSlide> batch) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> rows = new ArrayList<>();
+        for (SlideSyncPipeline.StagedSlide staged : batch) {
+            for (SlideImage image : staged.newImages) {
+                rows.add(new Object[] {image.getSlideId(), image.getImageIndex(), image.getOriginalFilename(),
+                    image.getMimeType(), image.getImageData(), image.getImageHash(), image.getSizeBytes(),
+                    image.getWidth(), image.getHeight(), image.getPublicUrl(), now});
+            }
+        }
+        if (rows.isEmpty()) return;
+        processedJdbc.batchUpdate("""
+            INSERT INTO slide_api.slide_images
+                (slide_id, image_index, original_filename, mime_type, image_data, image_hash, size_bytes,
+                 width, height, public_url, created_at)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
+            """, rows, new int[] {Types.INTEGER, Types.INTEGER, Types.VARCHAR, Types.VARCHAR, Types.BINARY,
+                Types.VARCHAR, Types.BIGINT, Types.INTEGER, Types.INTEGER, Types.VARCHAR, Types.TIMESTAMP});
+    }
+
+    /**
+     * Bytes almacenados en la réplica de las columnas pesadas de cada slide
+     * (pg_column_size, sin transferir el contenido).
+     */
+    Map<Integer, Long> loadContentSizes(List<Integer> slideIds) {
+        Map<Integer, Long> sizes = new HashMap<>(slideIds.size() * 2);
+        for (int i = 0; i < slideIds.size(); i += 1000) {
+            List<Integer> chunk = slideIds.subList(i, Math.min(i + 1000, slideIds.size()));
+            for (Object[] row : replicaSlideRepo.findContentSizesByIds(chunk)) {
+                sizes.put(((Number) row[0]).intValue(), ((Number) row[1]).longValue());
+            }
+        }
+        return sizes;
+    }
+
+    /**
+     * URLs públicas ya asignadas por hash de imagen (deduplicación en la etapa extract).
+     */
+    ConcurrentMap<String, String> loadImageUrlsByHash() {
+        ConcurrentMap<String, String> urlsByHash = new ConcurrentHashMap<>();
+        processedJdbc.query("SELECT image_hash, public_url FROM slide_api.slide_images WHERE image_hash IS NOT NULL",
+            (RowCallbackHandler) rs -> urlsByHash.putIfAbsent(rs.getString(1), rs.getString(2)));
+        return urlsByHash;
+    }
+
+    /**
+     * Carga los metadatos ligeros de un slide y la huella de su contenido fuente,
+     * sin transferir html_content. Devuelve null si el slide no existe en la réplica.
+     */
+    private SlideSyncMetadata loadSyncMetadata(Integer slideId) {
+        List<Object[]> rows = replicaSlideRepo.findSyncMetadataById(slideId);
+        if (rows.isEmpty()) return null;
+        Object[] row = rows.get(0);
+        SlideSlideReplica slide = SlideSlideReplica.builder()
+            .id(((Number) row[0]).intValue())
+            .channelId(row[1] != null ? ((Number) row[1]).intValue() : null)
+            .slideType((String) row[2])
+            .active((Boolean) row[3])
+            .isPublished((Boolean) row[4])
+            .totalViews(row[5] != null ? ((Number) row[5]).intValue() : null)
+            .writeDate(toLocalDateTime(row[6]))
+            .name(row[7] != null ? Map.of("es_MX", (String) row[7]) : null)
+            .description((String) row[8])
+            .build();
+        return new SlideSyncMetadata(slide, (String) row[9]);
+    }
+    
+    /**
+     * Ruta rápida para cambios solo de metadatos (publicación, renombrado, vistas).
+     * Si la huella del contenido fuente coincide con la guardada, actualiza nombre,
+     * flags y vistas sin tocar el HTML ni las imágenes.
+     * Devuelve null cuando el slide requiere el procesamiento completo.
+     */
+    private MigrationResult tryMetadataOnlySync(SlideSyncMetadata metadata, Map<Integer, String> channelNames) {
+        SlideSlideReplica slide = metadata.slide();
+        // Los tipos con archivo dependen de la descarga desde Odoo: siempre por la ruta completa
+        if (isFileType(slide.getSlideType())) return null;
         
-        long originalSize = htmlContent != null ? htmlContent.length() : 0;
+        List<Object[]> stateRows = processedSlideRepo.findSyncStateById(slide.getId());
+        if (stateRows.isEmpty()) return null;
+        Object[] state = stateRows.get(0);
+        LocalDateTime storedWriteDate = toLocalDateTime(state[0]);
+        String storedFingerprint = (String) state[1];
         
-        // Verificar si ya existe y si necesita actualización
-        Optional<ProcessedSlide> existing = processedSlideRepo.findById(replica.getId());
-        boolean isNew = existing.isEmpty();
-        // Also update if file was just downloaded but Supabase still has the old URL
-        // Or if slide has remote file but not yet downloaded locally
-        boolean needsFileUrlUpdate = isFileType && !isNew && (
-            (fileDownloaded && existing.get().getContentUrl() != null 
-             && existing.get().getContentUrl().contains("app.universidadisep.com"))
-            || (!fileDownloaded && !odooFileService.exists(replica.getId()) 
-                && odooFileService.hasRemoteFile(replica.getId()))
-        );
-        boolean needsUpdate = needsFileUrlUpdate || (!isNew && replica.getWriteDate() != null &&
-            (existing.get().getOdooWriteDate() == null ||
-             replica.getWriteDate().isAfter(existing.get().getOdooWriteDate())));
+        boolean changed = slide.getWriteDate() != null &&
+            (storedWriteDate == null || slide.getWriteDate().isAfter(storedWriteDate));
         
-        if (!isNew && !needsUpdate) {
-            return MigrationResult.builder()
-                .slideId(replica.getId())
-                .slideName(slideName)
+        MigrationResult.MigrationResultBuilder result = MigrationResult.builder()
+            .slideId(slide.getId())
+            .slideName(slide.getNameEs())
+            .imagesExtracted(state[4] != null ? ((Number) state[4]).intValue() : 0)
+            .originalSize(state[2] != null ? ((Number) state[2]).longValue() : 0L)
+            .newSize(state[3] != null ? ((Number) state[3]).longValue() : 0L)
+            .savedBytes(0L)
+            .processedAt(LocalDateTime.now());
+        
+        if (!changed) {
+            // Sin cambios: aprovechar para registrar la huella de slides procesados antes de tenerla
+            if (storedFingerprint == null && metadata.fingerprint() != null) {
+                processedSlideRepo.updateSourceFingerprint(slide.getId(), metadata.fingerprint());
+            }
+            return result
                 .status("SKIPPED")
                 .message("Sin cambios desde última sincronización")
-                .processedAt(LocalDateTime.now())
                 .build();
         }
         
+        if (storedFingerprint == null || !storedFingerprint.equals(metadata.fingerprint())) {
+            return null;
+        }
+        
+        processedSlideRepo.updateMetadataOnly(
+            slide.getId(),
+            slide.getChannelId(),
+            channelNames.get(slide.getChannelId()),
+            slide.getNameEs(),
+            slide.getDescription(),
+            slide.getActive(),
+            slide.getIsPublished(),
+            slide.getTotalViews(),
+            slide.getWriteDate(),
+            metadata.fingerprint(),
+            LocalDateTime.now());
+        
+        return result
+            .status("UPDATED")
+            .message("Solo metadatos actualizados (contenido sin cambios)")
+            .build();
+    }
+    
+    /**
+     * Procesa un slide individual: extrae imágenes y guarda en BD procesada.
+     */
+    private MigrationResult processSlide(SlideSlideReplica replica, Map<Integer, String> channelNames) {
+        return processSlide(replica, channelNames, replicaSlideRepo.findContentFingerprint(replica.getId()));
+    }
+    
+    /**
+     * Procesa un slide individual con la huella de contenido ya calculada en la réplica.
+     */
+    private MigrationResult processSlide(SlideSlideReplica replica, Map<Integer, String> channelNames,
+                                         String fingerprint) {
+        // Descargar archivo local para slides tipo PDF/presentation/infographic/webpage
+        // Evita depender de credenciales Odoo en la app móvil
+        boolean fileDownloaded = downloadSlideFile(replica);
+        
+        // Verificar si ya existe y si necesita actualización
+        Optional<ProcessedSlide> existing = processedSlideRepo.findById(replica.getId());
+        boolean isNew = existing.isEmpty();
+        if (!isNew && isUpToDate(replica, existing.get().getOdooWriteDate(),
+                                 existing.get().getContentUrl(), fileDownloaded)) {
+            return skippedResult(replica);
+        }
+        
+        SlideContent content = resolveContent(replica);
+        
         // Extraer imágenes Base64
-        String processedHtml = htmlContent;
+        String processedHtml = content.htmlContent();
         int imagesExtracted = 0;
         
-        if (imageExtractor.hasBase64Images(htmlContent)) {
+        if (imageExtractor.hasBase64Images(content.htmlContent())) {
             Base64ImageExtractor.ExtractionResult extraction = 
-                imageExtractor.extractAndProcess(replica.getId(), htmlContent, getBaseUrl());
+                imageExtractor.extractAndProcess(replica.getId(), content.htmlContent(), getBaseUrl());
             processedHtml = extraction.cleanedHtml();
             imagesExtracted = extraction.extractedImages().size();
         }
         
-        long processedSize = processedHtml != null ? processedHtml.length() : 0;
-        
         // Crear o actualizar el slide procesado
         ProcessedSlide processed = existing.orElse(new ProcessedSlide());
+        MigrationResult result = applyProcessedFields(processed, isNew, replica, channelNames, content,
+            processedHtml, imagesExtracted, fingerprint, fileDownloaded);
+        processedSlideRepo.save(processed);
+        return result;
+    }
+
+    /**
+     * Pre-descarga el archivo de Odoo para los tipos con archivo.
+     *
+     * @return true si el archivo quedó descargado en esta llamada
+     */
+    boolean downloadSlideFile(SlideSlideReplica replica) {
+        if (!isFileType(replica.getSlideType()) || !odooFileService.hasRemoteFile(replica.getId())) {
+            return false;
+        }
+        Optional<Path> localFile = odooFileService.downloadAndSave(replica.getId());
+        return localFile.isPresent();
+    }
+
+    /**
+     * Indica si un slide ya procesado no necesita re-procesarse.
+     */
+    boolean isUpToDate(SlideSlideReplica replica, LocalDateTime storedWriteDate, String storedContentUrl,
+                       boolean fileDownloaded) {
+        // Also update if file was just downloaded but Supabase still has the old URL
+        // Or if slide has remote file but not yet downloaded locally
+        boolean needsFileUrlUpdate = isFileType(replica.getSlideType()) && (
+            (fileDownloaded && storedContentUrl != null
+             && storedContentUrl.contains("app.universidadisep.com"))
+            || (!fileDownloaded && !odooFileService.exists(replica.getId())
+                && odooFileService.hasRemoteFile(replica.getId()))
+        );
+        boolean needsUpdate = needsFileUrlUpdate || (replica.getWriteDate() != null &&
+            (storedWriteDate == null || replica.getWriteDate().isAfter(storedWriteDate)));
+        return !needsUpdate;
+    }
+
+    static MigrationResult skippedResult(SlideSlideReplica replica) {
+        return MigrationResult.builder()
+            .slideId(replica.getId())
+            .slideName(replica.getNameEs())
+            .status("SKIPPED")
+            .message("Sin cambios desde última sincronización")
+            .processedAt(LocalDateTime.now())
+            .build();
+    }
+
+    /**
+     * Resuelve htmlContent, contentUrl y youtubeId según el tipo de slide.
+     * Para artículos: use_html_embed=true → html_embed_code tiene precedencia sobre html_content.
+     * Los tipos con archivo siempre usan la URL local de la API (FileController descarga
+     * bajo demanda en la primera petición).
+     */
+    static SlideContent resolveContent(SlideSlideReplica replica) {
+        String slideType = replica.getSlideType();
+        String htmlContent = "article".equals(slideType) || "certification".equals(slideType)
+            ? replica.resolveHtmlContent()
+            : null;
+        String contentUrl = isFileType(slideType)
+            ? FILES_BASE_URL + replica.getId()
+            : resolveContentUrl(replica);
+        return new SlideContent(htmlContent, contentUrl, resolveYoutubeId(replica));
+    }
+
+    /**
+     * Copia al slide procesado los datos de la réplica y el HTML ya reescrito.
+     * No persiste: el llamador decide cómo guardar (save individual o saveAll por lote).
+     */
+    MigrationResult applyProcessedFields(ProcessedSlide processed, boolean isNew, SlideSlideReplica replica,
+                                         Map<Integer, String> channelNames, SlideContent content,
+                                         String processedHtml, int imagesExtracted, String fingerprint,
+                                         boolean fileDownloaded) {
+        String slideName = replica.getNameEs();
+        String contentUrl = content.contentUrl();
+        long originalSize = content.htmlContent() != null ? content.htmlContent().length() : 0;
+        long processedSize = processedHtml != null ? processedHtml.length() : 0;
+        
         boolean hasContent = processedHtml != null && !processedHtml.isEmpty();
         boolean hasUrl = contentUrl != null && !contentUrl.isEmpty();
         String status = imagesExtracted > 0 ? "COMPLETED"
@@ -392,7 +1119,7 @@ public class SlideSyncService {
         processed.setSlideType(replica.getSlideType());
         processed.setHtmlContent(processedHtml);
         processed.setContentUrl(contentUrl);
-        processed.setYoutubeId(youtubeId);
+        processed.setYoutubeId(content.youtubeId());
         processed.setDescription(replica.getDescription());
         processed.setActive(replica.getActive());
         processed.setIsPublished(replica.getIsPublished());
@@ -403,11 +1130,10 @@ public class SlideSyncService {
         processed.setHasBase64Original(replica.hasBase64Images());
         processed.setOdooCreateDate(replica.getCreateDate());
         processed.setOdooWriteDate(replica.getWriteDate());
+        processed.setSourceFingerprint(fingerprint);
         processed.setMigrationStatus(status);
         processed.setFileDownloaded(fileDownloaded);
         
-        processedSlideRepo.save(processed);
-        
         return MigrationResult.builder()
             .slideId(replica.getId())
             .slideName(slideName)
@@ -422,12 +1148,41 @@ public class SlideSyncService {
     }
     
 
+    /**
+     * Tipos de slide cuyo contenido es un archivo descargado desde Odoo.
+     */
+    static boolean isFileType(String slideType) {
+        return "pdf".equals(slideType) || "presentation".equals(slideType)
+            || "infographic".equals(slideType) || "webpage".equals(slideType);
+    }
+    
+    private static LocalDateTime toLocalDateTime(Object value) {
+        if (value instanceof java.sql.Timestamp ts) return ts.toLocalDateTime();
+        if (value instanceof LocalDateTime ldt) return ldt;
+        return null;
+    }
+    
+    /**
+     * Metadatos ligeros de un slide de la réplica (sin html_content) y huella de su contenido.
+     */
+    private record SlideSyncMetadata(SlideSlideReplica slide, String fingerprint) {}
+
+    /**
+     * Resultado de procesar un slide y la réplica usada (null si no existe en la réplica).
+     */
+    private record SlideOutcome(SlideSlideReplica replica, MigrationResult result) {}
+
+    /**
+     * Contenido de un slide resuelto según su tipo.
+     */
+    record SlideContent(String htmlContent, String contentUrl, String youtubeId) {}
+
     /**
      * Resuelve la URL del contenido según el tipo de slide.
      * Los slides tipo article tienen su contenido en htmlContent.
      * Los demás tipos exponen una URL a su recurso multimedia.
      */
-    private String resolveContentUrl(SlideSlideReplica replica) {
+    static String resolveContentUrl(SlideSlideReplica replica) {
         String type = replica.getSlideType();
         if (type == null) return null;
         return switch (type) {
@@ -442,7 +1197,7 @@ public class SlideSyncService {
     /**
      * Extrae el ID de YouTube de la URL del slide.
      */
-    private String resolveYoutubeId(SlideSlideReplica replica) {
+    static String resolveYoutubeId(SlideSlideReplica replica) {
         if (!"youtube_video".equals(replica.getSlideType())) return null;
         String url = replica.getUrl();
         if (url == null) return null;
@@ -454,37 +1209,157 @@ public class SlideSyncService {
     }
     
     /**
-     * Sincroniza canales desde la réplica.
+     * Sincroniza canales desde la réplica: datos de todos los canales activos y sus agregados de
+     * slides en una sola sentencia (ver {@link #upsertChannels}).
+     *
+     * @return Canales activos evaluados (0 si la sentencia falla)
      */
-    private int syncChannels() {
+    public int syncChannels() {
         List<SlideChannelReplica> channels = replicaChannelRepo.findByActiveTrue();
-        int processed = 0;
+        try {
+            int touched = upsertChannels(channels);
+            log.info("Canales: {} activos, {} con cambios", channels.size(), touched);
+            return channels.size();
+        } catch (Exception e) {
+            log.error("Error sincronizando canales: {}", e.getMessage());
+            return 0;
+        }
+    }
+    
+    /**
+     * Sincroniza los slides relevantes de un solo canal y refresca solo sus agregados.
+     * Los slides se marcan PENDING en el tracking (si el proceso se interrumpe, la sincronización
+     * completa los recoge) y se procesan con el pipeline, que reparte descarga y extracción entre hilos.
+     * Los dead letters y los FAILED en espera de reintento no se fuerzan (ver {@link #markPending}).
+     *
+     * @param channelId ID del canal en Odoo
+     * @return Resultado de la sincronización, o vacío si el canal no existe en la réplica
+     */
+    public Optional<SyncResult> syncChannel(Integer channelId) {
+        Optional<SlideChannelReplica> replica = replicaChannelRepo.findById(channelId);
+        if (replica.isEmpty()) {
+            return Optional.empty();
+        }
+        long startMs = System.currentTimeMillis();
         
-        for (SlideChannelReplica replica : channels) {
-            try {
-                ProcessedChannel channel = processedChannelRepo.findById(replica.getId())
-                    .orElse(new ProcessedChannel());
-                
-                channel.setId(replica.getId());
-                channel.setName(replica.getNameEs());
-                channel.setActive(replica.getActive());
-                channel.setIsPublished(replica.getIsPublished());
-                channel.setTotalViews(replica.getTotalViews());
-                channel.setOdooCreateDate(replica.getCreateDate());
-                channel.setOdooWriteDate(replica.getWriteDate());
-                
-                // Calcular estadísticas de slides (aggregate, sin cargar entidades)
-                channel.setSlideCount((int) processedSlideRepo.countByChannelId(replica.getId()));
-                channel.setTotalSizeBytes(processedSlideRepo.sumProcessedSizeByChannelId(replica.getId()));
-                
-                processedChannelRepo.save(channel);
-                processed++;
-            } catch (Exception e) {
-                log.error("Error sincronizando canal {}: {}", replica.getId(), e.getMessage());
+        List<Integer> slideIds = replicaSlideRepo.findActiveSlideIdsByChannelId(channelId);
+        log.info("Sincronización del canal {} ({}): {} slides relevantes",
+            channelId, replica.get().getNameEs(), slideIds.size());
+        
+        SyncResult result;
+        if (slideIds.isEmpty()) {
+            result = SyncResult.builder()
+                .startedAt(LocalDateTime.now())
+                .slidesProcessed(0).slidesCreated(0).slidesUpdated(0).slidesFailed(0)
+                .totalOriginalSize(0L).totalProcessedSize(0L)
+                .build();
+        } else {
+            markPending(slideIds);
+            String syncRunId = "channel-" + channelId + "-" + java.util.UUID.randomUUID().toString().substring(0, 8);
+            // Reclamar: los slides que otro worker está procesando ahora se omiten
+            try (SlideClaimService.Worker worker = claimService.openWorker()) {
+                List<Integer> claimed = worker.claimIds(slideIds);
+                if (claimed.size() < slideIds.size()) {
+                    log.info("Canal {}: {} slides en proceso por otro worker, omitidos",
+                        channelId, slideIds.size() - claimed.size());
+                }
+                result = syncSlideIds(claimed, syncRunId, "pipeline", () -> false);
             }
         }
         
-        return processed;
+        refreshChannel(replica.get());
+        result.setChannelsProcessed(1);
+        result.setCompletedAt(LocalDateTime.now());
+        result.setDurationMs(System.currentTimeMillis() - startMs);
+        return Optional.of(result);
+    }
+    
+    /**
+     * Crea o resetea a PENDING el tracking de los slides indicados (un único INSERT ... ON CONFLICT).
+     * No toca los que están en PROCESSING, en DEAD_LETTER (solo se re-encolan desde
+     * /sync/dead-letter/requeue) ni los FAILED cuyo próximo reintento aún no venció.
+     */
+    public void markPending(List<Integer> slideIds) {
+        processedJdbc.update(con -> {
+            PreparedStatement ps = con.prepareStatement("""
+                INSERT INTO public.slide_processing_status (slide_id, status, retry_count)
+                SELECT id, 'PENDING', 0 FROM unnest(?::int[]) AS id
+                ON CONFLICT (slide_id) DO UPDATE SET status = 'PENDING'
+                WHERE slide_processing_status.status <> 'PROCESSING'
+                  AND slide_processing_status.status <> 'DEAD_LETTER'
+                  AND NOT (slide_processing_status.status = 'FAILED'
+                           AND slide_processing_status.next_attempt_at > LOCALTIMESTAMP)
+                """);
+            ps.setArray(1, con.createArrayOf("integer", slideIds.toArray()));
+            return ps;
+        });
+    }
+    
+    /**
+     * Copia los datos del canal desde la réplica y recalcula sus agregados de slides.
+     */
+    private void refreshChannel(SlideChannelReplica replica) {
+        upsertChannels(List.of(replica));
+    }
+    
+    /**
+     * Copia los canales desde la réplica con sus agregados de slides (número y tamaño procesado,
+     * un único GROUP BY sobre slide_api.slides) en un upsert masivo. Solo reescribe los canales
+     * cuyo write_date, estado, vistas o agregados cambiaron.
+     *
+     * @return Canales insertados o actualizados
+     */
+    private int upsertChannels(List<SlideChannelReplica> channels) {
+        if (channels.isEmpty()) return 0;
+        return processedJdbc.update(con -> {
+            PreparedStatement ps = con.prepareStatement("""
+                WITH src AS (
+                    SELECT * FROM unnest(?::int[], ?::text[], ?::boolean[], ?::boolean[], ?::int[],
+                                         ?::timestamp[], ?::timestamp[])
+                        AS v(id, name, active, is_published, total_views, create_date, write_date)
+                ), agg AS (
+                    SELECT s.channel_id, COUNT(*) AS slide_count,
+                           COALESCE(SUM(s.processed_size_bytes), 0) AS total_size
+                    FROM slide_api.slides s
+                    WHERE s.channel_id IN (SELECT id FROM src)
+                    GROUP BY s.channel_id
+                )
+                INSERT INTO slide_api.channels AS c
+                    (id, name, active, is_published, total_views, slide_count, total_size_bytes,
+                     odoo_create_date, odoo_write_date, first_processed_at, last_synced_at)
+                SELECT src.id, src.name, src.active, src.is_published, src.total_views,
+                       COALESCE(agg.slide_count, 0), COALESCE(agg.total_size, 0),
+                       src.create_date, src.write_date, LOCALTIMESTAMP, LOCALTIMESTAMP
+                FROM src
+                LEFT JOIN agg ON agg.channel_id = src.id
+                ON CONFLICT (id) DO UPDATE SET
+                    name = EXCLUDED.name,
+                    active = EXCLUDED.active,
+                    is_published = EXCLUDED.is_published,
+                    total_views = EXCLUDED.total_views,
+                    slide_count = EXCLUDED.slide_count,
+                    total_size_bytes = EXCLUDED.total_size_bytes,
+                    odoo_create_date = EXCLUDED.odoo_create_date,
+                    odoo_write_date = EXCLUDED.odoo_write_date,
+                    last_synced_at = EXCLUDED.last_synced_at
+                WHERE c.odoo_write_date IS DISTINCT FROM EXCLUDED.odoo_write_date
+                   OR c.active IS DISTINCT FROM EXCLUDED.active
+                   OR c.is_published IS DISTINCT FROM EXCLUDED.is_published
+                   OR c.total_views IS DISTINCT FROM EXCLUDED.total_views
+                   OR c.slide_count IS DISTINCT FROM EXCLUDED.slide_count
+                   OR c.total_size_bytes IS DISTINCT FROM EXCLUDED.total_size_bytes
+                """);
+            ps.setArray(1, con.createArrayOf("integer", channels.stream().map(SlideChannelReplica::getId).toArray()));
+            ps.setArray(2, con.createArrayOf("text", channels.stream().map(SlideChannelReplica::getNameEs).toArray()));
+            ps.setArray(3, con.createArrayOf("boolean", channels.stream().map(SlideChannelReplica::getActive).toArray()));
+            ps.setArray(4, con.createArrayOf("boolean", channels.stream().map(SlideChannelReplica::getIsPublished).toArray()));
+            ps.setArray(5, con.createArrayOf("integer", channels.stream().map(SlideChannelReplica::getTotalViews).toArray()));
+            ps.setArray(6, con.createArrayOf("timestamp", channels.stream()
+                .map(channel -> channel.getCreateDate() != null ? Timestamp.valueOf(channel.getCreateDate()) : null).toArray()));
+            ps.setArray(7, con.createArrayOf("timestamp", channels.stream()
+                .map(channel -> channel.getWriteDate() != null ? Timestamp.valueOf(channel.getWriteDate()) : null).toArray()));
+            return ps;
+        });
     }
     
     /**
@@ -520,8 +1395,14 @@ public class SlideSyncService {
      */
     @Transactional("processedTransactionManager")
     public List<MigrationResult> migrateBase64Slides(int limit) {
-        List<SlideSlideReplica> slidesWithBase64 = 
-            replicaSlideRepo.findSlidesWithBase64ImagesPaginated(limit, 0);
+        // Candidatos desde el inventario (sin escanear la réplica); se cargan en el mismo orden
+        List<Integer> candidateIds = base64Inventory.findMigrationCandidates(limit);
+        Map<Integer, SlideSlideReplica> byId = new HashMap<>();
+        replicaSlideRepo.findAllById(candidateIds).forEach(slide -> byId.put(slide.getId(), slide));
+        List<SlideSlideReplica> slidesWithBase64 = candidateIds.stream()
+            .map(byId::get).filter(Objects::nonNull).toList();
+        // Borrados en la réplica desde el último refresco
+        base64Inventory.forget(candidateIds.stream().filter(id -> !byId.containsKey(id)).toList());
         
         List<MigrationResult> results = new ArrayList<>();
         Map<Integer, String> channelNames = loadChannelNames();
@@ -534,39 +1415,53 @@ public class SlideSyncService {
     }
     
     /**
-     * Obtiene estadísticas de depuración.
+     * Obtiene estadísticas de depuración desde los contadores mantenidos por triggers
+     * ({@link DepurationStatsService}). Con {@code recompute} se recalculan antes desde las tablas
+     * y se informa de si coincidían.
      */
-    public DepurationStats getDepurationStats() {
-        // Estadísticas de la réplica (aggregate queries, sin cargar entidades)
-        long totalSlides = replicaSlideRepo.count();
-        long activeSlides = replicaSlideRepo.countByActiveTrue();
-        long inactiveSlides = replicaSlideRepo.countByActiveFalse();
-        
-        // Base64 scan omitido del stats (LIKE sobre TEXT column de 37k filas es muy lento)
-        long slidesWithBase64 = -1L;
-        long base64Size = -1L;
-        
-        // Estadísticas de procesados (consultas individuales, evitar Object[] multi-columna)
-        Long totalOriginalSizeL = processedSlideRepo.sumOriginalSizeCompleted();
-        Long totalProcessedSizeL = processedSlideRepo.sumProcessedSizeCompleted();
-        Long totalImagesExtractedL = processedSlideRepo.sumImagesExtractedCompleted();
-        long totalOriginalSize = totalOriginalSizeL != null ? totalOriginalSizeL : 0L;
-        long totalProcessedSize = totalProcessedSizeL != null ? totalProcessedSizeL : 0L;
-        long totalImagesExtracted = totalImagesExtractedL != null ? totalImagesExtractedL : 0L;
-        
+    public DepurationStats getDepurationStats(boolean recompute) {
+        Boolean verified = recompute ? depurationStats.recompute() : null;
+        DepurationStatsService.Counters counters = depurationStats.read();
+
+        // Los datos de la réplica salen del inventario Base64; mientras no se haya construido,
+        // del último escaneo por rangos en caché (-1 si tampoco hay; se lanza en segundo plano)
+        long totalSlides;
+        long activeSlides;
+        long inactiveSlides;
+        long inactiveSize;
+        long slidesWithBase64;
+        long slidesToMigrate;
+        long base64Size;
+        if (base64Inventory.isBuilt()) {
+            totalSlides = counters.replicaSlides();
+            activeSlides = counters.replicaActiveSlides();
+            inactiveSlides = totalSlides - activeSlides;
+            inactiveSize = counters.replicaInactiveBytes();
+            slidesWithBase64 = counters.base64Slides();
+            slidesToMigrate = counters.base64PendingSlides();
+            base64Size = counters.base64PendingBytes();
+        } else {
+            Optional<ReplicaScanStats> scan = replicaScanService.cachedStats();
+            totalSlides = scan.map(ReplicaScanStats::getScannedSlides).orElse(-1L);
+            activeSlides = -1L;
+            inactiveSlides = -1L;
+            inactiveSize = -1L;
+            slidesWithBase64 = scan.map(ReplicaScanStats::getSlidesWithBase64).orElse(-1L);
+            slidesToMigrate = slidesWithBase64;
+            base64Size = scan.map(ReplicaScanStats::getBase64Size).orElse(-1L);
+        }
+
+        long totalOriginalSize = counters.originalBytes();
+        long totalProcessedSize = counters.processedBytes();
         long savedBytes = totalOriginalSize - totalProcessedSize;
         double savingsPercentage = totalOriginalSize > 0 
             ? (savedBytes * 100.0 / totalOriginalSize) 
             : 0;
-        
-        // Acciones pendientes (aggregate queries, sin cargar entidades)
-        long inactiveCount = replicaSlideRepo.countByActiveFalse();
-        long inactiveSize = replicaSlideRepo.sumHtmlContentSizeInactive();
 
         PendingActions pending = PendingActions.builder()
-            .inactiveSlidesToDelete(inactiveCount)
+            .inactiveSlidesToDelete(inactiveSlides)
             .inactiveSlidesSize(inactiveSize)
-            .slidesToMigrateBase64(slidesWithBase64)
+            .slidesToMigrateBase64(slidesToMigrate)
             .base64Size(base64Size)
             .temporaryFieldsToClean(0L) // TODO: implementar
             .temporaryFieldsSize(0L)
@@ -581,74 +1476,70 @@ public class SlideSyncService {
             .totalProcessedSizeBytes(totalProcessedSize)
             .totalSavedBytes(savedBytes)
             .savingsPercentage(savingsPercentage)
-            .totalImagesExtracted(totalImagesExtracted)
+            .totalImagesExtracted(counters.imagesExtracted())
             .pendingActions(pending)
+            .countersUpdatedAt(counters.updatedAt())
+            .recomputedAt(counters.recomputedAt())
+            .countersVerified(verified)
             .build();
     }
     
 
     private void saveSyncLogEntry(String syncRunId, SlideSlideReplica replica,
                                    MigrationResult result, Map<Integer, String> channelNames) {
-        try {
-            SlideSyncLog.SyncAction action = switch (result.getStatus()) {
-                case "CREATED" -> SlideSyncLog.SyncAction.CREATED;
-                case "UPDATED" -> SlideSyncLog.SyncAction.UPDATED;
-                default        -> SlideSyncLog.SyncAction.FAILED;
-            };
-            SlideSyncLog entry = SlideSyncLog.builder()
-                .syncRunId(syncRunId)
-                .syncedAt(LocalDateTime.now())
-                .slideId(replica.getId())
-                .slideName(result.getSlideName())
-                .action(action)
-                .slideType(replica.getSlideType())
-                .channelId(replica.getChannelId())
-                .channelName(channelNames.get(replica.getChannelId()))
-                .odooWriteDate(replica.getWriteDate())
-                .originalSizeBytes(result.getOriginalSize())
-                .processedSizeBytes(result.getNewSize())
-                .imagesExtracted(result.getImagesExtracted())
-                .message(result.getMessage())
-                .build();
-            syncLogRepo.save(entry);
-        } catch (Exception e) {
-            log.warn("No se pudo guardar entrada de sync log para slide {}: {}", replica.getId(), e.getMessage());
-        }
+        writeSyncLogRows(List.<Object[]>of(new Object[] {syncRunId, Timestamp.valueOf(LocalDateTime.now()),
+            replica.getId(), result.getSlideName(), toSyncAction(result).name(), replica.getSlideType(),
+            replica.getChannelId(), channelNames.get(replica.getChannelId()),
+            replica.getWriteDate() != null ? Timestamp.valueOf(replica.getWriteDate()) : null,
+            result.getOriginalSize(), result.getNewSize(), result.getImagesExtracted(), result.getMessage()}));
+    }
+
+    private static SlideSyncLog.SyncAction toSyncAction(MigrationResult result) {
+        return switch (result.getStatus()) {
+            case "CREATED" -> SlideSyncLog.SyncAction.CREATED;
+            case "UPDATED" -> SlideSyncLog.SyncAction.UPDATED;
+            default        -> SlideSyncLog.SyncAction.FAILED;
+        };
     }
 
     private void saveSyncLogEntryFailed(String syncRunId, Integer slideId, String errorMsg) {
-        try {
-            SlideSyncLog entry = SlideSyncLog.builder()
-                .syncRunId(syncRunId)
-                .syncedAt(LocalDateTime.now())
-                .slideId(slideId)
-                .slideName("Unknown")
-                .action(SlideSyncLog.SyncAction.FAILED)
-                .message(errorMsg != null ? errorMsg.substring(0, Math.min(499, errorMsg.length())) : "Error")
-                .build();
-            syncLogRepo.save(entry);
-        } catch (Exception ex) {
-            log.warn("No se pudo guardar entrada de sync log (FAILED) para slide {}", slideId);
-        }
+        writeSyncLogRows(List.<Object[]>of(new Object[] {syncRunId, Timestamp.valueOf(LocalDateTime.now()),
+            slideId, "Unknown", SlideSyncLog.SyncAction.FAILED.name(), null, null, null, null, null, null, null,
+            errorMsg != null ? errorMsg.substring(0, Math.min(499, errorMsg.length())) : "Error"}));
     }
 
     /**
-     * Resetea slides que quedaron atascados en estado PROCESSING.
+     * Resetea slides que quedaron atascados en estado PROCESSING: solo los de lease vencido,
+     * los que un worker vivo sigue renovando continúan en curso.
      */
-    @Transactional("processedTransactionManager")
     public int resetStuckSlides() {
-        List<SlideProcessingStatus> stuck = processingStatusRepo.findByStatus(
-            SlideProcessingStatus.ProcessingStatus.PROCESSING);
-        
-        for (SlideProcessingStatus status : stuck) {
-            status.setStatus(SlideProcessingStatus.ProcessingStatus.PENDING);
-            processingStatusRepo.save(status);
-        }
-        
-        log.info("Reseteados {} slides que estaban en PROCESSING", stuck.size());
-        return stuck.size();
+        int reset = claimService.releaseExpired();
+        log.info("Reseteados {} slides en PROCESSING con lease vencido", reset);
+        return reset;
     }
     
+    /**
+     * Slides que agotaron sus reintentos, del fallo más reciente al más antiguo.
+     */
+    public List<DeadLetterEntry> getDeadLetters() {
+        return processingStatusRepo.findByStatusOrderByFailedAtDesc(SlideProcessingStatus.ProcessingStatus.DEAD_LETTER)
+            .stream()
+            .map(status -> DeadLetterEntry.builder()
+                .slideId(status.getSlideId())
+                .retryCount(status.getRetryCount())
+                .failedAt(status.getFailedAt())
+                .errorMessage(status.getErrorMessage())
+                .build())
+            .toList();
+    }
+
+    /**
+     * Re-encola slides DEAD_LETTER (todos si slideIds es null o vacío).
+     */
+    public int requeueDeadLetters(List<Integer> slideIds) {
+        return retryPolicy.requeueDeadLetters(slideIds == null || slideIds.isEmpty() ? null : slideIds);
+    }
+
     /**
      * Obtiene el progreso actual de la sincronización.
      */
@@ -657,17 +1548,27 @@ public class SlideSyncService {
         long processing = processingStatusRepo.countByStatus(SlideProcessingStatus.ProcessingStatus.PROCESSING);
         long completed = processingStatusRepo.countByStatus(SlideProcessingStatus.ProcessingStatus.COMPLETED);
         long failed = processingStatusRepo.countByStatus(SlideProcessingStatus.ProcessingStatus.FAILED);
-        long total = pending + processing + completed + failed;
+        long deadLetter = processingStatusRepo.countByStatus(SlideProcessingStatus.ProcessingStatus.DEAD_LETTER);
+        long total = pending + processing + completed + failed + deadLetter;
         
         double completionPercentage = total > 0 ? (completed * 100.0 / total) : 0;
         
+        // Cobertura ponderada por popularidad: vistas de slides COMPLETED sobre el total
+        long totalViewWeight = processingStatusRepo.sumViewWeight();
+        long freshViewWeight = processingStatusRepo.sumViewWeightByStatus(
+            SlideProcessingStatus.ProcessingStatus.COMPLETED);
+        double freshViewsPercentage = totalViewWeight > 0 ? (freshViewWeight * 100.0 / totalViewWeight) : 0;
+        
         return SyncProgressStats.builder()
             .totalSlides(total)
             .pending(pending)
             .processing(processing)
             .completed(completed)
             .failed(failed)
+            .deadLetter(deadLetter)
             .completionPercentage(completionPercentage)
+            .totalViewWeight(totalViewWeight)
+            .freshViewsPercentage(freshViewsPercentage)
             .build();
     }
 
@@ -675,78 +1576,21 @@ public class SlideSyncService {
     /**
      * Detecta slides COMPLETED cuyo write_date en la réplica supera el odoo_write_date guardado
      * y los resetea a PENDING para que syncAllSlides los vuelva a procesar.
+     * También da de alta en el tracking los slides relevantes que aún no lo tienen.
      */
-    @Transactional("processedTransactionManager")
     public int resetOutdatedSlides() {
-        List<Integer> completedIds = processingStatusRepo.findCompletedSlideIds();
-        if (completedIds.isEmpty()) return 0;
-
-        List<Integer> outdatedIds = new ArrayList<>();
-        int chunkSize = 500;
-
-        for (int i = 0; i < completedIds.size(); i += chunkSize) {
-            List<Integer> chunk = completedIds.subList(i, Math.min(i + chunkSize, completedIds.size()));
-
-            // Fechas en BD procesada
-            Map<Integer, java.time.LocalDateTime> processedDates = new HashMap<>();
-            for (Object[] row : processedSlideRepo.findWriteDatesByIds(chunk)) {
-                processedDates.put(((Number) row[0]).intValue(), (java.time.LocalDateTime) row[1]);
-            }
-
-            // Fechas en réplica (nativeQuery devuelve Timestamp)
-            Map<Integer, java.time.LocalDateTime> replicaDates = new HashMap<>();
-            for (Object[] row : replicaSlideRepo.findWriteDatesByIds(chunk)) {
-                Integer id = ((Number) row[0]).intValue();
-                java.time.LocalDateTime wd = null;
-                if (row[1] instanceof java.sql.Timestamp ts) {
-                    wd = ts.toLocalDateTime();
-                } else if (row[1] instanceof java.time.LocalDateTime ldt) {
-                    wd = ldt;
-                }
-                if (wd != null) replicaDates.put(id, wd);
-            }
-
-            for (Integer id : chunk) {
-                java.time.LocalDateTime processed = processedDates.get(id);
-                java.time.LocalDateTime replica = replicaDates.get(id);
-                if (replica != null && (processed == null || replica.isAfter(processed))) {
-                    outdatedIds.add(id);
-                }
-            }
+        ReconciliationResult result = reconciliationService.reconcile(true, false);
+        if (result.getUpdated() > 0) {
+            log.info("resetOutdatedSlides: {} slides reseteados a PENDING por cambios en Odoo", result.getUpdated());
         }
-
-        if (!outdatedIds.isEmpty()) {
-            for (int i = 0; i < outdatedIds.size(); i += chunkSize) {
-                List<Integer> chunk = outdatedIds.subList(i, Math.min(i + chunkSize, outdatedIds.size()));
-                processingStatusRepo.updateStatusByIds(
-                    SlideProcessingStatus.ProcessingStatus.PENDING, chunk);
-            }
-            log.info("resetOutdatedSlides: {} slides reseteados a PENDING por cambios en Odoo", outdatedIds.size());
-        }
-
-        return outdatedIds.size();
+        return result.getUpdated();
     }
 
     /**
      * Elimina de la BD procesada los slides que ya no están en el conjunto relevante
-     * (activos, publicados, en canal publicado). Usa IDs para evitar cargar htmlContent.
+     * (activos, publicados, en canal publicado), con DELETEs masivos por bloques.
      */
-    @Transactional("processedTransactionManager")
-    public int purgeExcludedSlides() {
-        List<Integer> relevantIds = replicaSlideRepo.findActiveSlideIds();
-        Set<Integer> relevantSet = new HashSet<>(relevantIds);
-
-        List<Integer> processedIds = processedSlideRepo.findAllIds();
-        int deleted = 0;
-        for (Integer id : processedIds) {
-            if (!relevantSet.contains(id)) {
-                imageRepo.deleteBySlideId(id);
-                processedSlideRepo.deleteById(id);
-                processingStatusRepo.deleteById(id);
-                deleted++;
-            }
-        }
-        log.info("purgeExcludedSlides: {} slides eliminados de la BD procesada", deleted);
-        return deleted;
+    public PurgeResult purgeExcludedSlides() {
+        return reconciliationService.purgeExcluded();
     }
-}
\ No newline at end of file
+}
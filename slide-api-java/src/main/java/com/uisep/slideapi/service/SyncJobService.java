@@ -0,0 +1,384 @@
+package com.uisep.slideapi.service;
+
+import com.uisep.slideapi.dto.SlideDTO.SyncJobInfo;
+import com.uisep.slideapi.dto.SlideDTO.SyncResult;
+import com.uisep.slideapi.entity.processed.SyncJob;
+import com.uisep.slideapi.entity.processed.SyncJob.JobStatus;
+import com.uisep.slideapi.entity.processed.SyncJob.JobType;
+import com.uisep.slideapi.repository.processed.SyncJobRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.sql.DataSource;
+import java.net.InetAddress;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
+import java.util.function.IntFunction;
+import java.util.function.Supplier;
+
+/**
+ * Trabajos de sincronización completa en segundo plano.
+ * Cada ejecución (manual o programada) se registra en sync_jobs con un ID, que es también el
+ * syncRunId del log. Una sola ejecución activa a la vez en todo el clúster: el trabajo toma un
+ * advisory lock de PostgreSQL en una conexión dedicada durante toda la ejecución; si el nodo
+ * cae, PostgreSQL libera el lock al cerrarse la sesión. Los demás nodos se suman a la ejecución
+ * activa reclamando lotes de la cola ({@link SlideClaimService}).
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class SyncJobService {
+
+    // Clave del advisory lock de la sincronización (compartida por todos los nodos)
+    static final long SYNC_LOCK_KEY = 0x736c6964L;
+    private static final int MAX_LISTED_JOBS = 100;
+    // Cada cuánto el trabajo relee la bandera de cancelación en BD (cancelación desde otro nodo)
+    private static final long CANCEL_POLL_NANOS = TimeUnit.SECONDS.toNanos(5);
+    // Un QUEUED más antiguo que esto con el lock libre ya no va a arrancar
+    private static final Duration STALE_QUEUED_AFTER = Duration.ofMinutes(10);
+    // Un advisory lock de clave bigint aparece en pg_locks partido en classid (32 bits altos)
+    // y objid (32 bits bajos), con objsubid = 1
+    private static final String LOCK_HELD_SQL = """
+        SELECT EXISTS (
+            SELECT 1 FROM pg_locks
+            WHERE locktype = 'advisory' AND granted AND pid = ? AND objsubid = 1
+              AND ((classid::bigint << 32) | objid::bigint) = ?
+        )
+        """;
+
+    private final SlideSyncService syncService;
+    private final SyncJobRepository jobRepo;
+
+    @Qualifier("processedDataSource")
+    private final DataSource processedDataSource;
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "sync-job");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // Trabajos de este nodo aún sin terminar → bandera de cancelación
+    private final ConcurrentMap<String, AtomicBoolean> localJobs = new ConcurrentHashMap<>();
+    // Este nodo está ayudando a drenar la cola de un trabajo de otro nodo
+    private final AtomicBoolean assisting = new AtomicBoolean();
+
+    // Reclamar lotes de los trabajos que corren en otros nodos
+    @Value("${migration.sync.claim.assist-enabled:true}")
+    private boolean assistEnabled;
+
+    @PreDestroy
+    void shutdown() {
+        localJobs.values().forEach(flag -> flag.set(true));
+        executor.shutdown();
+    }
+
+    /**
+     * Sincronización programada automática.
+     * Se ejecuta según el cron definido en application.yml; si ya hay una ejecución activa se omite.
+     */
+    @Scheduled(cron = "${migration.sync.cron:0 0 */6 * * *}")
+    public void scheduledSync() {
+        log.info("Iniciando sincronización programada...");
+        if (submit(JobType.SCHEDULED).isEmpty()) {
+            log.info("Sincronización programada omitida: ya hay una ejecución activa");
+        }
+    }
+
+    /**
+     * Une este nodo a un trabajo RUNNING de otro nodo: reclama lotes de la misma cola (mismo syncRunId)
+     * hasta vaciarla. Se ejecuta en el hilo de trabajos, no en el del scheduler.
+     * Intervalo definido por migration.sync.claim.assist-poll-ms (por defecto 30 s).
+     */
+    @Scheduled(fixedDelayString = "${migration.sync.claim.assist-poll-ms:30000}",
+               initialDelayString = "${migration.sync.claim.assist-poll-ms:30000}")
+    public void assistRunningJob() {
+        if (!assistEnabled || !localJobs.isEmpty() || assisting.get()) return;
+        Optional<SyncJob> running = jobRepo.findByStatusIn(List.of(JobStatus.RUNNING)).stream().findFirst();
+        // Vivo solo si su propia sesión sigue teniendo el lock (pg_locks, sin tomarlo): un RUNNING
+        // de un nodo caído no se asiste aunque otra ejecución (incremental, bulk-load) tenga el lock
+        if (running.isEmpty() || !holdsSyncLock(running.get().getLockPid())) return;
+        if (!assisting.compareAndSet(false, true)) return;
+
+        String jobId = running.get().getJobId();
+        executor.execute(() -> {
+            try {
+                SyncResult result = syncService.syncClaimed(jobId, cancellationCheck(jobId, new AtomicBoolean()));
+                if (result.getSlidesProcessed() > 0) {
+                    log.info("Trabajo {} (nodo {}): este nodo procesó {} slides ({} fallidos)", jobId,
+                        running.get().getNode(), result.getSlidesProcessed(), result.getSlidesFailed());
+                }
+            } catch (Exception e) {
+                log.error("Error ayudando al trabajo de sincronización {}", jobId, e);
+            } finally {
+                assisting.set(false);
+            }
+        });
+    }
+
+    /**
+     * Encola una sincronización completa.
+     *
+     * @return Trabajo aceptado, o vacío si ya hay una ejecución activa (en este u otro nodo)
+     */
+    public synchronized Optional<SyncJobInfo> submit(JobType type) {
+        if (!localJobs.isEmpty() || !probeLockAndRecover()) {
+            return Optional.empty();
+        }
+        SyncJob job = jobRepo.save(SyncJob.builder()
+            .jobId(UUID.randomUUID().toString())
+            .jobType(type)
+            .status(JobStatus.QUEUED)
+            .submittedAt(LocalDateTime.now())
+            .node(nodeName())
+            .build());
+        AtomicBoolean cancelFlag = new AtomicBoolean();
+        localJobs.put(job.getJobId(), cancelFlag);
+        executor.execute(() -> runJob(job.getJobId(), cancelFlag));
+        log.info("Sincronización {} encolada como trabajo {}", type, job.getJobId());
+        return Optional.of(toInfo(job));
+    }
+
+    public Optional<SyncJobInfo> getJob(String jobId) {
+        return jobRepo.findById(jobId).map(this::toInfo);
+    }
+
+    /**
+     * Trabajos más recientes primero.
+     */
+    public List<SyncJobInfo> listJobs(int limit) {
+        return jobRepo.findByOrderBySubmittedAtDesc(PageRequest.of(0, Math.min(limit, MAX_LISTED_JOBS)))
+            .stream()
+            .map(this::toInfo)
+            .toList();
+    }
+
+    /**
+     * Solicita la cancelación de un trabajo QUEUED o RUNNING. La ejecución deja de tomar slides
+     * y termina los que están en curso; el estado final será CANCELLED.
+     *
+     * @return Estado del trabajo tras la solicitud, o vacío si no existe
+     */
+    @Transactional("processedTransactionManager")
+    public Optional<SyncJobInfo> cancel(String jobId) {
+        if (jobRepo.requestCancel(jobId) > 0) {
+            AtomicBoolean flag = localJobs.get(jobId);
+            if (flag != null) flag.set(true);
+            log.info("Cancelación solicitada para el trabajo {}", jobId);
+        }
+        return getJob(jobId);
+    }
+
+    /**
+     * Ejecuta {@code work} con el advisory lock de la sincronización.
+     * Usado por los trabajos completos y por el sondeo incremental para no solaparse.
+     *
+     * @return Resultado, o vacío si otra ejecución tiene el lock
+     */
+    public <T> Optional<T> runExclusive(Supplier<T> work) {
+        return runExclusive(lockPid -> work.get());
+    }
+
+    /**
+     * Igual que {@link #runExclusive(Supplier)}; {@code work} recibe el pid del backend que tiene el lock.
+     */
+    private <T> Optional<T> runExclusive(IntFunction<T> work) {
+        try (Connection con = processedDataSource.getConnection()) {
+            con.setAutoCommit(true);
+            if (!advisoryLock(con, "pg_try_advisory_lock")) {
+                return Optional.empty();
+            }
+            try {
+                return Optional.ofNullable(work.apply(backendPid(con)));
+            } finally {
+                advisoryLock(con, "pg_advisory_unlock");
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("No se pudo gestionar el lock de sincronización", e);
+        }
+    }
+
+    private void runJob(String jobId, AtomicBoolean cancelFlag) {
+        try {
+            if (cancelFlag.get() || Boolean.TRUE.equals(jobRepo.isCancelRequested(jobId))) {
+                finish(jobId, JobStatus.CANCELLED, null, null);
+                return;
+            }
+            BooleanSupplier cancelRequested = cancellationCheck(jobId, cancelFlag);
+            Optional<SyncResult> result = runExclusive(lockPid -> {
+                markRunning(jobId, lockPid);
+                return syncService.syncAllSlides(true, jobId, cancelRequested);
+            });
+            if (result.isEmpty()) {
+                finish(jobId, JobStatus.SKIPPED, null, "Otra sincronización tiene el lock");
+            } else {
+                finish(jobId, cancelFlag.get() ? JobStatus.CANCELLED : JobStatus.COMPLETED, result.get(), null);
+            }
+        } catch (Exception e) {
+            log.error("Trabajo de sincronización {} falló", jobId, e);
+            finish(jobId, JobStatus.FAILED, null, e.getMessage());
+        } finally {
+            localJobs.remove(jobId);
+        }
+    }
+
+    /**
+     * Bandera local (cancelación en este nodo) más relectura periódica en BD (cancelación en otro nodo).
+     */
+    private BooleanSupplier cancellationCheck(String jobId, AtomicBoolean cancelFlag) {
+        // Lo consultan a la vez el hilo del trabajo y el alimentador del pipeline: consulta solo quien gana el CAS
+        AtomicLong lastPoll = new AtomicLong(System.nanoTime());
+        return () -> {
+            if (cancelFlag.get()) return true;
+            long now = System.nanoTime();
+            long last = lastPoll.get();
+            if (now - last >= CANCEL_POLL_NANOS && lastPoll.compareAndSet(last, now)) {
+                if (Boolean.TRUE.equals(jobRepo.isCancelRequested(jobId))) {
+                    cancelFlag.set(true);
+                }
+            }
+            return cancelFlag.get();
+        };
+    }
+
+    private void markRunning(String jobId, int lockPid) {
+        jobRepo.findById(jobId).ifPresent(job -> {
+            job.setStatus(JobStatus.RUNNING);
+            job.setLockPid(lockPid);
+            job.setStartedAt(LocalDateTime.now());
+            jobRepo.save(job);
+        });
+    }
+
+    private void finish(String jobId, JobStatus status, SyncResult result, String errorMessage) {
+        // Releer: la bandera de cancelación puede haber cambiado durante la ejecución
+        jobRepo.findById(jobId).ifPresent(job -> {
+            job.setStatus(status);
+            job.setCompletedAt(LocalDateTime.now());
+            if (result != null) {
+                job.setSlidesProcessed(result.getSlidesProcessed());
+                job.setSlidesCreated(result.getSlidesCreated());
+                job.setSlidesUpdated(result.getSlidesUpdated());
+                job.setSlidesFailed(result.getSlidesFailed());
+                job.setChannelsProcessed(result.getChannelsProcessed());
+                job.setDurationMs(result.getDurationMs());
+                job.setCommitMode(result.getCommitMode());
+            }
+            if (errorMessage != null) {
+                job.setErrorMessage(errorMessage.length() > 2000 ? errorMessage.substring(0, 2000) : errorMessage);
+            }
+            jobRepo.save(job);
+            log.info("Trabajo de sincronización {} → {}{}", jobId, status,
+                result != null ? " (" + result.getSlidesProcessed() + " slides)" : "");
+        });
+    }
+
+    /**
+     * Comprueba que el lock está libre y, en ese caso, marca FAILED los trabajos que figuran
+     * RUNNING en BD (su nodo cayó sin cerrarlos: el lock se liberó con su sesión) y los QUEUED
+     * que nunca llegaron a arrancar.
+     *
+     * @return true si el lock estaba libre
+     */
+    private boolean probeLockAndRecover() {
+        return runExclusive(() -> {
+            LocalDateTime queuedCutoff = LocalDateTime.now().minus(STALE_QUEUED_AFTER);
+            for (SyncJob stale : jobRepo.findByStatusIn(List.of(JobStatus.QUEUED, JobStatus.RUNNING))) {
+                if (stale.getStatus() == JobStatus.QUEUED && stale.getSubmittedAt().isAfter(queuedCutoff)) {
+                    continue;  // Puede estar a punto de arrancar en otro nodo
+                }
+                stale.setStatus(JobStatus.FAILED);
+                stale.setCompletedAt(LocalDateTime.now());
+                stale.setErrorMessage("Interrumpido: el nodo " + stale.getNode() + " terminó sin cerrar el trabajo");
+                jobRepo.save(stale);
+                log.warn("Trabajo de sincronización {} marcado FAILED (ejecución interrumpida)", stale.getJobId());
+            }
+            return true;
+        }).orElse(false);
+    }
+
+    /**
+     * Comprueba en pg_locks si el backend indicado tiene el lock de la sincronización, sin intentar tomarlo.
+     */
+    private boolean holdsSyncLock(Integer lockPid) {
+        if (lockPid == null) return false;
+        try (Connection con = processedDataSource.getConnection();
+             PreparedStatement ps = con.prepareStatement(LOCK_HELD_SQL)) {
+            ps.setInt(1, lockPid);
+            ps.setLong(2, SYNC_LOCK_KEY);
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() && rs.getBoolean(1);
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("No se pudo consultar el lock de sincronización", e);
+        }
+    }
+
+    private static int backendPid(Connection con) throws SQLException {
+        try (PreparedStatement ps = con.prepareStatement("SELECT pg_backend_pid()");
+             ResultSet rs = ps.executeQuery()) {
+            rs.next();
+            return rs.getInt(1);
+        }
+    }
+
+    private static boolean advisoryLock(Connection con, String function) throws SQLException {
+        try (PreparedStatement ps = con.prepareStatement("SELECT " + function + "(?)")) {
+            ps.setLong(1, SYNC_LOCK_KEY);
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() && rs.getBoolean(1);
+            }
+        }
+    }
+
+    private static String nodeName() {
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (Exception e) {
+            return "desconocido";
+        }
+    }
+
+    private SyncJobInfo toInfo(SyncJob job) {
+        return SyncJobInfo.builder()
+            .jobId(job.getJobId())
+            .jobType(job.getJobType().name())
+            .status(job.getStatus().name())
+            .cancelRequested(job.isCancelRequested())
+            .submittedAt(job.getSubmittedAt())
+            .startedAt(job.getStartedAt())
+            .completedAt(job.getCompletedAt())
+            .node(job.getNode())
+            .slidesProcessed(job.getSlidesProcessed())
+            .slidesCreated(job.getSlidesCreated())
+            .slidesUpdated(job.getSlidesUpdated())
+            .slidesFailed(job.getSlidesFailed())
+            .channelsProcessed(job.getChannelsProcessed())
+            .durationMs(job.getDurationMs())
+            .commitMode(job.getCommitMode())
+            .errorMessage(job.getErrorMessage())
+            .build();
+    }
+}
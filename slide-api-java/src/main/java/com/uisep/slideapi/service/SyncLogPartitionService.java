@@ -0,0 +1,134 @@
+package com.uisep.slideapi.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Mantenimiento de las particiones mensuales de public.slide_sync_log (ver migración V010).
+ * Crea por adelantado las particiones de los próximos meses (las filas sin partición caen en
+ * slide_sync_log_default) y aplica la retención eliminando particiones completas: un DROP TABLE
+ * por mes en lugar de DELETEs masivos que dejan la tabla llena de tuplas muertas.
+ * El resumen de ejecuciones (public.sync_runs) no se toca.
+ * Si la tabla aún no está particionada (migración no aplicada) no hace nada.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class SyncLogPartitionService {
+
+    private static final String PARENT = "slide_sync_log";
+    private static final String PARTITION_PREFIX = PARENT + "_p";
+    private static final DateTimeFormatter SUFFIX = DateTimeFormatter.ofPattern("yyyyMM");
+
+    @Qualifier("processedJdbcTemplate")
+    private final JdbcTemplate processedJdbc;
+
+    // Meses futuros con partición ya creada
+    @Value("${migration.sync.log.partitions.premake-months:2}")
+    private int premakeMonths;
+
+    // Meses completos de log conservados además del actual (0 = sin retención)
+    @Value("${migration.sync.log.partitions.retention-months:12}")
+    private int retentionMonths;
+
+    public record MaintenanceResult(List<String> created, List<String> dropped) {}
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        scheduledMaintenance();
+    }
+
+    @Scheduled(cron = "${migration.sync.log.partitions.cron:0 15 3 * * *}")
+    public void scheduledMaintenance() {
+        try {
+            MaintenanceResult result = maintain();
+            if (!result.created().isEmpty() || !result.dropped().isEmpty()) {
+                log.info("Particiones del log de sincronización: creadas {}, eliminadas {}",
+                    result.created(), result.dropped());
+            }
+        } catch (Exception e) {
+            log.error("Error en el mantenimiento de particiones del log de sincronización", e);
+        }
+    }
+
+    public MaintenanceResult maintain() {
+        List<String> created = new ArrayList<>();
+        List<String> dropped = new ArrayList<>();
+        if (!isPartitioned()) {
+            log.debug("public.{} no está particionada; se omite el mantenimiento", PARENT);
+            return new MaintenanceResult(created, dropped);
+        }
+
+        List<String> existing = partitionNames();
+        YearMonth current = YearMonth.now();
+        for (int i = 0; i <= premakeMonths; i++) {
+            YearMonth month = current.plusMonths(i);
+            String name = PARTITION_PREFIX + month.format(SUFFIX);
+            if (existing.contains(name)) continue;
+            try {
+                LocalDate from = month.atDay(1);
+                processedJdbc.execute("CREATE TABLE IF NOT EXISTS public." + name + " PARTITION OF public." + PARENT
+                    + " FOR VALUES FROM ('" + from + "') TO ('" + from.plusMonths(1) + "')");
+                created.add(name);
+            } catch (Exception e) {
+                // Suele indicar filas de ese mes ya en la partición por defecto
+                log.warn("No se pudo crear la partición {}: {}", name, e.getMessage());
+            }
+        }
+
+        if (retentionMonths > 0) {
+            YearMonth oldestKept = current.minusMonths(retentionMonths);
+            for (String name : existing) {
+                YearMonth month = monthOf(name);
+                if (month != null && month.isBefore(oldestKept)) {
+                    processedJdbc.execute("DROP TABLE IF EXISTS public." + name);
+                    dropped.add(name);
+                }
+            }
+        }
+        return new MaintenanceResult(created, dropped);
+    }
+
+    private boolean isPartitioned() {
+        List<String> kinds = processedJdbc.queryForList("""
+            SELECT c.relkind::text FROM pg_class c
+            JOIN pg_namespace n ON n.oid = c.relnamespace
+            WHERE n.nspname = 'public' AND c.relname = ?
+            """, String.class, PARENT);
+        return kinds.contains("p");
+    }
+
+    private List<String> partitionNames() {
+        return processedJdbc.queryForList("""
+            SELECT c.relname FROM pg_inherits i
+            JOIN pg_class c ON c.oid = i.inhrelid
+            WHERE i.inhparent = 'public.slide_sync_log'::regclass
+            """, String.class);
+    }
+
+    /**
+     * Mes de una partición mensual, o null para la partición por defecto u otras.
+     */
+    private static YearMonth monthOf(String partitionName) {
+        if (!partitionName.startsWith(PARTITION_PREFIX)) return null;
+        try {
+            return YearMonth.parse(partitionName.substring(PARTITION_PREFIX.length()), SUFFIX);
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,244 @@
+package com.uisep.slideapi.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Escritor del log de sincronización (public.slide_sync_log). Una transacción revertida
+ * no deja log:
+ * <ul>
+ *   <li>{@code async}: las filas se entregan al confirmarse la transacción del slide o bloque que
+ *       las produjo a un buffer acotado en memoria que un hilo de fondo vuelca con INSERT
+ *       multi-fila; con el buffer lleno se descartan y se cuentan ({@code slide.sync.log.dropped}),
+ *       la sincronización nunca espera al log</li>
+ *   <li>{@code durable}: se escriben dentro de la transacción del bloque, antes del commit, con
+ *       INSERT multi-fila; un error al escribirlas revierte el bloque (que en modo chunked se
+ *       biseca), así que tracking y log se confirman juntos o no se confirman</li>
+ * </ul>
+ * Filas: sync_run_id, synced_at, slide_id, slide_name, action, slide_type, channel_id,
+ * channel_name, odoo_write_date, original_size_bytes, processed_size_bytes, images_extracted, message.
+ * Cada INSERT actualiza en la misma sentencia el resumen de su ejecución en public.sync_runs.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class SyncLogWriter {
+
+    private static final String INSERT_SQL = withRunSummary("""
+        INSERT INTO public.slide_sync_log
+            (sync_run_id, synced_at, slide_id, slide_name, action, slide_type, channel_id,
+             channel_name, odoo_write_date, original_size_bytes, processed_size_bytes,
+             images_extracted, message)
+        SELECT * FROM unnest(?::varchar[], ?::timestamp[], ?::int[], ?::varchar[], ?::varchar[], ?::varchar[],
+                             ?::int[], ?::varchar[], ?::timestamp[], ?::bigint[], ?::bigint[], ?::int[], ?::varchar[])
+        """);
+    private static final int MESSAGE_COLUMN = 12;
+    private static final int MESSAGE_MAX_LENGTH = 500;
+    private static final String[] COLUMN_TYPES = {"varchar", "timestamp", "integer", "varchar", "varchar",
+        "varchar", "integer", "varchar", "timestamp", "bigint", "bigint", "integer", "varchar"};
+
+    @Qualifier("processedJdbcTemplate")
+    private final JdbcTemplate processedJdbc;
+
+    private final MeterRegistry meterRegistry;
+
+    // async: buffer + hilo de fondo tras el commit; durable: en la transacción de cada bloque
+    @Value("${migration.sync.log.mode:async}")
+    private String mode;
+
+    @Value("${migration.sync.log.buffer-capacity:20000}")
+    private int bufferCapacity;
+
+    // Filas máximas por INSERT
+    @Value("${migration.sync.log.flush-batch-size:500}")
+    private int flushBatchSize;
+
+    // Espera máxima del hilo de fondo sin filas nuevas
+    @Value("${migration.sync.log.flush-interval-ms:500}")
+    private long flushIntervalMs;
+
+    private BlockingQueue<Object[]> buffer;
+    private Counter dropped;
+    private Thread writer;
+    private volatile boolean stopping;
+    private volatile boolean dropWarned;
+
+    @PostConstruct
+    void init() {
+        buffer = new ArrayBlockingQueue<>(Math.max(1, bufferCapacity));
+        dropped = Counter.builder("slide.sync.log.dropped")
+            .description("Entradas del log de sincronización descartadas (buffer lleno o error al escribir)")
+            .register(meterRegistry);
+        Gauge.builder("slide.sync.log.buffer.size", buffer, BlockingQueue::size)
+            .description("Entradas del log de sincronización pendientes de escribir")
+            .register(meterRegistry);
+        writer = new Thread(this::runWriter, "sync-log-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    @PreDestroy
+    void shutdown() throws InterruptedException {
+        // El hilo vacía el buffer antes de salir
+        stopping = true;
+        writer.join(TimeUnit.SECONDS.toMillis(10));
+    }
+
+    /**
+     * Entrega filas del log. En modo durable se escriben ya, en la transacción en curso si la hay,
+     * y los errores se propagan; en modo async, dentro de una transacción, se difieren a su commit.
+     */
+    public void submit(List<Object[]> rows) {
+        if (rows.isEmpty()) return;
+        if (isDurable()) {
+            insert(rows);
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            List<Object[]> pending = new ArrayList<>(rows);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    deliver(pending);
+                }
+            });
+        } else {
+            deliver(rows);
+        }
+    }
+
+    public long getDroppedCount() {
+        return (long) dropped.count();
+    }
+
+    private void deliver(List<Object[]> rows) {
+        int rejected = 0;
+        for (Object[] row : rows) {
+            if (!buffer.offer(row)) rejected++;
+        }
+        if (rejected > 0) {
+            dropped.increment(rejected);
+            if (!dropWarned) {
+                dropWarned = true;
+                log.warn("Log de sincronización: buffer lleno ({} entradas), se descartan entradas", bufferCapacity);
+            }
+        }
+    }
+
+    private void runWriter() {
+        List<Object[]> batch = new ArrayList<>(flushBatchSize);
+        while (!stopping || !buffer.isEmpty()) {
+            try {
+                Object[] first = buffer.poll(flushIntervalMs, TimeUnit.MILLISECONDS);
+                if (first == null) continue;
+                batch.add(first);
+                buffer.drainTo(batch, flushBatchSize - 1);
+                write(batch);
+                dropWarned = false;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    /**
+     * Escritura del hilo de fondo: un INSERT fallido se descarta y se cuenta.
+     */
+    private void write(List<Object[]> rows) {
+        for (int from = 0; from < rows.size(); from += flushBatchSize) {
+            List<Object[]> chunk = rows.subList(from, Math.min(from + flushBatchSize, rows.size()));
+            try {
+                insertChunk(chunk);
+            } catch (Exception e) {
+                dropped.increment(chunk.size());
+                log.warn("No se pudieron guardar {} entradas del log de sincronización: {}", chunk.size(), e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Escritura durable: los errores se propagan al llamante.
+     */
+    private void insert(List<Object[]> rows) {
+        for (int from = 0; from < rows.size(); from += flushBatchSize) {
+            insertChunk(rows.subList(from, Math.min(from + flushBatchSize, rows.size())));
+        }
+    }
+
+    private void insertChunk(List<Object[]> chunk) {
+        processedJdbc.update(con -> {
+            PreparedStatement ps = con.prepareStatement(INSERT_SQL);
+            for (int column = 0; column < COLUMN_TYPES.length; column++) {
+                Object[] values = new Object[chunk.size()];
+                for (int i = 0; i < values.length; i++) {
+                    values[i] = chunk.get(i)[column];
+                }
+                if (column == MESSAGE_COLUMN) {
+                    for (int i = 0; i < values.length; i++) {
+                        if (values[i] instanceof String message && message.length() > MESSAGE_MAX_LENGTH) {
+                            values[i] = message.substring(0, MESSAGE_MAX_LENGTH);
+                        }
+                    }
+                }
+                ps.setArray(column + 1, con.createArrayOf(COLUMN_TYPES[column], values));
+            }
+            return ps;
+        });
+    }
+
+    /**
+     * Envuelve un INSERT en public.slide_sync_log para que sume sus filas al resumen de cada
+     * ejecución (public.sync_runs) en la misma sentencia. Las ejecuciones se bloquean en orden
+     * de sync_run_id para que dos escritores concurrentes no se interbloqueen.
+     */
+    public static String withRunSummary(String insertSql) {
+        return """
+            WITH logged AS (
+            %s
+                RETURNING sync_run_id, synced_at, action
+            )
+            INSERT INTO public.sync_runs AS r
+                (sync_run_id, started_at, last_event_at, total_events, created, updated, failed)
+            SELECT sync_run_id, MIN(synced_at), MAX(synced_at), COUNT(*),
+                   COUNT(*) FILTER (WHERE action = 'CREATED'),
+                   COUNT(*) FILTER (WHERE action = 'UPDATED'),
+                   COUNT(*) FILTER (WHERE action = 'FAILED')
+            FROM logged
+            GROUP BY sync_run_id
+            ORDER BY sync_run_id
+            ON CONFLICT (sync_run_id) DO UPDATE SET
+                started_at    = LEAST(r.started_at, EXCLUDED.started_at),
+                last_event_at = GREATEST(r.last_event_at, EXCLUDED.last_event_at),
+                total_events  = r.total_events + EXCLUDED.total_events,
+                created       = r.created + EXCLUDED.created,
+                updated       = r.updated + EXCLUDED.updated,
+                failed        = r.failed + EXCLUDED.failed
+            """.formatted(insertSql.strip());
+    }
+
+    private boolean isDurable() {
+        return "durable".equals(mode.toLowerCase(Locale.ROOT));
+    }
+}
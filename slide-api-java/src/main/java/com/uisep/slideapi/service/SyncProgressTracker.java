@@ -0,0 +1,155 @@
+package com.uisep.slideapi.service;
+
+import com.uisep.slideapi.dto.SlideDTO.LiveSyncProgress;
+import com.uisep.slideapi.dto.SlideDTO.MigrationResult;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Progreso en vivo de las sincronizaciones de este nodo, sin consultar la BD.
+ * El motor de sincronización suma cada resultado en contadores sin bloqueo ({@link LongAdder});
+ * un tick periódico calcula velocidad actual (slides/s y bytes/s desde el tick anterior) y ETA,
+ * y publica la instantánea a los suscriptores SSE.
+ * Con varias ejecuciones simultáneas (completa, incremental, por canal) los contadores se suman.
+ */
+@Component
+@Slf4j
+public class SyncProgressTracker {
+
+    // Vida de una conexión SSE; EventSource reconecta solo al expirar
+    private static final long EMITTER_TIMEOUT_MS = 30 * 60 * 1000L;
+
+    private final LongAdder processed = new LongAdder();
+    private final LongAdder created = new LongAdder();
+    private final LongAdder updated = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder bytes = new LongAdder();
+    private final List<SseEmitter> emitters = new CopyOnWriteArrayList<>();
+
+    // Solo cambian al empezar y terminar ejecuciones (synchronized); se leen sin bloqueo
+    private volatile long totalSlides;
+    private volatile int activeRuns;
+    private volatile LocalDateTime startedAt;
+
+    // Estado del tick (un solo hilo de scheduling)
+    private long lastTickNanos = System.nanoTime();
+    private long lastProcessed;
+    private long lastBytes;
+    private volatile LiveSyncProgress latest = LiveSyncProgress.builder().running(false).build();
+
+    @Value("${migration.sync.progress.stream-interval-ms:1000}")
+    private long streamIntervalMs;
+
+    /**
+     * Registra el inicio de una ejecución. Si no había otra activa, los contadores vuelven a cero.
+     */
+    public synchronized void runStarted(int slides) {
+        if (activeRuns == 0) {
+            processed.reset();
+            created.reset();
+            updated.reset();
+            failed.reset();
+            bytes.reset();
+            totalSlides = 0;
+            startedAt = LocalDateTime.now();
+        }
+        totalSlides += slides;
+        activeRuns++;
+    }
+
+    public synchronized void runFinished() {
+        activeRuns = Math.max(0, activeRuns - 1);
+    }
+
+    /**
+     * Suma un resultado. Llamado desde el hilo escritor de la sincronización en curso.
+     */
+    public void record(MigrationResult result) {
+        processed.increment();
+        switch (result.getStatus() != null ? result.getStatus() : "") {
+            case "CREATED" -> created.increment();
+            case "UPDATED" -> updated.increment();
+            case "FAILED" -> failed.increment();
+            default -> { }
+        }
+        if (result.getOriginalSize() != null) {
+            bytes.add(result.getOriginalSize());
+        }
+    }
+
+    public LiveSyncProgress snapshot() {
+        return latest;
+    }
+
+    /**
+     * Nueva suscripción SSE; recibe de inmediato la última instantánea.
+     */
+    public SseEmitter subscribe() {
+        SseEmitter emitter = new SseEmitter(EMITTER_TIMEOUT_MS);
+        emitter.onCompletion(() -> emitters.remove(emitter));
+        emitter.onTimeout(() -> emitters.remove(emitter));
+        emitter.onError(e -> emitters.remove(emitter));
+        emitters.add(emitter);
+        send(emitter, latest);
+        return emitter;
+    }
+
+    @Scheduled(fixedRateString = "${migration.sync.progress.stream-interval-ms:1000}")
+    void tick() {
+        long now = System.nanoTime();
+        double seconds = Math.max((now - lastTickNanos) / 1e9, streamIntervalMs / 2000.0);
+        long processedNow = processed.sum();
+        long bytesNow = bytes.sum();
+        // max(0): los contadores pueden haberse reiniciado entre ticks
+        double slidesPerSecond = Math.max(0, processedNow - lastProcessed) / seconds;
+        double bytesPerSecond = Math.max(0, bytesNow - lastBytes) / seconds;
+        lastTickNanos = now;
+        lastProcessed = processedNow;
+        lastBytes = bytesNow;
+
+        long total = totalSlides;
+        long remaining = Math.max(0, total - processedNow);
+        boolean running = activeRuns > 0;
+        latest = LiveSyncProgress.builder()
+            .running(running)
+            .activeRuns(activeRuns)
+            .startedAt(startedAt)
+            .totalSlides(total)
+            .processed(processedNow)
+            .created(created.sum())
+            .updated(updated.sum())
+            .failed(failed.sum())
+            .slidesPerSecond(round(slidesPerSecond))
+            .bytesPerSecond(Math.round(bytesPerSecond))
+            .etaSeconds(running && slidesPerSecond > 0 ? Math.round(remaining / slidesPerSecond) : null)
+            .updatedAt(LocalDateTime.now())
+            .build();
+
+        for (SseEmitter emitter : emitters) {
+            send(emitter, latest);
+        }
+    }
+
+    private void send(SseEmitter emitter, LiveSyncProgress progress) {
+        try {
+            emitter.send(SseEmitter.event().name("progress").data(progress));
+        } catch (IOException | IllegalStateException e) {
+            // Cliente desconectado: se descarta sin ruido
+            emitters.remove(emitter);
+            log.debug("Suscriptor SSE de progreso desconectado: {}", e.getMessage());
+        }
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 10) / 10.0;
+    }
+}
@@ -0,0 +1,85 @@
+package com.uisep.slideapi.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Ida y vuelta del formato texto de COPY usado por la carga masiva.
+ */
+class PgCopyTextTest {
+
+    private static List<String> roundTrip(Object... values) {
+        return PgCopyText.parseRow(PgCopyText.formatRow(values));
+    }
+
+    @Test
+    void escapesSurviveRoundTrip() {
+        String text = "tab\tline\nreturn\rback\\slash <p>ñ</p>";
+
+        assertThat(PgCopyText.formatRow(text))
+            .asString(StandardCharsets.UTF_8)
+            .isEqualTo("tab\\tline\\nreturn\\rback\\\\slash <p>ñ</p>\n");
+        assertThat(roundTrip(text, "otro")).containsExactly(text, "otro");
+    }
+
+    @Test
+    void nullAndEmptyStringAreDistinct() {
+        assertThat(roundTrip(null, "", "\\N", "x")).containsExactly(null, "", "\\N", "x");
+        assertThat(PgCopyText.formatRow(null, "")).asString(StandardCharsets.UTF_8).isEqualTo("\\N\t\n");
+    }
+
+    @Test
+    void byteaIsWrittenAsEscapedHex() {
+        byte[] image = {0, 1, (byte) 0x7f, (byte) 0x80, (byte) 0xff, '\t', '\\'};
+
+        assertThat(PgCopyText.formatRow((Object) image))
+            .asString(StandardCharsets.UTF_8)
+            .isEqualTo("\\\\x00017f80ff095c\n");
+        // COPY entrega el valor de texto de bytea: \x seguido de los bytes en hex
+        String field = roundTrip((Object) image).get(0);
+        assertThat(field).startsWith("\\x");
+        assertThat(HexFormat.of().parseHex(field.substring(2))).isEqualTo(image);
+    }
+
+    @Test
+    void timestampsRoundTrip() {
+        LocalDateTime withMicros = LocalDateTime.of(2024, 3, 9, 14, 5, 7, 123_456_000);
+        LocalDateTime wholeMinute = LocalDateTime.of(2024, 3, 9, 14, 5);
+
+        List<String> fields = roundTrip(withMicros, wholeMinute);
+        assertThat(PgCopyText.toLocalDateTime(fields.get(0))).isEqualTo(withMicros);
+        assertThat(PgCopyText.toLocalDateTime(fields.get(1))).isEqualTo(wholeMinute);
+        // Formato en que el servidor emite timestamp en COPY TO
+        assertThat(PgCopyText.toLocalDateTime("2024-03-09 14:05:07.123456")).isEqualTo(withMicros);
+        assertThat(PgCopyText.toLocalDateTime(null)).isNull();
+    }
+
+    @Test
+    void scalarsRoundTrip() {
+        List<String> fields = roundTrip(42, 9_000_000_000L, true, false);
+
+        assertThat(PgCopyText.toInteger(fields.get(0))).isEqualTo(42);
+        assertThat(fields.get(1)).isEqualTo("9000000000");
+        assertThat(PgCopyText.toBoolean(fields.get(2))).isTrue();
+        assertThat(PgCopyText.toBoolean(fields.get(3))).isFalse();
+        assertThat(PgCopyText.toBoolean(null)).isNull();
+    }
+
+    @Test
+    void parsesServerOnlyEscapes() {
+        byte[] line = "\\b\\f\\v\t\\101\\x42\t\\N\n".getBytes(StandardCharsets.UTF_8);
+
+        assertThat(PgCopyText.parseRow(line)).containsExactly("\b\f\u000B", "AB", null);
+    }
+
+    @Test
+    void emptyLastFieldIsKept() {
+        assertThat(PgCopyText.parseRow("a\t\n".getBytes(StandardCharsets.UTF_8))).containsExactly("a", "");
+    }
+}